@@ -0,0 +1,43 @@
+package com.kms.gdrive.sheet;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * The secondary results of the benchmarks: the API requests and the measured
+ * operations of each iteration, apiRequests / operations is the requests per
+ * operation
+ */
+@State(Scope.Thread)
+@AuxCounters(AuxCounters.Type.EVENTS)
+public class ApiRequests {
+  public long apiRequests;
+  public long operations;
+
+  @Setup(Level.Iteration)
+  public void reset() {
+    apiRequests = 0;
+    operations = 0;
+  }
+
+  /**
+   * @return the request count of the current thread, to pass to
+   *         {@link #record(long)} after the operation
+   */
+  public long start() {
+    return CountingSheetBackend.threadRequestCount();
+  }
+
+  /**
+   * record one operation and its requests
+   *
+   * @param startCount the request count before the operation
+   */
+  public void record(long startCount) {
+    apiRequests += CountingSheetBackend.threadRequestCount() - startCount;
+    operations++;
+  }
+}
@@ -0,0 +1,85 @@
+package com.kms.gdrive.sheet;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Create the in-memory spreadsheets of the benchmarks, in the layout of the
+ * Report defaults: the test names in column C and the results in column E from
+ * row 12
+ */
+final class BenchmarkSheets {
+  static final String SHEET_NAME = "Tests";
+  static final String NAME_COL = "C";
+  static final String RESULT_COL = "E";
+  static final int START_ROW = 12;
+
+  /**
+   * the backends by the sheetID, each benchmark trial uses a new sheetID
+   */
+  private static final ConcurrentHashMap<String, SheetBackend> BACKENDS = new ConcurrentHashMap<>();
+  private static final AtomicInteger SHEET_COUNT = new AtomicInteger();
+
+  static {
+    Sheet.setBackendFactory(BACKENDS::get);
+    // Measure the library, not the quota
+    RequestScheduler.setRateLimits(0, 0, 1);
+    Report.setTestCols(NAME_COL, RESULT_COL);
+    Report.setTestNameStartRow(START_ROW);
+  }
+
+  private BenchmarkSheets() {
+    throw new IllegalStateException("Utility class");
+  }
+
+  /**
+   * @param index the zero based index of the test
+   * @return the name of the test
+   */
+  static String testName(int index) {
+    return "test-" + index;
+  }
+
+  /**
+   * @param index the zero based index of the test
+   * @return the row of the test
+   */
+  static int testRow(int index) {
+    return START_ROW + index;
+  }
+
+  /**
+   * create a spreadsheet with the tests which have a result
+   *
+   * @param testCount     the number of the tests
+   * @param latencyMillis the latency of each API request
+   * @return the sheetID of the new spreadsheet
+   */
+  static String create(int testCount, long latencyMillis) {
+    InMemorySheetBackend backend = new InMemorySheetBackend().addSheet(SHEET_NAME);
+    List<List<Object>> names = new ArrayList<>(testCount);
+    List<List<Object>> results = new ArrayList<>(testCount);
+    for (int index = 0; index < testCount; index++) {
+      names.add(Collections.singletonList(testName(index)));
+      results.add(Collections.singletonList("PASSED"));
+    }
+    int lastRow = testRow(testCount - 1);
+    try {
+      backend.update(SHEET_NAME + "!A" + (START_ROW - 2), Collections.singletonList(Collections.singletonList("Run")));
+      backend.update(CellRange.of(SHEET_NAME, NAME_COL, START_ROW, NAME_COL, lastRow).toA1(), names);
+      backend.update(CellRange.of(SHEET_NAME, RESULT_COL, START_ROW, RESULT_COL, lastRow).toA1(), results);
+    } catch (IOException e) {
+      throw new IllegalStateException(e);
+    }
+    backend.resetRequestCounts();
+    backend.setLatencyMillis(latencyMillis);
+
+    String sheetID = "benchmark-" + SHEET_COUNT.incrementAndGet();
+    BACKENDS.put(sheetID, new CountingSheetBackend(backend));
+    return sheetID;
+  }
+}
@@ -0,0 +1,61 @@
+package com.kms.gdrive.sheet;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The cost of starting a new run: inserting the result column with its header.
+ * Each iteration starts from a new sheet and inserts a fixed batch of columns,
+ * so the sheet does not grow without bound
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, batchSize = ColumnCreationBenchmark.COLUMNS_PER_ITERATION)
+@Measurement(iterations = 10, batchSize = ColumnCreationBenchmark.COLUMNS_PER_ITERATION)
+@Fork(1)
+public class ColumnCreationBenchmark {
+  static final int COLUMNS_PER_ITERATION = 20;
+
+  @Param({ "1000", "10000", "100000" })
+  public int rows;
+
+  @Param({ "0" })
+  public long latencyMillis;
+
+  private Report report;
+
+  @Setup(Level.Iteration)
+  public void createSheet() {
+    report = new Report(BenchmarkSheets.create(rows, latencyMillis));
+    report.findTestByName(BenchmarkSheets.testName(0), BenchmarkSheets.SHEET_NAME, true);
+  }
+
+  @Benchmark
+  public boolean createNewResultCol(ApiRequests requests) {
+    long startCount = requests.start();
+    boolean inserted = report.createNewResultCol(BenchmarkSheets.SHEET_NAME);
+    requests.record(startCount);
+    return inserted;
+  }
+
+  @Benchmark
+  public boolean createNewResultColTitle(ApiRequests requests) {
+    long startCount = requests.start();
+    boolean inserted = report.createNewResultColTitle("run", BenchmarkSheets.SHEET_NAME);
+    requests.record(startCount);
+    return inserted;
+  }
+}
@@ -0,0 +1,85 @@
+package com.kms.gdrive.sheet;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The in-process work of each result which does not call the API: counting the
+ * results of the tests, converting the column letters and building the ranges
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CounterBenchmark {
+  @Param({ "1000", "100000" })
+  public int tests;
+
+  private String[] names;
+  private TestResult testResult;
+
+  @Setup(Level.Trial)
+  public void createNames() {
+    names = new String[tests];
+    for (int index = 0; index < tests; index++)
+      names[index] = BenchmarkSheets.testName(index);
+  }
+
+  @Setup(Level.Iteration)
+  public void createTestResult() {
+    testResult = new TestResult();
+    for (String name : names)
+      testResult.addNew(name);
+  }
+
+  @Benchmark
+  public void addNew() {
+    testResult.addNew(names[ThreadLocalRandom.current().nextInt(tests)]);
+  }
+
+  @Benchmark
+  public int findTheTestIndex() {
+    return testResult.findTheTestIndex(names[ThreadLocalRandom.current().nextInt(tests)]);
+  }
+
+  /**
+   * the column letters, a separate state so they are not crossed with the test
+   * counts
+   */
+  @State(Scope.Thread)
+  public static class Column {
+    @Param({ "E", "AB", "XFD" })
+    public String letter;
+  }
+
+  @Benchmark
+  public int letterToColumn(Column column) {
+    return CellRef.letterToColumn(column.letter);
+  }
+
+  @Benchmark
+  public String columnToLetter(Column column) {
+    return CellRef.columnToLetter(CellRef.letterToColumn(column.letter));
+  }
+
+  @Benchmark
+  public String cellRange(Column column) {
+    return CellRange.cell(BenchmarkSheets.SHEET_NAME, column.letter, ThreadLocalRandom.current().nextInt(1, tests))
+        .toA1();
+  }
+}
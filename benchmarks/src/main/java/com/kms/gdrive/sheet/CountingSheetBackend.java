@@ -0,0 +1,98 @@
+package com.kms.gdrive.sheet;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.google.api.services.sheets.v4.model.BatchUpdateSpreadsheetResponse;
+import com.google.api.services.sheets.v4.model.Request;
+import com.google.api.services.sheets.v4.model.SheetProperties;
+import com.google.api.services.sheets.v4.model.ValueRange;
+
+/**
+ * The SheetBackend which counts the API requests of the calling thread, so each
+ * benchmark thread can report the requests of its own operations. The requests
+ * of the library threads (Ex: the read-ahead of the rows) are counted for all
+ * the benchmark threads
+ */
+class CountingSheetBackend implements SheetBackend {
+  /**
+   * the requests of the benchmark thread, null for the library threads
+   */
+  private static final ThreadLocal<long[]> THREAD_REQUESTS = new ThreadLocal<>();
+  private static final LongAdder BACKGROUND_REQUESTS = new LongAdder();
+
+  /**
+   * @return the number of the requests which are sent by the current thread and
+   *         by the library threads
+   */
+  static long threadRequestCount() {
+    long[] threadRequests = THREAD_REQUESTS.get();
+    if (threadRequests == null) {
+      threadRequests = new long[1];
+      THREAD_REQUESTS.set(threadRequests);
+    }
+    return threadRequests[0] + BACKGROUND_REQUESTS.sum();
+  }
+
+  private final SheetBackend backend;
+
+  /**
+   * Constructor for CountingSheetBackend
+   *
+   * @param backend the backend to send the requests
+   */
+  CountingSheetBackend(SheetBackend backend) {
+    this.backend = backend;
+  }
+
+  private static void count() {
+    long[] threadRequests = THREAD_REQUESTS.get();
+    if (threadRequests == null)
+      BACKGROUND_REQUESTS.increment();
+    else
+      threadRequests[0]++;
+  }
+
+  @Override
+  public ValueRange get(String range, ReadOptions options) throws IOException {
+    count();
+    return backend.get(range, options);
+  }
+
+  @Override
+  public List<ValueRange> batchGet(List<String> ranges, ReadOptions options) throws IOException {
+    count();
+    return backend.batchGet(ranges, options);
+  }
+
+  @Override
+  public void update(String range, List<List<Object>> values) throws IOException {
+    count();
+    backend.update(range, values);
+  }
+
+  @Override
+  public void batchUpdateValues(List<ValueRange> data) throws IOException {
+    count();
+    backend.batchUpdateValues(data);
+  }
+
+  @Override
+  public String append(String range, List<List<Object>> values) throws IOException {
+    count();
+    return backend.append(range, values);
+  }
+
+  @Override
+  public BatchUpdateSpreadsheetResponse batchUpdate(List<Request> requests) throws IOException {
+    count();
+    return backend.batchUpdate(requests);
+  }
+
+  @Override
+  public List<SheetProperties> getSheetProperties() throws IOException {
+    count();
+    return backend.getSheetProperties();
+  }
+}
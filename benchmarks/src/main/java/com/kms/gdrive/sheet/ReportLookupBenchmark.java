@@ -0,0 +1,69 @@
+package com.kms.gdrive.sheet;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The cost of finding a test by name: the warm lookup in the loaded index and
+ * the cold lookup which reads the name and result columns first
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ReportLookupBenchmark {
+  @Param({ "1000", "10000", "100000" })
+  public int rows;
+
+  @Param({ "0" })
+  public long latencyMillis;
+
+  private Report report;
+
+  @Setup(Level.Trial)
+  public void createSheet() {
+    report = new Report(BenchmarkSheets.create(rows, latencyMillis));
+    report.findTestByName(BenchmarkSheets.testName(0), BenchmarkSheets.SHEET_NAME, true);
+  }
+
+  @Benchmark
+  public int findTestByName(ApiRequests requests) {
+    long startCount = requests.start();
+    int row = report.findTestByName(BenchmarkSheets.testName(ThreadLocalRandom.current().nextInt(rows)),
+        BenchmarkSheets.SHEET_NAME, true);
+    requests.record(startCount);
+    return row;
+  }
+
+  @Benchmark
+  public int findTestByNameMissing(ApiRequests requests) {
+    long startCount = requests.start();
+    int row = report.findTestByName("missing-test", BenchmarkSheets.SHEET_NAME, true);
+    requests.record(startCount);
+    return row;
+  }
+
+  @Benchmark
+  public int findTestByNameCold(ApiRequests requests) {
+    long startCount = requests.start();
+    report.invalidateIndex(BenchmarkSheets.SHEET_NAME);
+    int row = report.findTestByName(BenchmarkSheets.testName(rows - 1), BenchmarkSheets.SHEET_NAME, true);
+    requests.record(startCount);
+    return row;
+  }
+}
@@ -0,0 +1,107 @@
+package com.kms.gdrive.sheet;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The throughput of submitting the results to the existing tests, from one and
+ * from many threads. Run with -t to change the threads of the *Threads
+ * benchmarks and with -p latencyMillis=50 to measure against a slow API
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ReportWriteBenchmark {
+  static final int BATCH_SIZE = 100;
+
+  @Param({ "1000", "10000" })
+  public int rows;
+
+  @Param({ "0" })
+  public long latencyMillis;
+
+  private Report report;
+
+  @Setup(Level.Trial)
+  public void createSheet() {
+    report = new Report(BenchmarkSheets.create(rows, latencyMillis));
+    report.findTestByName(BenchmarkSheets.testName(0), BenchmarkSheets.SHEET_NAME, true);
+  }
+
+  private int updateAtRow(ApiRequests requests) {
+    int index = ThreadLocalRandom.current().nextInt(rows);
+    long startCount = requests.start();
+    int row = report.updateTestResultAtRow(BenchmarkSheets.testName(index), "PASSED", BenchmarkSheets.SHEET_NAME,
+        BenchmarkSheets.testRow(index));
+    requests.record(startCount);
+    return row;
+  }
+
+  @Benchmark
+  @Threads(1)
+  public int updateTestResultAtRow(ApiRequests requests) {
+    return updateAtRow(requests);
+  }
+
+  @Benchmark
+  @Threads(4)
+  public int updateTestResultAtRowThreads(ApiRequests requests) {
+    return updateAtRow(requests);
+  }
+
+  private int updateByName(ApiRequests requests) {
+    long startCount = requests.start();
+    int row = report.updateTestResultByName(BenchmarkSheets.testName(ThreadLocalRandom.current().nextInt(rows)),
+        "FAILED", BenchmarkSheets.SHEET_NAME, true);
+    requests.record(startCount);
+    return row;
+  }
+
+  @Benchmark
+  @Threads(1)
+  public int updateTestResultByName(ApiRequests requests) {
+    return updateByName(requests);
+  }
+
+  @Benchmark
+  @Threads(4)
+  public int updateTestResultByNameThreads(ApiRequests requests) {
+    return updateByName(requests);
+  }
+
+  @Benchmark
+  @Threads(1)
+  @OperationsPerInvocation(BATCH_SIZE)
+  public int[] updateTestResults(ApiRequests requests) {
+    ThreadLocalRandom random = ThreadLocalRandom.current();
+    List<Map.Entry<String, String>> results = new ArrayList<>(BATCH_SIZE);
+    for (int count = 0; count < BATCH_SIZE; count++)
+      results.add(new AbstractMap.SimpleEntry<>(BenchmarkSheets.testName(random.nextInt(rows)), "PASSED"));
+    long startCount = requests.start();
+    int[] foundRows = report.updateTestResults(results, BenchmarkSheets.SHEET_NAME, Report.UpdateMode.OVERWRITE);
+    requests.record(startCount);
+    return foundRows;
+  }
+}
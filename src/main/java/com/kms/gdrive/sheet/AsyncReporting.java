@@ -0,0 +1,70 @@
+package com.kms.gdrive.sheet;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+import com.kms.util.KeyedTaskQueue;
+
+/**
+ * Hold the queue which runs the asynchronous Report and Sheet calls. The calls
+ * of the same sheet (sheetID and sheet name) run in the submitted order
+ */
+class AsyncReporting {
+  private AsyncReporting() {
+    throw new IllegalStateException("Utility class");
+  }
+
+  static final int DEFAULT_THREAD_COUNT = 4;
+  static final int DEFAULT_MAX_PENDING_TASKS = 10000;
+
+  private static KeyedTaskQueue queue = new KeyedTaskQueue(DEFAULT_THREAD_COUNT, DEFAULT_MAX_PENDING_TASKS,
+      "gsheet-report");
+
+  /**
+   * replace the queue, the tasks of the previous queue are finished first
+   *
+   * @param threadCount     the number of threads to run the calls
+   * @param maxPendingTasks the max number of pending calls, the submit blocks
+   *                        when it is reached
+   */
+  static void configure(int threadCount, int maxPendingTasks) {
+    KeyedTaskQueue previous;
+    synchronized (AsyncReporting.class) {
+      previous = queue;
+      queue = new KeyedTaskQueue(threadCount, maxPendingTasks, "gsheet-report");
+    }
+    previous.shutdown();
+  }
+
+  private static synchronized KeyedTaskQueue queue() {
+    return queue;
+  }
+
+  /**
+   * submit the call of the sheet
+   *
+   * @param <T>       the result type
+   * @param sheetID   The sheetID which can get from the google sheet URL
+   * @param sheetName The sheet which the call works on
+   * @param task      the call
+   * @return the future of the call result
+   */
+  static <T> CompletableFuture<T> submit(String sheetID, String sheetName, Supplier<T> task) {
+    return queue().submit(sheetID + "!" + sheetName, task);
+  }
+
+  /**
+   * @return the number of submitted and not finished calls
+   */
+  static int getPendingCount() {
+    return queue().getPendingCount();
+  }
+
+  /**
+   * wait for all the submitted calls and send the pending writes
+   */
+  static void awaitAll() {
+    queue().awaitAll();
+    Sheet.flushAll();
+  }
+}
@@ -0,0 +1,258 @@
+package com.kms.gdrive.sheet;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * The immutable range of one sheet (tab) in A1 notation (Ex: "Sheet1!C12:E40").
+ * The columns are zero based and the rows are one based, the end row 0 is the
+ * end of the sheet (Ex: "Sheet1!C12:C"). The A1 notation is built once, with the
+ * sheet name quoted when it is not a plain name (Ex: "'Test Results'!C12:C")
+ */
+public final class CellRange {
+  /**
+   * the end row of the range which goes to the end of the sheet
+   */
+  public static final int TO_END = 0;
+
+  /**
+   * the quoted sheet names, the sheets of a spreadsheet are few
+   */
+  private static final ConcurrentHashMap<String, String> quotedSheetNames = new ConcurrentHashMap<>();
+  private static final int MAX_QUOTED_SHEET_NAMES = 1024;
+  private static final int MAX_COLUMN_LETTERS = 3;
+  private static final Pattern R1C1 = Pattern.compile("[Rr]\\d+[Cc]\\d+");
+
+  private final String sheetName;
+  private final int startColumn;
+  private final int startRow;
+  private final int endColumn;
+  private final int endRow;
+
+  /**
+   * the A1 notation, built at the first toA1
+   */
+  private String a1 = null;
+
+  private CellRange(String sheetName, int startColumn, int startRow, int endColumn, int endRow) {
+    this.sheetName = sheetName;
+    this.startColumn = startColumn;
+    this.startRow = startRow;
+    this.endColumn = endColumn;
+    this.endRow = endRow;
+  }
+
+  /**
+   * @param sheetName   The sheet of the range ; null for the first sheet
+   * @param startColumn the zero based start column
+   * @param startRow    the one based start row
+   * @param endColumn   the zero based end column
+   * @param endRow      the one based end row ; TO_END for the end of the sheet
+   * @return the range
+   */
+  public static CellRange of(String sheetName, int startColumn, int startRow, int endColumn, int endRow) {
+    if (startColumn < 0 || endColumn < startColumn || startRow < 0 || endRow < 0
+        || (endRow != TO_END && endRow < startRow))
+      throw new IllegalArgumentException(
+          "Invalid range: columns " + startColumn + ":" + endColumn + ", rows " + startRow + ":" + endRow);
+    return new CellRange(sheetName, startColumn, startRow, endColumn, endRow);
+  }
+
+  /**
+   * @param sheetName The sheet of the range ; null for the first sheet
+   * @param startCol  start Column of the range (Ex: "C")
+   * @param startRow  start Row of the range
+   * @param endCol    end Column of the range (Ex: "E")
+   * @param endRow    end Row of the range ; TO_END for the end of the sheet
+   * @return the range
+   */
+  public static CellRange of(String sheetName, String startCol, int startRow, String endCol, int endRow) {
+    return of(sheetName, CellRef.letterToColumn(startCol), startRow, CellRef.letterToColumn(endCol), endRow);
+  }
+
+  /**
+   * @param sheetName The sheet of the range
+   * @param col       the Column of the cell (Ex: "C")
+   * @param row       the Row of the cell
+   * @return the range of one cell
+   */
+  public static CellRange cell(String sheetName, String col, int row) {
+    int column = CellRef.letterToColumn(col);
+    return of(sheetName, column, row, column, row);
+  }
+
+  /**
+   * @param sheetName The sheet of the range
+   * @param col       the Column (Ex: "C")
+   * @param startRow  start Row of the range
+   * @return the range of the column from the start row to the end of the sheet
+   */
+  public static CellRange column(String sheetName, String col, int startRow) {
+    int column = CellRef.letterToColumn(col);
+    return of(sheetName, column, startRow, column, TO_END);
+  }
+
+  /**
+   * @param range the range in A1 notation (Ex: "Sheet1!C12:E", "'Test
+   *              Results'!C12")
+   * @return the range
+   */
+  public static CellRange parse(String range) {
+    int separator = range.lastIndexOf('!');
+    String sheetName = null;
+    if (separator >= 0) {
+      sheetName = range.substring(0, separator);
+      if (sheetName.length() >= 2 && sheetName.startsWith("'") && sheetName.endsWith("'"))
+        sheetName = sheetName.substring(1, sheetName.length() - 1).replace("''", "'");
+    }
+    String cells = range.substring(separator + 1);
+    int colon = cells.indexOf(':');
+    CellRef start = CellRef.parse((colon < 0) ? cells : cells.substring(0, colon));
+    CellRef end = (colon < 0) ? start : CellRef.parse(cells.substring(colon + 1));
+    return of(sheetName, start.getColumn(), start.getRow(), end.getColumn(), end.getRow());
+  }
+
+  /**
+   * @return The sheet of the range ; null for the first sheet
+   */
+  public String getSheetName() {
+    return sheetName;
+  }
+
+  /**
+   * @return the zero based start column
+   */
+  public int getStartColumn() {
+    return startColumn;
+  }
+
+  /**
+   * @return the one based start row
+   */
+  public int getStartRow() {
+    return startRow;
+  }
+
+  /**
+   * @return the zero based end column
+   */
+  public int getEndColumn() {
+    return endColumn;
+  }
+
+  /**
+   * @return the one based end row ; TO_END for the end of the sheet
+   */
+  public int getEndRow() {
+    return endRow;
+  }
+
+  /**
+   * @return the first cell of the range
+   */
+  public CellRef getStart() {
+    return CellRef.of(startColumn, startRow);
+  }
+
+  /**
+   * @return the last cell of the range, its row is TO_END for the end of the
+   *         sheet
+   */
+  public CellRef getEnd() {
+    return CellRef.of(endColumn, endRow);
+  }
+
+  /**
+   * @param sheetName The sheet of the new range
+   * @return the same cells in the sheet
+   */
+  public CellRange withSheetName(String sheetName) {
+    return new CellRange(sheetName, startColumn, startRow, endColumn, endRow);
+  }
+
+  /**
+   * @return the range in A1 notation (Ex: "Sheet1!C12:E40")
+   */
+  public String toA1() {
+    String range = a1;
+    if (range == null) {
+      String quotedName = (sheetName == null) ? null : quoteSheetName(sheetName);
+      StringBuilder builder = new StringBuilder(((quotedName == null) ? 0 : quotedName.length() + 1) + 16);
+      if (quotedName != null)
+        builder.append(quotedName).append('!');
+      CellRef.appendTo(builder, startColumn, startRow).append(':');
+      range = CellRef.appendTo(builder, endColumn, endRow).toString();
+      a1 = range;
+    }
+    return range;
+  }
+
+  @Override
+  public String toString() {
+    return toA1();
+  }
+
+  @Override
+  public boolean equals(Object other) {
+    if (this == other)
+      return true;
+    if (!(other instanceof CellRange))
+      return false;
+    CellRange range = (CellRange) other;
+    return startColumn == range.startColumn && startRow == range.startRow && endColumn == range.endColumn
+        && endRow == range.endRow && ((sheetName == null) ? range.sheetName == null
+            : sheetName.equals(range.sheetName));
+  }
+
+  @Override
+  public int hashCode() {
+    int hash = (sheetName == null) ? 0 : sheetName.hashCode();
+    hash = 31 * hash + startColumn;
+    hash = 31 * hash + startRow;
+    hash = 31 * hash + endColumn;
+    return 31 * hash + endRow;
+  }
+
+  /**
+   * quote the sheet name which is not a plain name: the name with the spaces or
+   * the symbols, or which looks like a cell (Ex: "A1"). The quoted name is kept
+   * as it is
+   *
+   * @param sheetName The sheet name
+   * @return the sheet name for the A1 notation
+   */
+  public static String quoteSheetName(String sheetName) {
+    if (sheetName.length() >= 2 && sheetName.startsWith("'") && sheetName.endsWith("'"))
+      return sheetName;
+    String quoted = quotedSheetNames.get(sheetName);
+    if (quoted == null) {
+      quoted = needsQuotes(sheetName) ? "'" + sheetName.replace("'", "''") + "'" : sheetName;
+      if (quotedSheetNames.size() < MAX_QUOTED_SHEET_NAMES)
+        quotedSheetNames.put(sheetName, quoted);
+    }
+    return quoted;
+  }
+
+  private static boolean needsQuotes(String sheetName) {
+    if (sheetName.isEmpty() || !Character.isLetter(sheetName.charAt(0)))
+      return true;
+    int letters = 0;
+    while (letters < sheetName.length() && isAsciiLetter(sheetName.charAt(letters)))
+      letters++;
+    boolean digitsOnly = letters < sheetName.length();
+    for (int index = 0; index < sheetName.length(); index++) {
+      char c = sheetName.charAt(index);
+      if (!(Character.isLetterOrDigit(c) || c == '_'))
+        return true;
+      if (index >= letters && !Character.isDigit(c))
+        digitsOnly = false;
+    }
+    // The column letters and the digits (Ex: "A1" but not "Sheet1") or R1C1 are
+    // read as a cell
+    return (digitsOnly && letters <= MAX_COLUMN_LETTERS) || R1C1.matcher(sheetName).matches();
+  }
+
+  private static boolean isAsciiLetter(char c) {
+    return (c >= 'A' && c <= 'Z') || (c >= 'a' && c <= 'z');
+  }
+}
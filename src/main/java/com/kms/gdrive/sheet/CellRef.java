@@ -0,0 +1,185 @@
+package com.kms.gdrive.sheet;
+
+/**
+ * The immutable reference of one cell in A1 notation (Ex: "C12"). The column is
+ * zero based as letterToColumn ("A" is 0) and the row is one based as in the
+ * sheet, the row 0 is the whole column (Ex: "C"). The column letters are looked
+ * up from the tables, they are not built for each range
+ */
+public final class CellRef {
+  /**
+   * the columns which the letters are precomputed for, "A" to "ZZ"
+   */
+  static final int CACHED_COLUMNS = 26 + 26 * 26;
+
+  private static final String[] COLUMN_LETTERS = new String[CACHED_COLUMNS];
+
+  /**
+   * the value of each letter (1 for "A" and "a" ... 26 for "Z" and "z"), 0 if the
+   * char is not a letter
+   */
+  private static final byte[] LETTER_VALUES = new byte[128];
+
+  static {
+    for (char letter = 'A'; letter <= 'Z'; letter++) {
+      LETTER_VALUES[letter] = (byte) (letter - 'A' + 1);
+      LETTER_VALUES[Character.toLowerCase(letter)] = (byte) (letter - 'A' + 1);
+    }
+    for (int column = 0; column < CACHED_COLUMNS; column++)
+      COLUMN_LETTERS[column] = buildLetter(column);
+  }
+
+  private final int column;
+  private final int row;
+
+  /**
+   * the A1 notation, built at the first toString
+   */
+  private String a1 = null;
+
+  private CellRef(int column, int row) {
+    this.column = column;
+    this.row = row;
+  }
+
+  /**
+   * @param column the zero based column ("A" is 0)
+   * @param row    the one based row ; 0 for the whole column
+   * @return the cell
+   */
+  public static CellRef of(int column, int row) {
+    if (column < 0 || row < 0)
+      throw new IllegalArgumentException("Invalid cell: column " + column + ", row " + row);
+    return new CellRef(column, row);
+  }
+
+  /**
+   * @param col the column letter (Ex: "C")
+   * @param row the one based row ; 0 for the whole column
+   * @return the cell
+   */
+  public static CellRef of(String col, int row) {
+    return of(letterToColumn(col), row);
+  }
+
+  /**
+   * @param cell the cell in A1 notation (Ex: "C12" or "C")
+   * @return the cell
+   */
+  public static CellRef parse(String cell) {
+    int index = 0;
+    while (index < cell.length() && Character.isLetter(cell.charAt(index)))
+      index++;
+    if (index == 0)
+      throw new IllegalArgumentException("Invalid cell: " + cell);
+    int row = 0;
+    try {
+      if (index < cell.length())
+        row = Integer.parseInt(cell.substring(index));
+    } catch (NumberFormatException e) {
+      throw new IllegalArgumentException("Invalid cell: " + cell);
+    }
+    return of(letterToColumn(cell.substring(0, index)), row);
+  }
+
+  /**
+   * @return the zero based column
+   */
+  public int getColumn() {
+    return column;
+  }
+
+  /**
+   * @return the column letter (Ex: "C")
+   */
+  public String getColumnLetter() {
+    return columnToLetter(column);
+  }
+
+  /**
+   * @return the one based row ; 0 for the whole column
+   */
+  public int getRow() {
+    return row;
+  }
+
+  /**
+   * @return the cell in A1 notation (Ex: "C12")
+   */
+  @Override
+  public String toString() {
+    String cell = a1;
+    if (cell == null) {
+      cell = appendTo(new StringBuilder(8), column, row).toString();
+      a1 = cell;
+    }
+    return cell;
+  }
+
+  @Override
+  public boolean equals(Object other) {
+    if (this == other)
+      return true;
+    if (!(other instanceof CellRef))
+      return false;
+    CellRef cell = (CellRef) other;
+    return column == cell.column && row == cell.row;
+  }
+
+  @Override
+  public int hashCode() {
+    return 31 * column + row;
+  }
+
+  /**
+   * @param column the zero based column (Ex: 2)
+   * @return the column letter (Ex: "C")
+   */
+  public static String columnToLetter(int column) {
+    if (column < 0)
+      throw new IllegalArgumentException("Invalid column: " + column);
+    return (column < CACHED_COLUMNS) ? COLUMN_LETTERS[column] : buildLetter(column);
+  }
+
+  /**
+   * @param letter the column letter, upper or lower case (Ex: "C")
+   * @return the zero based column (Ex: 2)
+   */
+  public static int letterToColumn(String letter) {
+    int column = 0;
+    for (int index = 0; index < letter.length(); index++) {
+      char c = letter.charAt(index);
+      int value = (c < LETTER_VALUES.length) ? LETTER_VALUES[c] : 0;
+      if (value == 0)
+        throw new IllegalArgumentException("Invalid column: " + letter);
+      column = column * 26 + value;
+    }
+    if (column == 0)
+      throw new IllegalArgumentException("Invalid column: " + letter);
+    return column - 1;
+  }
+
+  /**
+   * append the cell in A1 notation
+   *
+   * @param a1     the builder to append
+   * @param column the zero based column ; -1 for no column
+   * @param row    the one based row ; 0 for no row
+   * @return the builder
+   */
+  static StringBuilder appendTo(StringBuilder a1, int column, int row) {
+    if (column >= 0)
+      a1.append(columnToLetter(column));
+    if (row > 0)
+      a1.append(row);
+    return a1;
+  }
+
+  private static String buildLetter(int column) {
+    char[] letter = new char[8];
+    int start = letter.length;
+    for (int number = column + 1; number > 0; number = (number - 1) / 26)
+      letter[--start] = (char) ('A' + (number - 1) % 26);
+    return new String(letter, start, letter.length - start);
+  }
+}
@@ -0,0 +1,25 @@
+package com.kms.gdrive.sheet;
+
+import java.io.IOException;
+
+import com.google.api.client.http.HttpRequestInitializer;
+import com.google.api.client.http.HttpTransport;
+import com.google.api.client.json.JsonFactory;
+
+/**
+ * Provide the Credential for the Google Sheets API. The Credential is created
+ * once on the first API call and shared by all the Sheet objects
+ */
+public interface CredentialProvider {
+  /**
+   * Creates an authorized Credential object.
+   *
+   * @param httpTransport The network HTTP Transport.
+   * @param jsonFactory   The JSON factory of the API client
+   * @return An authorized Credential object, which authorizes each request (Ex:
+   *         a Credential of google-oauth-client or an HttpCredentialsAdapter of
+   *         google-auth-library)
+   * @throws IOException when the Credential can not be created
+   */
+  HttpRequestInitializer getCredential(HttpTransport httpTransport, JsonFactory jsonFactory) throws IOException;
+}
@@ -0,0 +1,95 @@
+package com.kms.gdrive.sheet;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import com.google.api.services.sheets.v4.Sheets;
+import com.google.api.services.sheets.v4.model.AppendValuesResponse;
+import com.google.api.services.sheets.v4.model.BatchGetValuesResponse;
+import com.google.api.services.sheets.v4.model.BatchUpdateSpreadsheetRequest;
+import com.google.api.services.sheets.v4.model.BatchUpdateSpreadsheetResponse;
+import com.google.api.services.sheets.v4.model.BatchUpdateValuesRequest;
+import com.google.api.services.sheets.v4.model.Request;
+import com.google.api.services.sheets.v4.model.SheetProperties;
+import com.google.api.services.sheets.v4.model.Spreadsheet;
+import com.google.api.services.sheets.v4.model.ValueRange;
+
+/**
+ * The SheetBackend which calls the Google Sheets API
+ */
+class GoogleSheetBackend implements SheetBackend {
+  static final String INPUT_OPT_USER_ENTERED = "USER_ENTERED";
+  static final String INSERT_ROWS = "INSERT_ROWS";
+
+  private final Sheets service;
+  private final String sheetID;
+
+  /**
+   * Constructor for GoogleSheetBackend
+   *
+   * @param service the Google Sheets service
+   * @param sheetID The sheetID which can get from the google sheet URL
+   */
+  GoogleSheetBackend(Sheets service, String sheetID) {
+    this.service = service;
+    this.sheetID = sheetID;
+  }
+
+  @Override
+  public ValueRange get(String range, ReadOptions options) throws IOException {
+    Sheets.Spreadsheets.Values.Get request = service.spreadsheets().values().get(sheetID, range)
+        .setValueRenderOption(options.getValueRenderOption()).setMajorDimension(options.getMajorDimension());
+    if (options.getFields() != null)
+      request.setFields(options.getFields());
+    return request.execute();
+  }
+
+  @Override
+  public List<ValueRange> batchGet(List<String> ranges, ReadOptions options) throws IOException {
+    Sheets.Spreadsheets.Values.BatchGet request = service.spreadsheets().values().batchGet(sheetID).setRanges(ranges)
+        .setValueRenderOption(options.getValueRenderOption()).setMajorDimension(options.getMajorDimension());
+    if (options.getFields() != null)
+      request.setFields("valueRanges(" + options.getFields() + ")");
+    BatchGetValuesResponse response = request.execute();
+    return (response.getValueRanges() == null) ? Collections.emptyList() : response.getValueRanges();
+  }
+
+  @Override
+  public void update(String range, List<List<Object>> values) throws IOException {
+    service.spreadsheets().values().update(sheetID, range, new ValueRange().setValues(values))
+        .setValueInputOption(INPUT_OPT_USER_ENTERED).execute();
+  }
+
+  @Override
+  public void batchUpdateValues(List<ValueRange> data) throws IOException {
+    service.spreadsheets().values()
+        .batchUpdate(sheetID, new BatchUpdateValuesRequest().setValueInputOption(INPUT_OPT_USER_ENTERED).setData(data))
+        .execute();
+  }
+
+  @Override
+  public String append(String range, List<List<Object>> values) throws IOException {
+    AppendValuesResponse response = service.spreadsheets().values()
+        .append(sheetID, range, new ValueRange().setValues(values)).setValueInputOption(INPUT_OPT_USER_ENTERED)
+        .setInsertDataOption(INSERT_ROWS).execute();
+    return (response.getUpdates() == null) ? null : response.getUpdates().getUpdatedRange();
+  }
+
+  @Override
+  public BatchUpdateSpreadsheetResponse batchUpdate(List<Request> requests) throws IOException {
+    return service.spreadsheets().batchUpdate(sheetID, new BatchUpdateSpreadsheetRequest().setRequests(requests))
+        .execute();
+  }
+
+  @Override
+  public List<SheetProperties> getSheetProperties() throws IOException {
+    Spreadsheet spreadsheet = service.spreadsheets().get(sheetID).setFields("sheets.properties").execute();
+    List<SheetProperties> properties = new ArrayList<>();
+    if (spreadsheet.getSheets() != null)
+      for (com.google.api.services.sheets.v4.model.Sheet tab : spreadsheet.getSheets())
+        properties.add(tab.getProperties());
+    return properties;
+  }
+}
@@ -0,0 +1,578 @@
+package com.kms.gdrive.sheet;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.google.api.client.http.HttpHeaders;
+import com.google.api.client.http.HttpResponseException;
+import com.google.api.services.sheets.v4.model.AddSheetResponse;
+import com.google.api.services.sheets.v4.model.AppendDimensionRequest;
+import com.google.api.services.sheets.v4.model.BatchUpdateSpreadsheetResponse;
+import com.google.api.services.sheets.v4.model.CellData;
+import com.google.api.services.sheets.v4.model.CopyPasteRequest;
+import com.google.api.services.sheets.v4.model.DimensionRange;
+import com.google.api.services.sheets.v4.model.ExtendedValue;
+import com.google.api.services.sheets.v4.model.GridProperties;
+import com.google.api.services.sheets.v4.model.GridRange;
+import com.google.api.services.sheets.v4.model.Request;
+import com.google.api.services.sheets.v4.model.Response;
+import com.google.api.services.sheets.v4.model.RowData;
+import com.google.api.services.sheets.v4.model.SheetProperties;
+import com.google.api.services.sheets.v4.model.UpdateCellsRequest;
+import com.google.api.services.sheets.v4.model.ValueRange;
+
+/**
+ * The SheetBackend which keeps the cells of the sheets (tabs) in memory, to run
+ * and measure the Report workloads offline. Each call can wait a configurable
+ * latency and fail with 429 at a configurable rate, and the calls are counted
+ * by the operation. The values are stored as written, the formulas are not
+ * calculated
+ */
+public class InMemorySheetBackend implements SheetBackend {
+  static final int HTTP_TOO_MANY_REQUESTS = 429;
+  static final int DEFAULT_ROW_COUNT = 1000;
+  static final int DEFAULT_COLUMN_COUNT = 26;
+
+  /**
+   * the cells of one sheet (tab), the rows are created when written
+   */
+  private static class Tab {
+    final SheetProperties properties;
+    final List<List<Object>> rows = new ArrayList<>();
+
+    Tab(SheetProperties properties) {
+      this.properties = properties;
+    }
+
+    Object get(int rowIndex, int colIndex) {
+      if (rowIndex >= rows.size())
+        return null;
+      List<Object> row = rows.get(rowIndex);
+      return (colIndex < row.size()) ? row.get(colIndex) : null;
+    }
+
+    void set(int rowIndex, int colIndex, Object value) {
+      while (rows.size() <= rowIndex)
+        rows.add(new ArrayList<>());
+      List<Object> row = rows.get(rowIndex);
+      while (row.size() <= colIndex)
+        row.add(null);
+      row.set(colIndex, value);
+      GridProperties grid = properties.getGridProperties();
+      grid.setRowCount(Math.max(grid.getRowCount(), rowIndex + 1));
+      grid.setColumnCount(Math.max(grid.getColumnCount(), colIndex + 1));
+    }
+
+    int lastRow() {
+      int last = rows.size() - 1;
+      while (last >= 0 && isBlankRow(rows.get(last)))
+        last--;
+      return last;
+    }
+
+    int lastColumn() {
+      int last = -1;
+      for (List<Object> row : rows)
+        for (int colIndex = row.size() - 1; colIndex > last; colIndex--)
+          if (!isBlank(row.get(colIndex))) {
+            last = colIndex;
+            break;
+          }
+      return last;
+    }
+  }
+
+  private final Map<String, Tab> tabs = new LinkedHashMap<>();
+  private int nextSheetId = 0;
+
+  private volatile long latencyMillis = 0;
+  private double quotaErrorRate = 0;
+  private Random quotaRandom = new Random(0);
+  private final ConcurrentHashMap<String, LongAdder> requestCounts = new ConcurrentHashMap<>();
+
+  /**
+   * add an empty sheet (tab)
+   *
+   * @param title the sheet name
+   * @return this backend
+   */
+  public synchronized InMemorySheetBackend addSheet(String title) {
+    addTab(new SheetProperties().setTitle(title));
+    return this;
+  }
+
+  /**
+   * @param latencyMillis the time which each call waits before it is handled
+   */
+  public void setLatencyMillis(long latencyMillis) {
+    this.latencyMillis = latencyMillis;
+  }
+
+  /**
+   * fail the calls with 429 at the rate, the failures are repeatable by the seed
+   *
+   * @param quotaErrorRate the rate of the failed calls from 0 to 1
+   * @param seed           the seed of the random failures
+   */
+  public synchronized void setQuotaErrorRate(double quotaErrorRate, long seed) {
+    this.quotaErrorRate = quotaErrorRate;
+    this.quotaRandom = new Random(seed);
+  }
+
+  /**
+   * @param operation the operation name, as the SheetBackend method name
+   * @return the number of calls of the operation, including the failed ones
+   */
+  public long getRequestCount(String operation) {
+    LongAdder count = requestCounts.get(operation);
+    return (count == null) ? 0 : count.sum();
+  }
+
+  /**
+   * @return the number of calls of all the operations
+   */
+  public long getTotalRequestCount() {
+    long total = 0;
+    for (LongAdder count : requestCounts.values())
+      total += count.sum();
+    return total;
+  }
+
+  /**
+   * reset the call counters
+   */
+  public void resetRequestCounts() {
+    requestCounts.clear();
+  }
+
+  @Override
+  public ValueRange get(String range, ReadOptions options) throws IOException {
+    beginCall("get");
+    synchronized (this) {
+      return read(range, options);
+    }
+  }
+
+  @Override
+  public List<ValueRange> batchGet(List<String> ranges, ReadOptions options) throws IOException {
+    beginCall("batchGet");
+    synchronized (this) {
+      List<ValueRange> valueRanges = new ArrayList<>(ranges.size());
+      for (String range : ranges)
+        valueRanges.add(read(range, options));
+      return valueRanges;
+    }
+  }
+
+  @Override
+  public void update(String range, List<List<Object>> values) throws IOException {
+    beginCall("update");
+    synchronized (this) {
+      write(range, values);
+    }
+  }
+
+  @Override
+  public void batchUpdateValues(List<ValueRange> data) throws IOException {
+    beginCall("batchUpdateValues");
+    synchronized (this) {
+      for (ValueRange valueRange : data)
+        tabOf(parseRange(valueRange.getRange()));
+      for (ValueRange valueRange : data)
+        write(valueRange.getRange(), valueRange.getValues());
+    }
+  }
+
+  @Override
+  public String append(String range, List<List<Object>> values) throws IOException {
+    beginCall("append");
+    synchronized (this) {
+      CellRange a1 = parseRange(range);
+      Tab tab = tabOf(a1);
+      int startRow = startRowIndex(a1);
+      int startCol = a1.getStartColumn();
+      int lastCol = a1.getEndColumn();
+      // The table is the first block of the rows which are not blank in the
+      // columns of the range, the rows are inserted after it
+      int appendRow = startRow;
+      while (appendRow <= tab.lastRow() && isBlankRow(tab, appendRow, startCol, lastCol))
+        appendRow++;
+      if (appendRow > tab.lastRow())
+        appendRow = startRow;
+      else
+        while (!isBlankRow(tab, appendRow, startCol, lastCol))
+          appendRow++;
+      int count = (values == null) ? 0 : values.size();
+      if (tab.rows.size() > appendRow)
+        for (int inserted = 0; inserted < count; inserted++)
+          tab.rows.add(appendRow, new ArrayList<>());
+      int width = 0;
+      for (int rowOffset = 0; rowOffset < count; rowOffset++) {
+        List<Object> row = values.get(rowOffset);
+        if (row != null) {
+          width = Math.max(width, row.size());
+          for (int colOffset = 0; colOffset < row.size(); colOffset++)
+            if (row.get(colOffset) != null)
+              tab.set(appendRow + rowOffset, startCol + colOffset, row.get(colOffset));
+        }
+      }
+      return CellRange.of(tab.properties.getTitle(), startCol, appendRow + 1, startCol + Math.max(width, 1) - 1,
+          appendRow + Math.max(count, 1)).toA1();
+    }
+  }
+
+  @Override
+  public BatchUpdateSpreadsheetResponse batchUpdate(List<Request> requests) throws IOException {
+    beginCall("batchUpdate");
+    synchronized (this) {
+      // Check the sheets first, so the requests are applied all or nothing
+      List<Integer> addedIds = new ArrayList<>();
+      for (Request request : requests)
+        if (request.getAddSheet() != null) {
+          if (request.getAddSheet().getProperties().getSheetId() != null)
+            addedIds.add(request.getAddSheet().getProperties().getSheetId());
+        } else
+          for (Integer sheetId : sheetIdsOf(request))
+            if (!addedIds.contains(sheetId) && tabOf(sheetId) == null)
+              throw badRequest("No grid with id: " + sheetId);
+
+      List<Response> replies = new ArrayList<>(requests.size());
+      for (Request request : requests)
+        replies.add(apply(request));
+      return new BatchUpdateSpreadsheetResponse().setReplies(replies);
+    }
+  }
+
+  @Override
+  public List<SheetProperties> getSheetProperties() throws IOException {
+    beginCall("getSheetProperties");
+    synchronized (this) {
+      List<SheetProperties> properties = new ArrayList<>(tabs.size());
+      for (Tab tab : tabs.values())
+        properties.add(tab.properties.clone());
+      return properties;
+    }
+  }
+
+  /**
+   * count the call, wait the latency and fail it as configured
+   */
+  private void beginCall(String operation) throws IOException {
+    requestCounts.computeIfAbsent(operation, key -> new LongAdder()).increment();
+    long latency = latencyMillis;
+    if (latency > 0)
+      try {
+        Thread.sleep(latency);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new InterruptedIOException(e.getMessage());
+      }
+    boolean throttled;
+    synchronized (this) {
+      throttled = quotaErrorRate > 0 && quotaRandom.nextDouble() < quotaErrorRate;
+    }
+    if (throttled)
+      throw new HttpResponseException.Builder(HTTP_TOO_MANY_REQUESTS, "Too Many Requests", new HttpHeaders())
+          .setMessage("Quota exceeded (in-memory backend)").build();
+  }
+
+  private static HttpResponseException badRequest(String message) {
+    return new HttpResponseException.Builder(Sheet.HTTP_BAD_REQUEST, "Bad Request", new HttpHeaders())
+        .setMessage(message).build();
+  }
+
+  private Tab addTab(SheetProperties properties) {
+    if (properties.getSheetId() == null)
+      properties.setSheetId(nextSheetId);
+    nextSheetId = Math.max(nextSheetId, properties.getSheetId() + 1);
+    if (properties.getIndex() == null)
+      properties.setIndex(tabs.size());
+    if (properties.getGridProperties() == null)
+      properties.setGridProperties(
+          new GridProperties().setRowCount(DEFAULT_ROW_COUNT).setColumnCount(DEFAULT_COLUMN_COUNT));
+    Tab tab = new Tab(properties);
+    tabs.put(properties.getTitle().toLowerCase(Locale.ROOT), tab);
+    return tab;
+  }
+
+  /**
+   * @param range the range in A1 notation
+   * @return the parsed range
+   * @throws IOException the 400 of the API when the range can not be parsed
+   */
+  private static CellRange parseRange(String range) throws IOException {
+    try {
+      return CellRange.parse(range);
+    } catch (IllegalArgumentException e) {
+      throw badRequest("Unable to parse range: " + range);
+    }
+  }
+
+  /**
+   * @return the zero based start row of the range
+   */
+  private static int startRowIndex(CellRange range) {
+    return Math.max(0, range.getStartRow() - 1);
+  }
+
+  /**
+   * @return the tab of the range, the first tab when the range has no sheet
+   */
+  private Tab tabOf(CellRange range) throws IOException {
+    if (range.getSheetName() != null)
+      return tabOf(range.getSheetName());
+    if (tabs.isEmpty())
+      throw badRequest("Unable to parse range: " + range);
+    return tabs.values().iterator().next();
+  }
+
+  private Tab tabOf(String title) throws IOException {
+    Tab tab = tabs.get(title.toLowerCase(Locale.ROOT));
+    if (tab == null)
+      throw badRequest("Unable to parse range: " + title);
+    return tab;
+  }
+
+  private Tab tabOf(Integer sheetId) {
+    for (Tab tab : tabs.values())
+      if (tab.properties.getSheetId().equals(sheetId))
+        return tab;
+    return null;
+  }
+
+  private ValueRange read(String range, ReadOptions options) throws IOException {
+    CellRange a1 = parseRange(range);
+    Tab tab = tabOf(a1);
+    int startRow = startRowIndex(a1);
+    int startCol = a1.getStartColumn();
+    int lastRow = (a1.getEndRow() == CellRange.TO_END) ? tab.lastRow() : Math.min(a1.getEndRow() - 1, tab.lastRow());
+    int lastCol = Math.min(a1.getEndColumn(), tab.lastColumn());
+    boolean byColumns = options.isByColumns();
+    // The formulas are not calculated, the formatted value is the text of the
+    // stored value
+    boolean formatted = ReadOptions.FORMATTED_VALUE.equals(options.getValueRenderOption());
+    List<List<Object>> values = new ArrayList<>();
+    int outerStart = byColumns ? startCol : startRow;
+    int outerEnd = byColumns ? lastCol : lastRow;
+    for (int outer = outerStart; outer <= outerEnd; outer++) {
+      List<Object> line = new ArrayList<>();
+      int innerStart = byColumns ? startRow : startCol;
+      int innerEnd = byColumns ? lastRow : lastCol;
+      for (int inner = innerStart; inner <= innerEnd; inner++) {
+        Object value = byColumns ? tab.get(inner, outer) : tab.get(outer, inner);
+        line.add((value == null) ? "" : (formatted ? value.toString() : value));
+      }
+      // The API trims the blank cells at the end of each row (or column) and the
+      // blank rows (or columns) at the end of the range
+      while (!line.isEmpty() && isBlank(line.get(line.size() - 1)))
+        line.remove(line.size() - 1);
+      values.add(line);
+    }
+    while (!values.isEmpty() && values.get(values.size() - 1).isEmpty())
+      values.remove(values.size() - 1);
+    ValueRange valueRange = new ValueRange();
+    if (options.getFields() == null || options.getFields().contains("range"))
+      valueRange.setRange(range).setMajorDimension(options.getMajorDimension());
+    return values.isEmpty() ? valueRange : valueRange.setValues(values);
+  }
+
+  private void write(String range, List<List<Object>> values) throws IOException {
+    CellRange a1 = parseRange(range);
+    Tab tab = tabOf(a1);
+    if (values == null)
+      return;
+    int startRow = startRowIndex(a1);
+    for (int rowOffset = 0; rowOffset < values.size(); rowOffset++) {
+      List<Object> row = values.get(rowOffset);
+      if (row != null)
+        for (int colOffset = 0; colOffset < row.size(); colOffset++)
+          tab.set(startRow + rowOffset, a1.getStartColumn() + colOffset, row.get(colOffset));
+    }
+  }
+
+  private static List<Integer> sheetIdsOf(Request request) {
+    List<Integer> sheetIds = new ArrayList<>(2);
+    if (request.getInsertDimension() != null)
+      sheetIds.add(request.getInsertDimension().getRange().getSheetId());
+    if (request.getDeleteDimension() != null)
+      sheetIds.add(request.getDeleteDimension().getRange().getSheetId());
+    if (request.getAppendDimension() != null)
+      sheetIds.add(request.getAppendDimension().getSheetId());
+    if (request.getCopyPaste() != null) {
+      sheetIds.add(request.getCopyPaste().getSource().getSheetId());
+      sheetIds.add(request.getCopyPaste().getDestination().getSheetId());
+    }
+    if (request.getUpdateCells() != null)
+      sheetIds.add((request.getUpdateCells().getStart() != null) ? request.getUpdateCells().getStart().getSheetId()
+          : request.getUpdateCells().getRange().getSheetId());
+    return sheetIds;
+  }
+
+  private Response apply(Request request) throws IOException {
+    Response reply = new Response();
+    if (request.getAddSheet() != null) {
+      SheetProperties properties = request.getAddSheet().getProperties().clone();
+      if (tabs.containsKey(properties.getTitle().toLowerCase(Locale.ROOT)))
+        throw badRequest("A sheet with the name \"" + properties.getTitle() + "\" already exists");
+      reply.setAddSheet(new AddSheetResponse().setProperties(addTab(properties).properties.clone()));
+    } else if (request.getInsertDimension() != null)
+      insertDimension(request.getInsertDimension().getRange());
+    else if (request.getDeleteDimension() != null)
+      deleteDimension(request.getDeleteDimension().getRange());
+    else if (request.getAppendDimension() != null)
+      appendDimension(request.getAppendDimension());
+    else if (request.getCopyPaste() != null)
+      copyPaste(request.getCopyPaste());
+    else if (request.getUpdateCells() != null)
+      updateCells(request.getUpdateCells());
+    else
+      throw badRequest("The request is not supported by the in-memory backend: " + request);
+    return reply;
+  }
+
+  private void insertDimension(DimensionRange range) {
+    Tab tab = tabOf(range.getSheetId());
+    int count = range.getEndIndex() - range.getStartIndex();
+    GridProperties grid = tab.properties.getGridProperties();
+    if (Sheet.DIMENSION_COLUMNS.equals(range.getDimension())) {
+      for (List<Object> row : tab.rows)
+        if (row.size() > range.getStartIndex())
+          row.addAll(range.getStartIndex(), Collections.nCopies(count, null));
+      grid.setColumnCount(grid.getColumnCount() + count);
+    } else {
+      if (tab.rows.size() > range.getStartIndex())
+        for (int inserted = 0; inserted < count; inserted++)
+          tab.rows.add(range.getStartIndex(), new ArrayList<>());
+      grid.setRowCount(grid.getRowCount() + count);
+    }
+  }
+
+  private void deleteDimension(DimensionRange range) {
+    Tab tab = tabOf(range.getSheetId());
+    int start = range.getStartIndex();
+    GridProperties grid = tab.properties.getGridProperties();
+    if (Sheet.DIMENSION_COLUMNS.equals(range.getDimension())) {
+      int end = (range.getEndIndex() == null) ? grid.getColumnCount() : range.getEndIndex();
+      for (List<Object> row : tab.rows)
+        if (row.size() > start)
+          row.subList(start, Math.min(end, row.size())).clear();
+      grid.setColumnCount(Math.max(1, grid.getColumnCount() - (end - start)));
+    } else {
+      int end = (range.getEndIndex() == null) ? grid.getRowCount() : range.getEndIndex();
+      if (tab.rows.size() > start)
+        tab.rows.subList(start, Math.min(end, tab.rows.size())).clear();
+      grid.setRowCount(Math.max(1, grid.getRowCount() - (end - start)));
+    }
+  }
+
+  private void appendDimension(AppendDimensionRequest append) {
+    GridProperties grid = tabOf(append.getSheetId()).properties.getGridProperties();
+    if (Sheet.DIMENSION_COLUMNS.equals(append.getDimension()))
+      grid.setColumnCount(grid.getColumnCount() + append.getLength());
+    else
+      grid.setRowCount(grid.getRowCount() + append.getLength());
+  }
+
+  private void copyPaste(CopyPasteRequest copyPaste) {
+    GridRange source = copyPaste.getSource();
+    GridRange destination = copyPaste.getDestination();
+    Tab sourceTab = tabOf(source.getSheetId());
+    Tab destinationTab = tabOf(destination.getSheetId());
+    int startRow = indexOr(source.getStartRowIndex(), 0);
+    int endRow = indexOr(source.getEndRowIndex(), sourceTab.lastRow() + 1);
+    int startCol = indexOr(source.getStartColumnIndex(), 0);
+    int endCol = indexOr(source.getEndColumnIndex(), sourceTab.lastColumn() + 1);
+    // Copy the block first, the source and destination can overlap
+    List<List<Object>> block = new ArrayList<>();
+    for (int rowIndex = startRow; rowIndex < endRow; rowIndex++) {
+      List<Object> row = new ArrayList<>();
+      for (int colIndex = startCol; colIndex < endCol; colIndex++)
+        row.add(sourceTab.get(rowIndex, colIndex));
+      block.add(row);
+    }
+    int toRow = indexOr(destination.getStartRowIndex(), 0);
+    int toCol = indexOr(destination.getStartColumnIndex(), 0);
+    for (int rowOffset = 0; rowOffset < block.size(); rowOffset++)
+      for (int colOffset = 0; colOffset < block.get(rowOffset).size(); colOffset++) {
+        Object value = block.get(rowOffset).get(colOffset);
+        if (value != null || destinationTab.get(toRow + rowOffset, toCol + colOffset) != null)
+          destinationTab.set(toRow + rowOffset, toCol + colOffset, value);
+      }
+  }
+
+  private void updateCells(UpdateCellsRequest updateCells) {
+    Tab tab;
+    int startRow;
+    int startCol;
+    if (updateCells.getStart() != null) {
+      tab = tabOf(updateCells.getStart().getSheetId());
+      startRow = indexOr(updateCells.getStart().getRowIndex(), 0);
+      startCol = indexOr(updateCells.getStart().getColumnIndex(), 0);
+    } else {
+      GridRange range = updateCells.getRange();
+      tab = tabOf(range.getSheetId());
+      startRow = indexOr(range.getStartRowIndex(), 0);
+      startCol = indexOr(range.getStartColumnIndex(), 0);
+      // The cells of the range which are not in the rows are cleared
+      int endRow = Math.min(indexOr(range.getEndRowIndex(), tab.rows.size()), tab.rows.size());
+      for (int rowIndex = startRow; rowIndex < endRow; rowIndex++) {
+        List<Object> row = tab.rows.get(rowIndex);
+        int endCol = Math.min(indexOr(range.getEndColumnIndex(), row.size()), row.size());
+        for (int colIndex = startCol; colIndex < endCol; colIndex++)
+          row.set(colIndex, null);
+      }
+    }
+    if (updateCells.getRows() == null)
+      return;
+    for (int rowOffset = 0; rowOffset < updateCells.getRows().size(); rowOffset++) {
+      RowData row = updateCells.getRows().get(rowOffset);
+      if (row.getValues() != null)
+        for (int colOffset = 0; colOffset < row.getValues().size(); colOffset++)
+          tab.set(startRow + rowOffset, startCol + colOffset, valueOf(row.getValues().get(colOffset)));
+    }
+  }
+
+  private static Object valueOf(CellData cell) {
+    ExtendedValue value = (cell == null) ? null : cell.getUserEnteredValue();
+    if (value == null)
+      return null;
+    if (value.getFormulaValue() != null)
+      return value.getFormulaValue();
+    if (value.getNumberValue() != null)
+      return value.getNumberValue();
+    if (value.getBoolValue() != null)
+      return value.getBoolValue();
+    return value.getStringValue();
+  }
+
+  private static int indexOr(Integer index, int defaultIndex) {
+    return (index == null) ? defaultIndex : index;
+  }
+
+  private static boolean isBlank(Object value) {
+    return value == null || value.toString().isEmpty();
+  }
+
+  private static boolean isBlankRow(Tab tab, int rowIndex, int startCol, int endCol) {
+    for (int colIndex = startCol; colIndex <= endCol; colIndex++)
+      if (!isBlank(tab.get(rowIndex, colIndex)))
+        return false;
+    return true;
+  }
+
+  private static boolean isBlankRow(List<Object> row) {
+    for (Object value : row)
+      if (!isBlank(value))
+        return false;
+    return true;
+  }
+}
@@ -0,0 +1,76 @@
+package com.kms.gdrive.sheet;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+
+import com.google.api.client.auth.oauth2.Credential;
+import com.google.api.client.extensions.java6.auth.oauth2.AuthorizationCodeInstalledApp;
+import com.google.api.client.extensions.jetty.auth.oauth2.LocalServerReceiver;
+import com.google.api.client.googleapis.auth.oauth2.GoogleAuthorizationCodeFlow;
+import com.google.api.client.googleapis.auth.oauth2.GoogleClientSecrets;
+import com.google.api.client.http.HttpTransport;
+import com.google.api.client.json.JsonFactory;
+import com.google.api.client.util.store.FileDataStoreFactory;
+
+/**
+ * Authorize by the installed application OAuth flow. The OAuth client file is
+ * read from the directory, else from the classpath, and the token is stored
+ * next to it. The browser flow only runs when there is no stored token
+ */
+public class InstalledAppCredentialProvider implements CredentialProvider {
+  /**
+   * the port of the local receiver, -1 for any free port
+   */
+  public static final int DEFAULT_RECEIVER_PORT = -1;
+
+  private final String credentialsDirectory;
+  private final String credentialsFile;
+  private final int receiverPort;
+
+  /**
+   * Constructor for InstalledAppCredentialProvider
+   *
+   * @param credentialsDirectory the directory of the OAuth client file and the
+   *                             stored token
+   * @param credentialsFile      the OAuth client file name
+   * @param receiverPort         the port of the local receiver of the browser
+   *                             flow, -1 for any free port
+   */
+  public InstalledAppCredentialProvider(String credentialsDirectory, String credentialsFile, int receiverPort) {
+    this.credentialsDirectory = credentialsDirectory;
+    this.credentialsFile = credentialsFile;
+    this.receiverPort = receiverPort;
+  }
+
+  @Override
+  public Credential getCredential(HttpTransport httpTransport, JsonFactory jsonFactory) throws IOException {
+    // Load google report configuration directory path / env
+    File checkExists = new File(credentialsDirectory + File.separator + credentialsFile);
+
+    boolean resourceMode = true;
+    if (checkExists.exists() && checkExists.isFile())
+      resourceMode = false;
+
+    InputStream credentialStream = resourceMode ? Sheet.class.getResourceAsStream(File.separator + credentialsFile)
+        : new FileInputStream(checkExists);
+    if (credentialStream == null)
+      throw new FileNotFoundException(credentialsFile + " is not found in " + credentialsDirectory
+          + " or in the classpath");
+    try (InputStreamReader credentialReader = new InputStreamReader(credentialStream)) {
+      File tokenDirFileObj = resourceMode ? new File(Sheet.class.getResource(File.separator).getFile())
+          : new File(credentialsDirectory);
+      GoogleClientSecrets clientSecrets = GoogleClientSecrets.load(jsonFactory, credentialReader);
+
+      // Build flow and trigger user authorization request.
+      GoogleAuthorizationCodeFlow flow = new GoogleAuthorizationCodeFlow.Builder(httpTransport, jsonFactory,
+          clientSecrets, Sheet.SCOPES).setDataStoreFactory(new FileDataStoreFactory(tokenDirFileObj))
+              .setAccessType("offline").build();
+      LocalServerReceiver receiver = new LocalServerReceiver.Builder().setPort(receiverPort).build();
+      return new AuthorizationCodeInstalledApp(flow, receiver).authorize("user");
+    }
+  }
+}
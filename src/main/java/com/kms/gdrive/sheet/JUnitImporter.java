@@ -0,0 +1,289 @@
+package com.kms.gdrive.sheet;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+/**
+ * Import the JUnit XML reports (Ex: target/surefire-reports/TEST-*.xml) to the
+ * report sheet after the run, instead of one API call by test during the run.
+ * The files are read by StAX without building the document, in parallel, and
+ * the results are sent to Report.updateTestResults by chunks: the sheet is
+ * scanned once and each chunk is written in one request
+ *
+ * <pre>
+ * java -cp gsheet-report.jar com.kms.gdrive.sheet.JUnitImporter [-c nameCol resultCol] [-r startRow]
+ *     [-a] [-q] [-n | -t title] [-m OVERWRITE|NEW_ROW|EXISTING_RESULT] [-d credentialDir credentialFile]
+ *     sheetID sheetName reportFileOrDirectory...
+ * </pre>
+ */
+public class JUnitImporter {
+  public static final String CLASSNAME = "com.kms.gdrive.sheet.JUnitImporter";
+  static final int DEFAULT_CHUNK_SIZE = 2000;
+
+  private static final String TESTCASE = "testcase";
+  private static final String FAILURE = "failure";
+  private static final String ERROR = "error";
+  private static final String SKIPPED = "skipped";
+
+  /**
+   * the factory of each thread, the readers do not resolve the DTD and the
+   * external entities
+   */
+  private static final ThreadLocal<XMLInputFactory> INPUT_FACTORY = ThreadLocal.withInitial(() -> {
+    XMLInputFactory factory = XMLInputFactory.newInstance();
+    factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+    factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+    return factory;
+  });
+
+  private final boolean qualifiedNames;
+  private final int chunkSize;
+
+  /**
+   * Constructor for JUnitImporter
+   *
+   * @param qualifiedNames TRUE: the test name is "classname.name" ; FALSE: the
+   *                       test name is the name of the testcase
+   * @param chunkSize      the results which are sent in one
+   *                       Report.updateTestResults
+   */
+  public JUnitImporter(boolean qualifiedNames, int chunkSize) {
+    if (chunkSize < 1)
+      throw new IllegalArgumentException("Invalid chunk size: " + chunkSize);
+    this.qualifiedNames = qualifiedNames;
+    this.chunkSize = chunkSize;
+  }
+
+  /**
+   * Constructor for JUnitImporter, the test name is the name of the testcase
+   */
+  public JUnitImporter() {
+    this(false, DEFAULT_CHUNK_SIZE);
+  }
+
+  /**
+   * @param path the report file or the directory of the reports
+   * @return the path if it is a file, else the .xml files of the directory
+   *         sorted by name
+   * @throws IOException when the directory can not be listed
+   */
+  public static List<Path> findReports(Path path) throws IOException {
+    if (!Files.isDirectory(path))
+      return Collections.singletonList(path);
+    List<Path> files = new ArrayList<>();
+    try (DirectoryStream<Path> directory = Files.newDirectoryStream(path, "*.xml")) {
+      for (Path file : directory)
+        if (Files.isRegularFile(file))
+          files.add(file);
+    }
+    Collections.sort(files);
+    return files;
+  }
+
+  /**
+   * read the test results of one report: the testcase with a failure or an
+   * error is FAIL, the skipped one is SKIP, else PASS
+   *
+   * @param file the JUnit XML report
+   * @return the pairs of the test name and the test result, in the file order
+   * @throws IOException when the file can not be read or parsed
+   */
+  public List<Map.Entry<String, String>> parse(Path file) throws IOException {
+    List<Map.Entry<String, String>> results = new ArrayList<>();
+    try (InputStream input = new BufferedInputStream(Files.newInputStream(file))) {
+      XMLStreamReader reader = INPUT_FACTORY.get().createXMLStreamReader(input);
+      try {
+        boolean inTestCase = false;
+        String testName = null;
+        String result = null;
+        // The depth in the current testcase, 1 for its direct children
+        int depth = 0;
+        while (reader.hasNext()) {
+          int event = reader.next();
+          if (event == XMLStreamConstants.START_ELEMENT) {
+            if (inTestCase) {
+              depth++;
+              String element = reader.getLocalName();
+              if (depth == 1 && (FAILURE.equals(element) || ERROR.equals(element)))
+                result = TestHistory.FAIL;
+              else if (depth == 1 && SKIPPED.equals(element) && !TestHistory.FAIL.equals(result))
+                result = TestHistory.SKIP;
+            } else if (TESTCASE.equals(reader.getLocalName())) {
+              inTestCase = true;
+              testName = testNameOf(reader);
+              result = TestHistory.PASS;
+              depth = 0;
+            }
+          } else if (event == XMLStreamConstants.END_ELEMENT && inTestCase) {
+            if (depth == 0) {
+              if (testName != null)
+                results.add(new AbstractMap.SimpleEntry<>(testName, result));
+              inTestCase = false;
+            } else
+              depth--;
+          }
+        }
+      } finally {
+        reader.close();
+      }
+    } catch (XMLStreamException e) {
+      throw new IOException(file + ": " + e.getMessage(), e);
+    }
+    return results;
+  }
+
+  /**
+   * read the reports and write their results to the sheet. The files are read
+   * in parallel by windows of a few files per thread, so the memory does not
+   * grow with the number of files, and the results are written by chunks in the
+   * order of the files. The file which can not be read is logged and skipped
+   *
+   * @param files     the JUnit XML reports
+   * @param sheetName The sheet to write the results
+   * @param sheetID   The sheetID which can get from the google sheet URL
+   * @param mode      how to find the row of each test
+   * @return the number of the results which are written to a row
+   */
+  public int importReports(List<Path> files, String sheetName, String sheetID, Report.UpdateMode mode) {
+    int window = Math.max(1, ForkJoinPool.getCommonPoolParallelism() * 4);
+    List<Map.Entry<String, String>> chunk = new ArrayList<>(chunkSize);
+    int written = 0;
+    for (int start = 0; start < files.size(); start += window) {
+      List<List<Map.Entry<String, String>>> parsed = files.subList(start, Math.min(files.size(), start + window))
+          .parallelStream().map(this::parseOrSkip).collect(Collectors.toList());
+      for (List<Map.Entry<String, String>> fileResults : parsed)
+        for (Map.Entry<String, String> result : fileResults) {
+          chunk.add(result);
+          if (chunk.size() >= chunkSize) {
+            written += writeChunk(chunk, sheetName, sheetID, mode);
+            chunk.clear();
+          }
+        }
+    }
+    if (!chunk.isEmpty())
+      written += writeChunk(chunk, sheetName, sheetID, mode);
+    return written;
+  }
+
+  private List<Map.Entry<String, String>> parseOrSkip(Path file) {
+    try {
+      return parse(file);
+    } catch (IOException e) {
+      Logger.getLogger(CLASSNAME).log(Level.WARNING, e.getMessage());
+    }
+    return Collections.emptyList();
+  }
+
+  private static int writeChunk(List<Map.Entry<String, String>> chunk, String sheetName, String sheetID,
+      Report.UpdateMode mode) {
+    int written = 0;
+    for (int row : Report.updateTestResults(chunk, sheetName, sheetID, mode))
+      if (row >= 0)
+        written++;
+    return written;
+  }
+
+  private String testNameOf(XMLStreamReader reader) {
+    String name = reader.getAttributeValue(null, "name");
+    String className = reader.getAttributeValue(null, "classname");
+    if (!qualifiedNames || className == null || className.isEmpty())
+      return name;
+    return (name == null) ? className : className + "." + name;
+  }
+
+  /**
+   * import the reports to the sheet
+   *
+   * @param args [-c nameCol resultCol] [-r startRow] [-a] [-q] [-n | -t title]
+   *             [-m mode] [-d credentialDir credentialFile] sheetID sheetName
+   *             reportFileOrDirectory..., -a to append the new tests, -q for
+   *             the "classname.name" test names, -n to insert a new result
+   *             column, -t to insert it with the title, -m OVERWRITE (default),
+   *             NEW_ROW or EXISTING_RESULT. Exits with 1 when the new result
+   *             column can not be inserted, the results would overwrite the
+   *             previous run, or when the results can not all be written
+   * @throws IOException when a report directory can not be listed
+   */
+  public static void main(String[] args) throws IOException {
+    boolean qualifiedNames = false;
+    boolean newResultCol = false;
+    String title = null;
+    Report.UpdateMode mode = Report.UpdateMode.OVERWRITE;
+    int iArg = 0;
+    for (; iArg < args.length && args[iArg].startsWith("-"); iArg++)
+      switch (args[iArg]) {
+      case "-c":
+        Report.setTestCols(args[iArg + 1], args[iArg + 2]);
+        iArg += 2;
+        break;
+      case "-r":
+        Report.setTestNameStartRow(Integer.parseInt(args[++iArg]));
+        break;
+      case "-a":
+        Report.setAppendNewRows(true);
+        break;
+      case "-q":
+        qualifiedNames = true;
+        break;
+      case "-n":
+        newResultCol = true;
+        break;
+      case "-t":
+        title = args[++iArg];
+        break;
+      case "-m":
+        mode = Report.UpdateMode.valueOf(args[++iArg]);
+        break;
+      case "-d":
+        Sheet.setCredentialDir(args[iArg + 1], args[iArg + 2]);
+        iArg += 2;
+        break;
+      default:
+        throw new IllegalArgumentException("Unknown option: " + args[iArg]);
+      }
+    if (args.length - iArg < 3)
+      throw new IllegalArgumentException("Usage: JUnitImporter [options] sheetID sheetName reportFileOrDirectory...");
+    String sheetID = args[iArg];
+    String sheetName = args[iArg + 1];
+    List<Path> files = new ArrayList<>();
+    for (int iPath = iArg + 2; iPath < args.length; iPath++)
+      files.addAll(findReports(Paths.get(args[iPath])));
+
+    boolean inserted = true;
+    if (title != null)
+      inserted = Report.createNewResultColTitle(title, sheetName, sheetID);
+    else if (newResultCol)
+      inserted = Report.createNewResultCol(sheetName, sheetID);
+    if (!inserted) {
+      Logger.getLogger(CLASSNAME).log(Level.SEVERE, "The new result column can not be inserted in {0}", sheetName);
+      System.exit(1);
+    }
+    int written = new JUnitImporter(qualifiedNames, DEFAULT_CHUNK_SIZE).importReports(files, sheetName, sheetID,
+        mode);
+    if (!Sheet.flushAll()) {
+      Logger.getLogger(CLASSNAME).log(Level.SEVERE, "The pending results can not be written to {0}", sheetName);
+      System.exit(1);
+    }
+    Logger.getLogger(CLASSNAME).log(Level.INFO, "{0} results of {1} files are written to {2}",
+        new Object[] { written, files.size(), sheetName });
+  }
+}
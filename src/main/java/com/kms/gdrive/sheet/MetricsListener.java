@@ -0,0 +1,29 @@
+package com.kms.gdrive.sheet;
+
+/**
+ * Listener of the API requests and the Report operations, Ex: to export the
+ * metrics to a monitoring system. The methods are called on the calling thread
+ * of the operation, so they have to be fast and must not throw
+ */
+public interface MetricsListener {
+  /**
+   * called after each API request, including each retry
+   *
+   * @param operation    the API operation, see the SheetMetrics.OP_* names
+   * @param sheetID      The sheetID which can get from the google sheet URL
+   * @param latencyNanos the time of the request
+   * @param statusCode   the HTTP status, 200 for the success ; -1 when the
+   *                     request fails without response
+   */
+  void onApiRequest(String operation, String sheetID, long latencyNanos, int statusCode);
+
+  /**
+   * called after each Report operation
+   *
+   * @param operation    the Report operation (Ex: "report.updateTestResultByName")
+   * @param latencyNanos the time of the operation, including its API requests
+   * @param success      false if the operation failed
+   */
+  default void onReportOperation(String operation, long latencyNanos, boolean success) {
+  }
+}
@@ -0,0 +1,116 @@
+package com.kms.gdrive.sheet;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.kms.util.LatencyHistogram;
+
+/**
+ * The metrics of one operation: an API request type (Ex: "values.get") or a
+ * Report operation (Ex: "report.findTestByName")
+ */
+public class OperationMetrics {
+  private final String name;
+  private final boolean apiOperation;
+  final LongAdder calls = new LongAdder();
+  final LongAdder failures = new LongAdder();
+  final LongAdder retries = new LongAdder();
+  final LongAdder throttles = new LongAdder();
+  final LongAdder bytesSent = new LongAdder();
+  final LongAdder bytesReceived = new LongAdder();
+  final LatencyHistogram latencyMicros = new LatencyHistogram();
+
+  /**
+   * Constructor for OperationMetrics
+   *
+   * @param name         the operation name
+   * @param apiOperation true for an API request type
+   */
+  OperationMetrics(String name, boolean apiOperation) {
+    this.name = name;
+    this.apiOperation = apiOperation;
+  }
+
+  /**
+   * record one call of the operation
+   *
+   * @param latencyNanos the time of the call
+   */
+  void record(long latencyNanos) {
+    calls.increment();
+    latencyMicros.record(TimeUnit.NANOSECONDS.toMicros(latencyNanos));
+  }
+
+  /**
+   * @return the operation name
+   */
+  public String getName() {
+    return name;
+  }
+
+  /**
+   * @return true for an API request type, false for a Report operation
+   */
+  public boolean isApiOperation() {
+    return apiOperation;
+  }
+
+  /**
+   * @return the number of calls, for the API operations each retry is a call
+   */
+  public long getCallCount() {
+    return calls.sum();
+  }
+
+  /**
+   * @return the number of the calls which failed, after the retries
+   */
+  public long getFailureCount() {
+    return failures.sum();
+  }
+
+  /**
+   * @return the number of the retries of the 429 and 5xx responses
+   */
+  public long getRetryCount() {
+    return retries.sum();
+  }
+
+  /**
+   * @return the number of the 429 responses
+   */
+  public long getThrottleCount() {
+    return throttles.sum();
+  }
+
+  /**
+   * @return the bytes of the request content, before the compression
+   */
+  public long getBytesSent() {
+    return bytesSent.sum();
+  }
+
+  /**
+   * @return the bytes of the response content as the Content-Length header
+   */
+  public long getBytesReceived() {
+    return bytesReceived.sum();
+  }
+
+  /**
+   * @return the latency histogram in microseconds
+   */
+  public LatencyHistogram getLatencyMicros() {
+    return latencyMicros;
+  }
+
+  void reset() {
+    calls.reset();
+    failures.reset();
+    retries.reset();
+    throttles.reset();
+    bytesSent.reset();
+    bytesReceived.reset();
+    latencyMicros.reset();
+  }
+}
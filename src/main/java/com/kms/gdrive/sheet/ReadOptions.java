@@ -0,0 +1,95 @@
+package com.kms.gdrive.sheet;
+
+/**
+ * The options of a read: how the values are rendered, the major dimension of
+ * the values and the fields of the response. The plain values are cheaper than
+ * the formulas of the report tabs, the single column is one list with the
+ * COLUMNS dimension instead of one list per row, and the field mask drops the
+ * parts of the response which are not used
+ */
+public final class ReadOptions {
+  // The value render options
+  public static final String FORMULA = "FORMULA";
+  public static final String FORMATTED_VALUE = "FORMATTED_VALUE";
+  public static final String UNFORMATTED_VALUE = "UNFORMATTED_VALUE";
+
+  // The major dimensions
+  public static final String ROWS = "ROWS";
+  public static final String COLUMNS = "COLUMNS";
+
+  /**
+   * the field mask of the values without the range and the major dimension
+   */
+  public static final String VALUES_ONLY = "values";
+
+  /**
+   * the formulas by rows with all the fields, the reads of Sheet without options
+   */
+  public static final ReadOptions DEFAULT = new ReadOptions(FORMULA, ROWS, null);
+
+  private final String valueRenderOption;
+  private final String majorDimension;
+  private final String fields;
+
+  private ReadOptions(String valueRenderOption, String majorDimension, String fields) {
+    this.valueRenderOption = valueRenderOption;
+    this.majorDimension = majorDimension;
+    this.fields = fields;
+  }
+
+  /**
+   * @param valueRenderOption FORMULA, FORMATTED_VALUE or UNFORMATTED_VALUE
+   * @param majorDimension    ROWS or COLUMNS
+   * @return the options with all the fields of the response
+   */
+  public static ReadOptions of(String valueRenderOption, String majorDimension) {
+    if (!FORMULA.equals(valueRenderOption) && !FORMATTED_VALUE.equals(valueRenderOption)
+        && !UNFORMATTED_VALUE.equals(valueRenderOption))
+      throw new IllegalArgumentException("Invalid value render option: " + valueRenderOption);
+    if (!ROWS.equals(majorDimension) && !COLUMNS.equals(majorDimension))
+      throw new IllegalArgumentException("Invalid major dimension: " + majorDimension);
+    return new ReadOptions(valueRenderOption, majorDimension, null);
+  }
+
+  /**
+   * @param fields the fields of each ValueRange to return (Ex: VALUES_ONLY or
+   *               "range,values") ; null for all the fields
+   * @return the same options with the field mask
+   */
+  public ReadOptions withFields(String fields) {
+    return new ReadOptions(valueRenderOption, majorDimension, fields);
+  }
+
+  /**
+   * @return FORMULA, FORMATTED_VALUE or UNFORMATTED_VALUE
+   */
+  public String getValueRenderOption() {
+    return valueRenderOption;
+  }
+
+  /**
+   * @return ROWS or COLUMNS
+   */
+  public String getMajorDimension() {
+    return majorDimension;
+  }
+
+  /**
+   * @return true if the values are by columns
+   */
+  public boolean isByColumns() {
+    return COLUMNS.equals(majorDimension);
+  }
+
+  /**
+   * @return the fields of each ValueRange ; null for all the fields
+   */
+  public String getFields() {
+    return fields;
+  }
+
+  @Override
+  public String toString() {
+    return valueRenderOption + "/" + majorDimension + ((fields == null) ? "" : "/" + fields);
+  }
+}
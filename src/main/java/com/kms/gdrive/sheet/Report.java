@@ -1,10 +1,21 @@
 package com.kms.gdrive.sheet;
 
+import java.io.UncheckedIOException;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
 
+import com.google.api.services.sheets.v4.model.ValueRange;
+import com.kms.util.BoundedCache;
 import com.kms.util.ListUtils;
 import com.kms.util.StringUtils;
 
@@ -33,7 +44,50 @@ public class Report {
     Report.testNameStartRow = testNameStartRow;
   }
 
+  static boolean appendNewRows = false;
+
+  /**
+   * @param appendNewRows TRUE: add the new tests with one values.append
+   *                      (INSERT_ROWS) per call, the name and result are written
+   *                      as one row and the spreadsheet allocates the rows, so
+   *                      many writers of the sheet do not get the same row ;
+   *                      FALSE: write the new tests after the last known test,
+   *                      default is false
+   */
+  public static void setAppendNewRows(boolean appendNewRows) {
+    Report.appendNewRows = appendNewRows;
+  }
+
+  static int keepResultCols = 0;
+  static String archiveSheetSuffix = " Archive";
+
+  /**
+   * archive the old result columns after each new result column, so the sheet
+   * keeps the newest results only, see {@link #archiveResultCols(int, String)}
+   * 
+   * @param keepResultCols     the number of the newest result columns to keep on
+   *                           the sheet, 0 to not archive, default is 0
+   * @param archiveSheetSuffix the archive of each sheet is the sheet name with
+   *                           this suffix, default is " Archive"
+   */
+  public static void setAutoArchive(int keepResultCols, String archiveSheetSuffix) {
+    Report.keepResultCols = keepResultCols;
+    if (!StringUtils.isEmpty(archiveSheetSuffix))
+      Report.archiveSheetSuffix = archiveSheetSuffix;
+  }
+
   static final int MAX_BLANK_ROW = 5;
+
+  /**
+   * the reads of the test names and results, the text of each column
+   */
+  static final ReadOptions SCAN_OPTIONS = ReadOptions.of(ReadOptions.FORMATTED_VALUE, ReadOptions.COLUMNS)
+      .withFields(ReadOptions.VALUES_ONLY);
+  /**
+   * the reads of the labels of the result columns
+   */
+  static final ReadOptions LABEL_OPTIONS = ReadOptions.of(ReadOptions.FORMATTED_VALUE, ReadOptions.ROWS)
+      .withFields(ReadOptions.VALUES_ONLY);
   static final DateTimeFormatter DATETIME_FORMATTER = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
 
   // STATIC
@@ -49,6 +103,11 @@ public class Report {
    * @return The row index of the found test ; -1 if not found
    */
   public static int findTestByName(String tcName, String sheetName, String sheetID, boolean allowExistingResult) {
+    ReportClient client = reportClient;
+    Integer remoteRow = (client == null) ? null
+        : client.findTestByName(tcName, sheetName, sheetID, allowExistingResult);
+    if (remoteRow != null)
+      return remoteRow;
     Report foundReport = getReport(sheetID);
     return (foundReport == null)?-1:foundReport.findTestByName(tcName, sheetName, allowExistingResult);
   }
@@ -67,6 +126,11 @@ public class Report {
    */
   public static int updateTestResultByName(String tcName, String tcResult, String sheetName, String sheetID,
       boolean overWriteResult) {
+    ReportClient client = reportClient;
+    Integer remoteRow = (client == null) ? null
+        : client.updateTestResultByName(tcName, tcResult, sheetName, sheetID, overWriteResult);
+    if (remoteRow != null)
+      return remoteRow;
     Report foundReport = getReport(sheetID);
     return (foundReport == null)?-1:foundReport.updateTestResultByName(tcName, tcResult, sheetName, overWriteResult);
   }
@@ -82,6 +146,11 @@ public class Report {
    *         not found
    */
   public static int updateTestResultInExistingResult(String tcName, String tcResult, String sheetName, String sheetID) {
+    ReportClient client = reportClient;
+    Integer remoteRow = (client == null) ? null
+        : client.updateTestResultInExistingResult(tcName, tcResult, sheetName, sheetID);
+    if (remoteRow != null)
+      return remoteRow;
     Report foundReport = getReport(sheetID);
     return (foundReport == null)?-1:foundReport.updateTestResultInExistingResult(tcName, tcResult, sheetName);
   }
@@ -95,6 +164,9 @@ public class Report {
    * @param sheetID   The sheetID which can get from the google sheet URL
    */
   public static void overwriteResultColHeader(String title, String sheetName, String sheetID) {
+    ReportClient client = reportClient;
+    if (client != null && client.overwriteResultColHeader(title, sheetName, sheetID) != null)
+      return;
     Report foundReport = getReport(sheetID);
     if (foundReport != null)
       foundReport.overwriteResultColHeader(title, sheetName);
@@ -109,6 +181,10 @@ public class Report {
    * @return true if the column is inserted successful
    */
   public static boolean createNewResultCol(String sheetName, String sheetID) {
+    ReportClient client = reportClient;
+    Boolean remoteInserted = (client == null) ? null : client.createNewResultCol(sheetName, sheetID);
+    if (remoteInserted != null)
+      return remoteInserted;
     Report foundReport = getReport(sheetID);
     return (foundReport != null)&&foundReport.createNewResultCol(sheetName);
   }
@@ -122,15 +198,285 @@ public class Report {
    * @return true if the column is inserted successful
    */
   public static boolean createNewResultColTitle(String title, String sheetName, String sheetID) {
+    ReportClient client = reportClient;
+    Boolean remoteInserted = (client == null) ? null : client.createNewResultColTitle(title, sheetName, sheetID);
+    if (remoteInserted != null)
+      return remoteInserted;
     Report foundReport = getReport(sheetID);
     return (foundReport != null)&&foundReport.createNewResultColTitle(title, sheetName);
   }
 
+  /**
+   * move the old result columns to the archive sheet (static), see
+   * {@link #archiveResultCols(int, String)}
+   * 
+   * @param keepResultCols the number of the newest result columns to keep
+   * @param sheetName      The sheet to archive the results
+   * @param sheetID        The sheetID which can get from the google sheet URL
+   * @return the number of the archived columns ; -1 if failed
+   */
+  public static int archiveResultCols(int keepResultCols, String sheetName, String sheetID) {
+    Report foundReport = getReport(sheetID);
+    return (foundReport == null) ? -1 : foundReport.archiveResultCols(keepResultCols, sheetName);
+  }
+
+  /**
+   * compute the history of each test over the last result columns (static), see
+   * {@link #analyzeResults(int, String)}
+   * 
+   * @param lastRuns  the number of the newest result columns to read
+   * @param sheetName The sheet of the results
+   * @param sheetID   The sheetID which can get from the google sheet URL
+   * @return the history of each test in the order of the rows, empty if failed
+   */
+  public static List<TestStats> analyzeResults(int lastRuns, String sheetName, String sheetID) {
+    Report foundReport = getReport(sheetID);
+    return (foundReport == null) ? new ArrayList<>() : foundReport.analyzeResults(lastRuns, sheetName);
+  }
+
+  /**
+   * write the history of each test to the summary sheet (static), see
+   * {@link #writeResultSummary(int, String, String)}
+   * 
+   * @param lastRuns         the number of the newest result columns to read
+   * @param sheetName        The sheet of the results
+   * @param summarySheetName The sheet to write the summary
+   * @param sheetID          The sheetID which can get from the google sheet URL
+   * @return true if the summary is written
+   */
+  public static boolean writeResultSummary(int lastRuns, String sheetName, String summarySheetName,
+      String sheetID) {
+    Report foundReport = getReport(sheetID);
+    return (foundReport != null) && foundReport.writeResultSummary(lastRuns, sheetName, summarySheetName);
+  }
+
+  /**
+   * how the bulk update finds the row of each test
+   */
+  public enum UpdateMode {
+    /**
+     * write to the first row of the test, as overWriteResult is true
+     */
+    OVERWRITE,
+    /**
+     * write to the first row of the test which does not have result, else to a
+     * new row, as overWriteResult is false
+     */
+    NEW_ROW,
+    /**
+     * write as updateTestResultInExistingResult
+     */
+    EXISTING_RESULT
+  }
+
+  /**
+   * update the results of many tests (static). The rows are found in one scan,
+   * the new tests are added as one block of rows and all the cells are written
+   * in one request
+   * 
+   * @param results   The test results by the test name, in the update order
+   * @param sheetName The sheet to find the tests
+   * @param sheetID   The sheetID which can get from the google sheet URL
+   * @param mode      how to find the row of each test
+   * @return The row index of each test in the input order ; -1 for the empty name,
+   *         all -1 if the sheet can not be read
+   */
+  public static int[] updateTestResults(Map<String, String> results, String sheetName, String sheetID,
+      UpdateMode mode) {
+    return updateTestResults(new ArrayList<>(results.entrySet()), sheetName, sheetID, mode);
+  }
+
+  /**
+   * update the results of many tests (static), the same test can be in the list
+   * many times
+   * 
+   * @param results   The pairs of the test name and the test result
+   * @param sheetName The sheet to find the tests
+   * @param sheetID   The sheetID which can get from the google sheet URL
+   * @param mode      how to find the row of each test
+   * @return The row index of each test in the input order ; -1 for the empty name,
+   *         all -1 if the sheet can not be read
+   */
+  public static int[] updateTestResults(List<? extends Map.Entry<String, String>> results, String sheetName,
+      String sheetID, UpdateMode mode) {
+    ReportClient client = reportClient;
+    int[] remoteRows = (client == null) ? null : client.updateTestResults(results, sheetName, sheetID, mode);
+    if (remoteRows != null)
+      return remoteRows;
+    Report foundReport = getReport(sheetID);
+    if (foundReport != null)
+      return foundReport.updateTestResults(results, sheetName, mode);
+    int[] rows = new int[results.size()];
+    Arrays.fill(rows, -1);
+    return rows;
+  }
+
+  // REPORT SERVER
+  /**
+   * the client of the report server ; null to update the sheets in this JVM
+   */
+  private static volatile ReportClient reportClient = null;
+
+  /**
+   * send the static calls to the ReportServer, so the shards of the test run
+   * share one index and one write buffer of the sheets. The server must have the
+   * same test columns and start row, the calls throw IllegalStateException when
+   * the server rejects them. The calls are done in this JVM when the connection
+   * can not be opened, except the new result column ; the call which is sent and
+   * fails returns -1 or false
+   * 
+   * @param host  the host of the server (Ex: "localhost")
+   * @param port  the port of the server (Ex: ReportServer.DEFAULT_PORT)
+   * @param runId the id which is same for all the shards of the run (Ex: the CI
+   *              build number), the new result column is inserted once per run ;
+   *              null to insert it on each call
+   */
+  public static void setReportServer(String host, int port, String runId) {
+    ReportClient previous = reportClient;
+    reportClient = new ReportClient(host, port, runId);
+    if (previous != null)
+      previous.close();
+  }
+
+  /**
+   * do the static calls in this JVM again
+   */
+  public static void disconnectReportServer() {
+    ReportClient previous = reportClient;
+    reportClient = null;
+    if (previous != null)
+      previous.close();
+  }
+
+  // ASYNC
+  /**
+   * set the threads and the queue size which run the asynchronous calls. The
+   * calls which are already submitted are finished first
+   * 
+   * @param threadCount     the number of threads, default is 4
+   * @param maxPendingTasks the max number of pending calls, the async calls block
+   *                        when it is reached, default is 10000
+   */
+  public static void setAsyncExecutor(int threadCount, int maxPendingTasks) {
+    AsyncReporting.configure(threadCount, maxPendingTasks);
+  }
+
+  /**
+   * update the test result by name (asynchronous), the calls of the same sheet
+   * run in the calling order
+   * 
+   * @param tcName          The test name to find
+   * @param tcResult        The test result to update
+   * @param sheetName       The sheet to find the test
+   * @param sheetID         The sheetID which can get from the google sheet URL
+   * @param overWriteResult Is True, overwrite result, else the new row of test
+   *                        will be created for the result
+   * @return the future of the row index of the updated test ; -1 if not found
+   */
+  public static CompletableFuture<Integer> updateTestResultByNameAsync(String tcName, String tcResult,
+      String sheetName, String sheetID, boolean overWriteResult) {
+    return AsyncReporting.submit(sheetID, sheetName,
+        () -> updateTestResultByName(tcName, tcResult, sheetName, sheetID, overWriteResult));
+  }
+
+  /**
+   * update the test result by name in the existing result column (asynchronous)
+   * 
+   * @param tcName    The test name to find
+   * @param tcResult  The test result to update
+   * @param sheetName The sheet to find the test
+   * @param sheetID   The sheetID which can get from the google sheet URL
+   * @return the future of the row index of the updated test ; -1 if not found
+   */
+  public static CompletableFuture<Integer> updateTestResultInExistingResultAsync(String tcName, String tcResult,
+      String sheetName, String sheetID) {
+    return AsyncReporting.submit(sheetID, sheetName,
+        () -> updateTestResultInExistingResult(tcName, tcResult, sheetName, sheetID));
+  }
+
+  /**
+   * overwrite the test result colunm header (asynchronous)
+   * 
+   * @param title     the header title
+   * @param sheetName The sheet to find the test
+   * @param sheetID   The sheetID which can get from the google sheet URL
+   * @return the future which is done after the header is written
+   */
+  public static CompletableFuture<Void> overwriteResultColHeaderAsync(String title, String sheetName,
+      String sheetID) {
+    return AsyncReporting.submit(sheetID, sheetName, () -> {
+      overwriteResultColHeader(title, sheetName, sheetID);
+      return null;
+    });
+  }
+
+  /**
+   * insert the new test result colunm (asynchronous), the results which are
+   * updated after this call are written to the new column
+   * 
+   * @param sheetName The sheet to find the test
+   * @param sheetID   The sheetID which can get from the google sheet URL
+   * @return the future of true if the column is inserted successful
+   */
+  public static CompletableFuture<Boolean> createNewResultColAsync(String sheetName, String sheetID) {
+    return AsyncReporting.submit(sheetID, sheetName, () -> createNewResultCol(sheetName, sheetID));
+  }
+
+  /**
+   * insert the new test result colunm with title (asynchronous)
+   * 
+   * @param title     the header title
+   * @param sheetName The sheet to find the test
+   * @param sheetID   The sheetID which can get from the google sheet URL
+   * @return the future of true if the column is inserted successful
+   */
+  public static CompletableFuture<Boolean> createNewResultColTitleAsync(String title, String sheetName,
+      String sheetID) {
+    return AsyncReporting.submit(sheetID, sheetName, () -> createNewResultColTitle(title, sheetName, sheetID));
+  }
+
+  /**
+   * @return the number of the asynchronous calls which are not finished
+   */
+  public static int getPendingAsyncCount() {
+    return AsyncReporting.getPendingCount();
+  }
+
+  /**
+   * wait for all the asynchronous calls and send the pending writes, using at
+   * the suite teardown
+   */
+  public static void awaitAll() {
+    AsyncReporting.awaitAll();
+    ReportClient client = reportClient;
+    if (client != null)
+      client.flush();
+  }
+
+  /**
+   * drop the index of the test names (static), the sheet will be read again at
+   * the next lookup
+   * 
+   * @param sheetName The sheet to drop the index
+   * @param sheetID   The sheetID which can get from the google sheet URL
+   */
+  public static void invalidateIndex(String sheetName, String sheetID) {
+    Report foundReport = getReport(sheetID);
+    if (foundReport != null)
+      foundReport.invalidateIndex(sheetName);
+  }
+
   // FACTORY
+  static final int DEFAULT_MAX_REPORTS = 256;
+  static final long DEFAULT_REPORT_IDLE_MILLIS = 60 * 60 * 1000L;
+
   /**
-   * store the Hash of Report by the SheetID, using for factory buffer
+   * store the Report by the SheetID, using for factory buffer. The least recently
+   * used and the idle Reports are dropped with their indexes, the sheet is read
+   * again by the next call
    */
-  private static HashMap<String, Report> hashReports = new HashMap<>();
+  private static final BoundedCache<String, Report> hashReports = new BoundedCache<>(DEFAULT_MAX_REPORTS,
+      DEFAULT_REPORT_IDLE_MILLIS, null, null);
 
   /**
    * get Report by the sheetID
@@ -138,14 +484,28 @@ public class Report {
    * @param sheetID The sheetID which can get from the google sheet URL
    * @return Report by the input sheetID
    */
-  private static Report getReport(String sheetID) {
-    if (hashReports.containsKey(sheetID))
-      return hashReports.get(sheetID);
-    else {
-      Report newReport = new Report(sheetID);
-      hashReports.put(sheetID, newReport);
-      return newReport;
-    }
+  static Report getReport(String sheetID) {
+    return hashReports.get(sheetID, Report::new);
+  }
+
+  /**
+   * set the bounds of the Report factory
+   * 
+   * @param maxReports the max number of Reports, the least recently used is
+   *                   dropped first, default is 256
+   * @param idleMillis the time a Report is kept without call, 0 to keep it until
+   *                   the factory is full, default is one hour
+   */
+  public static void setCacheLimits(int maxReports, long idleMillis) {
+    hashReports.setLimits(maxReports, idleMillis);
+    hashReports.cleanUp();
+  }
+
+  /**
+   * @return the factory of Reports, for its size and hit/miss/eviction counts
+   */
+  static BoundedCache<String, Report> getCache() {
+    return hashReports;
   }
 
   // ****** REPORT INSTANCE ******
@@ -164,9 +524,77 @@ public class Report {
   }
 
   /**
-   * the max Row which the Test Name is not empty
+   * the index of the test names by the sheet name. The index is also the lock of
+   * the sheet: the rows are found and allocated while holding it
    */
-  int maxRowIndex = 1;
+  private final ConcurrentHashMap<String, TestNameIndex> testNameIndexes = new ConcurrentHashMap<>();
+
+  /**
+   * the results which are written by this Report, by the sheet name
+   */
+  private final ConcurrentHashMap<String, TestResult> testResults = new ConcurrentHashMap<>();
+
+  /**
+   * @param sheetName The sheet of the results
+   * @return the results which are written to the sheet
+   */
+  TestResult getTestResult(String sheetName) {
+    return testResults.computeIfAbsent(sheetName, key -> new TestResult());
+  }
+
+  /**
+   * get the index of the test names of the sheet, the name and result columns
+   * are read once when the index is built
+   * 
+   * @param sheetName The sheet to find the test
+   * @return the index of the test names ; null if the sheet can not be read,
+   *         the rows can not be found or allocated without it
+   */
+  TestNameIndex getTestNameIndex(String sheetName) {
+    TestNameIndex index = testNameIndexes.get(sheetName);
+    if (index != null && index.isBuiltFor(testNameCol, testResultCol, testNameStartRow))
+      return index;
+    index = testNameIndexes.compute(sheetName,
+        (key, current) -> (current != null && current.isBuiltFor(testNameCol, testResultCol, testNameStartRow))
+            ? current
+            : loadTestNameIndex(key));
+    // The failed read is not cached, the sheet is read again at the next lookup
+    return index;
+  }
+
+  /**
+   * build the index of the test names from the sheet
+   * 
+   * @param sheetName The sheet to read the test names
+   * @return the index of the test names ; null if the sheet can not be read
+   */
+  private TestNameIndex loadTestNameIndex(String sheetName) {
+    return SheetMetrics.measure("loadTestNameIndex", () -> readTestNameIndex(sheetName));
+  }
+
+  private TestNameIndex readTestNameIndex(String sheetName) {
+    TestNameIndex index = new TestNameIndex(testNameCol, testResultCol, testNameStartRow);
+    // Read the name and result columns together, page by page until the blank rows.
+    // Only the text is matched, the formatted values are cheaper than the formulas
+    try (Stream<SheetRow> rows = Sheet.streamRows(sheetName, Arrays.asList(index.nameCol, index.resultCol),
+        index.startRow, MAX_BLANK_ROW, SCAN_OPTIONS, sheetID)) {
+      index.load(rows.iterator());
+    } catch (UncheckedIOException e) {
+      Logger.getLogger(CLASSNAME).log(Level.WARNING, e.getMessage());
+      return null;
+    }
+    return index;
+  }
+
+  /**
+   * drop the index of the test names, the sheet will be read again at the next
+   * lookup. Using when the sheet is edited outside of this Report
+   * 
+   * @param sheetName The sheet to drop the index
+   */
+  public void invalidateIndex(String sheetName) {
+    testNameIndexes.remove(sheetName);
+  }
 
   /**
    * find the test by name
@@ -178,32 +606,14 @@ public class Report {
    * @return The row index of the found test ; -1 if not found
    */
   public int findTestByName(String tcName, String sheetName, boolean allowExistingResult) {
+    return SheetMetrics.measure("findTestByName", () -> findRow(tcName, sheetName, allowExistingResult));
+  }
+
+  private int findRow(String tcName, String sheetName, boolean allowExistingResult) {
     if (StringUtils.isAnyEmpty(new String[] { tcName, sheetName }))
       return -1;
-    int blankCount = 0;
-    for (int row10x = 0; row10x < 1000 && blankCount <= MAX_BLANK_ROW; row10x++) {
-      // Get the Name Range
-      List<List<Object>> values = Sheet.readRange(sheetName, testNameCol, testNameStartRow + row10x * 10,
-          testNameCol, testNameStartRow + row10x * 10 + 10, sheetID);
-      if (ListUtils.isEmpty(values))
-        break; // break in blank sheet
-      else {
-        for (int rowIndex = 0; rowIndex < 10 && blankCount <= MAX_BLANK_ROW; rowIndex++) {
-          String scanName = ListUtils.getValue(values, rowIndex, 0);
-          if (!StringUtils.isEmpty(scanName)) {
-            blankCount = 0;
-            maxRowIndex = (testNameStartRow + row10x * 10 + rowIndex); // now it is current index
-            if (tcName.equalsIgnoreCase(scanName) && (allowExistingResult || StringUtils.isEmpty(ListUtils.getValue(
-                Sheet.readRange(sheetName, testResultCol, maxRowIndex, testResultCol, maxRowIndex, sheetID),
-                0, 0))))
-              return maxRowIndex;
-          } else {
-            blankCount++;
-          }
-        }
-      }
-    }
-    return -1;
+    TestNameIndex index = getTestNameIndex(sheetName);
+    return (index == null) ? -1 : index.findRow(tcName, allowExistingResult);
   }
 
   /**
@@ -218,7 +628,27 @@ public class Report {
    *         not found
    */
   public int updateTestResultByName(String tcName, String tcResult, String sheetName, boolean overWriteResult) {
-    return updateTestResultAtRow(tcName, tcResult, sheetName, findTestByName(tcName, sheetName, overWriteResult));
+    return SheetMetrics.measure("updateTestResultByName",
+        () -> updateByName(tcName, tcResult, sheetName, overWriteResult));
+  }
+
+  private int updateByName(String tcName, String tcResult, String sheetName, boolean overWriteResult) {
+    if (StringUtils.isAnyEmpty(new String[] { tcName, sheetName }))
+      return -1;
+    TestNameIndex index = getTestNameIndex(sheetName);
+    if (index == null)
+      return -1;
+    int foundTestRow;
+    boolean newRow;
+    synchronized (index) {
+      foundTestRow = index.findRow(tcName, overWriteResult);
+      newRow = foundTestRow < 0;
+      foundTestRow = recordTestResult(index, getTestResult(sheetName), tcName, foundTestRow);
+      if (newRow && appendNewRows)
+        return appendTestResult(index, tcName, tcResult, sheetName, foundTestRow);
+    }
+    writeTestResult(tcName, tcResult, sheetName, foundTestRow, newRow);
+    return foundTestRow;
   }
 
   /**
@@ -229,36 +659,20 @@ public class Report {
    * @return The row index of the found test ; -1 if not found
    */
   public int findTestInExistingResult(String tcName, String sheetName) {
+    return SheetMetrics.measure("findTestInExistingResult", () -> findExistingResultRow(tcName, sheetName));
+  }
+
+  private int findExistingResultRow(String tcName, String sheetName) {
+    if (StringUtils.isAnyEmpty(new String[] { tcName, sheetName }))
+      return -1;
+    TestNameIndex index = getTestNameIndex(sheetName);
+    return (index == null) ? -1 : findExistingResultRow(index, tcName, sheetName);
+  }
+
+  private int findExistingResultRow(TestNameIndex index, String tcName, String sheetName) {
     // Get the test index from the existing result
-    int existingResultIndex = TestResult.findTheTestIndex(tcName);
-    // Prepare to search test
-    existingResultIndex++;
-    int matchCount = -1;
-    int blankCount = 0;
-    for (int row10x = 0; row10x < 1000 && blankCount <= MAX_BLANK_ROW; row10x++) {
-      // Get the Name Range
-      List<List<Object>> values = Sheet.readRange(sheetName, testNameCol, testNameStartRow + row10x * 10,
-          testNameCol, testNameStartRow + row10x * 10 + 10, sheetID);
-      if (ListUtils.isEmpty(values))
-        break; // break in blank sheet
-      else {
-        for (int rowIndex = 0; rowIndex < 10 && blankCount <= MAX_BLANK_ROW; rowIndex++) {
-          String scanName = ListUtils.getValue(values, rowIndex, 0);
-          if (!StringUtils.isEmpty(scanName)) {
-            blankCount = 0;
-            maxRowIndex = (testNameStartRow + row10x * 10 + rowIndex); // now it is current index
-            if (tcName.equalsIgnoreCase(scanName)) {
-              matchCount++;
-              if (matchCount == existingResultIndex)
-                return maxRowIndex;
-            }
-          } else {
-            blankCount++;
-          }
-        }
-      }
-    }
-    return -1;
+    int existingResultIndex = getTestResult(sheetName).findTheTestIndex(tcName);
+    return index.findOccurrence(tcName, existingResultIndex + 1);
   }
 
   /**
@@ -271,29 +685,274 @@ public class Report {
    *         not found
    */
   public int updateTestResultInExistingResult(String tcName, String tcResult, String sheetName) {
-    return updateTestResultAtRow(tcName, tcResult, sheetName, findTestInExistingResult(tcName, sheetName));
+    return SheetMetrics.measure("updateTestResultInExistingResult",
+        () -> updateInExistingResult(tcName, tcResult, sheetName));
+  }
+
+  private int updateInExistingResult(String tcName, String tcResult, String sheetName) {
+    if (StringUtils.isAnyEmpty(new String[] { tcName, sheetName }))
+      return -1;
+    TestNameIndex index = getTestNameIndex(sheetName);
+    if (index == null)
+      return -1;
+    int foundTestRow;
+    boolean newRow;
+    synchronized (index) {
+      foundTestRow = findExistingResultRow(index, tcName, sheetName);
+      newRow = foundTestRow < 0;
+      foundTestRow = recordTestResult(index, getTestResult(sheetName), tcName, foundTestRow);
+      if (newRow && appendNewRows)
+        return appendTestResult(index, tcName, tcResult, sheetName, foundTestRow);
+    }
+    writeTestResult(tcName, tcResult, sheetName, foundTestRow, newRow);
+    return foundTestRow;
   }
 
+  /**
+   * update the results of many tests. The rows are found in memory from one scan,
+   * the new tests are added as one block of rows and all the cells are written
+   * in one values.batchUpdate
+   * 
+   * @param results   The pairs of the test name and the test result
+   * @param sheetName The sheet to find the tests
+   * @param mode      how to find the row of each test
+   * @return The row index of each test in the input order ; -1 for the empty name,
+   *         all -1 if the sheet can not be read
+   */
+  public int[] updateTestResults(List<? extends Map.Entry<String, String>> results, String sheetName,
+      UpdateMode mode) {
+    return SheetMetrics.measure("updateTestResults", () -> updateResults(results, sheetName, mode));
+  }
+
+  private int[] updateResults(List<? extends Map.Entry<String, String>> results, String sheetName, UpdateMode mode) {
+    int[] rows = new int[results.size()];
+    Arrays.fill(rows, -1);
+    if (StringUtils.isEmpty(sheetName) || results.isEmpty())
+      return rows;
+    TestNameIndex index = getTestNameIndex(sheetName);
+    if (index == null)
+      return rows;
+    TreeMap<Integer, String> newNames = new TreeMap<>();
+    TreeMap<Integer, String> newResults = new TreeMap<>();
+    TestResult sheetResults = getTestResult(sheetName);
+    synchronized (index) {
+      for (int iResult = 0; iResult < results.size(); iResult++) {
+        String tcName = results.get(iResult).getKey();
+        String tcResult = results.get(iResult).getValue();
+        if (StringUtils.isEmpty(tcName))
+          continue;
+        int foundTestRow;
+        if (mode == UpdateMode.EXISTING_RESULT)
+          foundTestRow = findExistingResultRow(index, tcName, sheetName);
+        else
+          foundTestRow = index.findRow(tcName, mode == UpdateMode.OVERWRITE);
+        boolean newRow = foundTestRow < 0;
+        foundTestRow = recordTestResult(index, sheetResults, tcName, foundTestRow);
+        if (newRow)
+          newNames.put(foundTestRow, tcName);
+        newResults.put(foundTestRow, tcResult);
+        rows[iResult] = foundTestRow;
+      }
+      if (appendNewRows && !newNames.isEmpty()) {
+        int allocatedRow = newNames.firstKey();
+        int newCount = newNames.size();
+        Integer offset = appendNewTests(index, sheetName, newNames, newResults);
+        if (offset != null) {
+          // The appended tests are written, only the results of the found tests are left
+          newResults.keySet().removeAll(newNames.keySet());
+          newNames.clear();
+          int appendedRow = allocatedRow + offset;
+          for (int iResult = 0; iResult < rows.length; iResult++)
+            if (rows[iResult] >= allocatedRow)
+              rows[iResult] += offset;
+            else if (rows[iResult] >= appendedRow)
+              // The rows are inserted above this found test and have moved it down
+              rows[iResult] += newCount;
+          if (appendedRow < allocatedRow)
+            newResults = shiftRows(newResults, appendedRow, newCount);
+        }
+      }
+    }
+    List<ValueRange> data = new ArrayList<>();
+    addColumnBlocks(data, sheetName, testNameCol, newNames);
+    addColumnBlocks(data, sheetName, testResultCol, newResults);
+    Sheet.batchSetValues(data, sheetID);
+    return rows;
+  }
+
+  /**
+   * move the values of the rows which the inserted rows have moved down
+   * 
+   * @param values   the values by the row index
+   * @param fromRow  the first row which is moved
+   * @param rowCount the number of the inserted rows
+   * @return the values by the new row index
+   */
+  private static TreeMap<Integer, String> shiftRows(TreeMap<Integer, String> values, int fromRow, int rowCount) {
+    TreeMap<Integer, String> shifted = new TreeMap<>(values.headMap(fromRow));
+    for (Map.Entry<Integer, String> value : values.tailMap(fromRow).entrySet())
+      shifted.put(value.getKey() + rowCount, value.getValue());
+    return shifted;
+  }
+
+  /**
+   * add the values of the column as the ranges of the continuous rows
+   * 
+   * @param data      the ranges to write
+   * @param sheetName The sheet to write
+   * @param col       the column to write
+   * @param values    the values by the row index
+   */
+  private static void addColumnBlocks(List<ValueRange> data, String sheetName, String col,
+      TreeMap<Integer, String> values) {
+    int column = CellRef.letterToColumn(col);
+    int blockStart = -1;
+    int blockEnd = -1;
+    List<List<Object>> block = new ArrayList<>();
+    for (Map.Entry<Integer, String> value : values.entrySet()) {
+      if (!block.isEmpty() && value.getKey() != blockEnd + 1) {
+        data.add(new ValueRange().setRange(CellRange.of(sheetName, column, blockStart, column, blockEnd).toA1())
+            .setValues(block));
+        block = new ArrayList<>();
+      }
+      if (block.isEmpty())
+        blockStart = value.getKey();
+      blockEnd = value.getKey();
+      block.add(Arrays.asList((Object) value.getValue()));
+    }
+    if (!block.isEmpty())
+      data.add(new ValueRange().setRange(CellRange.of(sheetName, column, blockStart, column, blockEnd).toA1())
+          .setValues(block));
+  }
+
+  /**
+   * update the test result at the row
+   * 
+   * @param tcName    The test name
+   * @param tcResult  The test result to update
+   * @param sheetName The sheet to update the test
+   * @param rowIndex  The row of the test ; -1 to add the test as the new row
+   * @return The row index of the updated test ; -1 if the sheet can not be read
+   */
   public int updateTestResultAtRow(String tcName, String tcResult, String sheetName, int rowIndex) {
+    return SheetMetrics.measure("updateTestResultAtRow", () -> updateAtRow(tcName, tcResult, sheetName, rowIndex));
+  }
+
+  private int updateAtRow(String tcName, String tcResult, String sheetName, int rowIndex) {
+    TestNameIndex index = getTestNameIndex(sheetName);
+    if (index == null)
+      return -1;
+    int foundTestRow;
+    synchronized (index) {
+      foundTestRow = recordTestResult(index, getTestResult(sheetName), tcName, rowIndex);
+      if (rowIndex < 0 && appendNewRows)
+        return appendTestResult(index, tcName, tcResult, sheetName, foundTestRow);
+    }
+    writeTestResult(tcName, tcResult, sheetName, foundTestRow, rowIndex < 0);
+    return foundTestRow;
+  }
+
+  /**
+   * record the result in the index and allocate the new row if the test is not
+   * found, has to be called while holding the lock of the index
+   * 
+   * @param index    the index of the sheet
+   * @param results  the results which are written to the sheet
+   * @param tcName   The test name
+   * @param rowIndex The row of the test ; -1 to allocate the new row
+   * @return The row index of the test
+   */
+  private static int recordTestResult(TestNameIndex index, TestResult results, String tcName, int rowIndex) {
     int foundTestRow = rowIndex;
-    if (foundTestRow >= 0) {
-      TestResult.addNew(tcName, tcResult);
-      Sheet.setValue(tcResult,
-          sheetName + "!" + testResultCol + foundTestRow + ":" + testResultCol + foundTestRow, sheetID);
-    } else {
-      if (maxRowIndex < testNameStartRow)
-        maxRowIndex = testNameStartRow;
-      foundTestRow = maxRowIndex + 1;
-
-      Sheet.setValue(tcName, sheetName + "!" + testNameCol + foundTestRow + ":" + testNameCol + foundTestRow,
-          sheetID);
-      Sheet.setValue(tcResult,
-          sheetName + "!" + testResultCol + foundTestRow + ":" + testResultCol + foundTestRow, sheetID);
-      TestResult.addNew(tcName, tcResult);
+    if (foundTestRow < 0) {
+      foundTestRow = index.nextNewRow();
+      index.addRow(tcName, foundTestRow);
     }
+    index.markResult(foundTestRow);
+    results.addNew(tcName);
     return foundTestRow;
   }
 
+  /**
+   * append the new test as one row, has to be called while holding the lock of
+   * the index. The test is written at the allocated row if it can not be appended
+   * 
+   * @param index     the index of the sheet
+   * @param tcName    The test name
+   * @param tcResult  The test result
+   * @param sheetName The sheet to write the test
+   * @param row       The row which the index allocated for the test
+   * @return The row index of the test
+   */
+  private int appendTestResult(TestNameIndex index, String tcName, String tcResult, String sheetName, int row) {
+    TreeMap<Integer, String> newNames = new TreeMap<>();
+    newNames.put(row, tcName);
+    TreeMap<Integer, String> newResults = new TreeMap<>();
+    newResults.put(row, tcResult);
+    Integer offset = appendNewTests(index, sheetName, newNames, newResults);
+    if (offset != null)
+      return row + offset;
+    writeTestResult(tcName, tcResult, sheetName, row, true);
+    return row;
+  }
+
+  /**
+   * append the new tests as the rows from the name column to the result column
+   * in one values.append, has to be called while holding the lock of the index.
+   * The rows which the index allocated are moved to the rows which the
+   * spreadsheet assigned
+   * 
+   * @param index      the index of the sheet
+   * @param sheetName  The sheet to write the tests
+   * @param newNames   the new test names by the allocated row, the rows are
+   *                   continuous
+   * @param newResults the test results by the row
+   * @return the offset from the allocated rows to the appended rows ; null if
+   *         the tests can not be appended
+   */
+  private Integer appendNewTests(TestNameIndex index, String sheetName, TreeMap<Integer, String> newNames,
+      Map<Integer, String> newResults) {
+    int nameColumn = CellRef.letterToColumn(index.nameCol);
+    int resultColumn = CellRef.letterToColumn(index.resultCol);
+    int firstColumn = Math.min(nameColumn, resultColumn);
+    List<List<Object>> values = new ArrayList<>(newNames.size());
+    for (Map.Entry<Integer, String> newName : newNames.entrySet()) {
+      // The cells between the name and the result are null, they are not written
+      Object[] row = new Object[Math.abs(resultColumn - nameColumn) + 1];
+      row[nameColumn - firstColumn] = newName.getValue();
+      row[resultColumn - firstColumn] = newResults.get(newName.getKey());
+      values.add(Arrays.asList(row));
+    }
+    int appendedRow = Sheet.appendRows(values, CellRange
+        .of(sheetName, firstColumn, index.startRow, Math.max(nameColumn, resultColumn), CellRange.TO_END).toA1(),
+        sheetID);
+    if (appendedRow < 0)
+      return null;
+    int allocatedRow = newNames.firstKey();
+    if (appendedRow < allocatedRow)
+      // The rows are inserted above the known tests (Ex: at a blank row between
+      // the tests) and have moved them down, the sheet is read again
+      testNameIndexes.remove(sheetName, index);
+    else
+      index.moveRows(allocatedRow, appendedRow - allocatedRow);
+    return appendedRow - allocatedRow;
+  }
+
+  /**
+   * write the test result to the sheet
+   * 
+   * @param tcName    The test name
+   * @param tcResult  The test result
+   * @param sheetName The sheet to write the test
+   * @param row       The row index of the test
+   * @param newRow    true to also write the test name
+   */
+  private void writeTestResult(String tcName, String tcResult, String sheetName, int row, boolean newRow) {
+    if (newRow)
+      Sheet.setValue(tcName, CellRange.cell(sheetName, testNameCol, row), sheetID);
+    Sheet.setValue(tcResult, CellRange.cell(sheetName, testResultCol, row), sheetID);
+  }
+
   /**
    * insert the new test result colunm at the default location
    * (testResultCol)
@@ -302,25 +961,19 @@ public class Report {
    * @return true if the column is inserted successful
    */
   public boolean createNewResultCol(String sheetName) {
-    // Record the current formula of the header
-    List<List<Object>> values = null;
-    if (testNameStartRow > 2)
-      values = Sheet.readRange(sheetName, testResultCol, 1, testResultCol, testNameStartRow-2, sheetID);
-
-    // Insert a column
-    Sheet.insertColumn(letterToColumn(testResultCol), sheetName, sheetID);
-    
-
-    // Write down the old formula
-    if (values != null && testNameStartRow > 2)
-      Sheet.setValues(values, sheetName, testResultCol, 1, testResultCol, testNameStartRow-2, sheetID);
+    return SheetMetrics.measure("createNewResultCol", () -> insertResultCol(sheetName));
+  }
 
-    // Add the column label
+  private boolean insertResultCol(String sheetName) {
+    // Insert a column, keep the formula of the header and add the column label
+    // in one request
     LocalDateTime now = LocalDateTime.now();
     String colHeader = now.format(DATETIME_FORMATTER);
-    Sheet.setValue(colHeader, sheetName + "!" + testResultCol + (testNameStartRow - 1) + ":"
-        + testResultCol + (testNameStartRow - 1), sheetID);
-    return false;
+    boolean inserted = Sheet.insertColumnWithHeader(CellRef.letterToColumn(testResultCol),
+        Math.max(0, testNameStartRow - 2), testNameStartRow - 1, colHeader, sheetName, sheetID);
+    if (inserted)
+      newResultColInserted(sheetName);
+    return inserted;
   }
 
   /**
@@ -332,15 +985,91 @@ public class Report {
    * @return true if the column is inserted successful
    */
   public boolean createNewResultColTitle(String title, String sheetName) {
-    // Insert a column
-    Sheet.insertColumn(letterToColumn(testResultCol), sheetName, sheetID);
+    return SheetMetrics.measure("createNewResultColTitle", () -> insertResultColTitle(title, sheetName));
+  }
 
-    // Add the column label
+  private boolean insertResultColTitle(String title, String sheetName) {
+    // Insert a column and add the column label in one request
     LocalDateTime now = LocalDateTime.now();
     String colHeader = title + "-" + now.format(DATETIME_FORMATTER);
-    Sheet.setValue(colHeader, sheetName + "!" + testResultCol + (testNameStartRow - 1) + ":"
-        + testResultCol + (testNameStartRow - 1), sheetID);
-    return false;
+    boolean inserted = Sheet.insertColumnWithHeader(CellRef.letterToColumn(testResultCol), 0, testNameStartRow - 1,
+        colHeader, sheetName, sheetID);
+    if (inserted)
+      newResultColInserted(sheetName);
+    return inserted;
+  }
+
+  /**
+   * clear the results of the previous run and archive the old result columns
+   * when the auto archive is set
+   * 
+   * @param sheetName The sheet which the result column is inserted
+   */
+  private void newResultColInserted(String sheetName) {
+    clearIndexedResults(sheetName);
+    int keep = keepResultCols;
+    // The archive does not fail the new result column
+    if (keep > 0)
+      archiveResultCols(keep, sheetName);
+  }
+
+  /**
+   * move the result columns after the newest keepResultCols ones to the archive
+   * sheet (the sheet name with archiveSheetSuffix) in one
+   * spreadsheets.batchUpdate. The result columns are the columns from
+   * testResultCol which have a label in the row above testNameStartRow. Each
+   * archive has one block by call from the newest to the oldest: the columns
+   * before testResultCol (Ex: the test names) and the archived results, with
+   * their header formulas
+   * 
+   * @param keepResultCols the number of the newest result columns to keep
+   * @param sheetName      The sheet to archive the results
+   * @return the number of the archived columns ; -1 if failed
+   */
+  public int archiveResultCols(int keepResultCols, String sheetName) {
+    return SheetMetrics.measure("archiveResultCols", () -> moveOldResultCols(keepResultCols, sheetName));
+  }
+
+  private int moveOldResultCols(int keep, String sheetName) {
+    int resultCol = CellRef.letterToColumn(testResultCol);
+    int labelRow = testNameStartRow - 1;
+    if (keep < 0 || labelRow < 1 || CellRef.letterToColumn(testNameCol) > resultCol) {
+      Logger.getLogger(CLASSNAME).log(Level.WARNING,
+          "The result columns can not be archived: the labels or the test names are not before the results");
+      return -1;
+    }
+    int columnCount = Sheet.getColumnCount(sheetName, sheetID);
+    if (columnCount < 0)
+      return -1;
+    if (columnCount <= resultCol + keep)
+      return 0;
+    // The result columns are the labeled columns from testResultCol
+    List<List<Object>> labels = Sheet.readRange(CellRange.of(sheetName, resultCol, labelRow, columnCount - 1, labelRow),
+        LABEL_OPTIONS, sheetID);
+    int resultCols = 0;
+    while (resultCol + resultCols < columnCount && !StringUtils.isEmpty(ListUtils.getValue(labels, 0, resultCols)))
+      resultCols++;
+    if (resultCols <= keep)
+      return 0;
+    if (!Sheet.archiveColumns(resultCol + keep, resultCol + resultCols, resultCol, sheetName,
+        sheetName + archiveSheetSuffix, sheetID))
+      return -1;
+    if (keep == 0)
+      clearIndexedResults(sheetName);
+    return resultCols - keep;
+  }
+
+  /**
+   * the new result column is empty, so the indexed rows do not have result
+   * anymore and the results of the previous run are not counted
+   * 
+   * @param sheetName The sheet which the result column is inserted
+   */
+  private void clearIndexedResults(String sheetName) {
+    TestNameIndex index = testNameIndexes.get(sheetName);
+    if (index != null)
+      index.clearResults();
+    testResults.remove(sheetName);
   }
 
   /**
@@ -354,11 +1083,101 @@ public class Report {
     // Add the column label
     LocalDateTime now = LocalDateTime.now();
     String colHeader = title + "-" + now.format(DATETIME_FORMATTER);
-    Sheet.setValue(colHeader, sheetName + "!" + testResultCol + (testNameStartRow - 1) + ":"
-        + testResultCol + (testNameStartRow - 1), sheetID);
+    SheetMetrics.measure("overwriteResultColHeader",
+        () -> Sheet.setValue(colHeader, CellRange.cell(sheetName, testResultCol, testNameStartRow - 1), sheetID));
+  }
+
+  /**
+   * compute the pass rate, the flips, the streak and the first failure of each
+   * test over the last result columns in memory. The names, the results and the
+   * labels of the result columns are read in one values.batchGet, the tests are
+   * computed in parallel by TestHistory
+   * 
+   * @param lastRuns  the number of the newest result columns to read
+   * @param sheetName The sheet of the results
+   * @return the history of each test in the order of the rows, empty if failed
+   */
+  public List<TestStats> analyzeResults(int lastRuns, String sheetName) {
+    List<TestStats> stats = SheetMetrics.measure("analyzeResults", () -> readHistory(lastRuns, sheetName));
+    return (stats == null) ? new ArrayList<>() : stats;
+  }
+
+  /**
+   * compute the history of each test over the last result columns and write it
+   * to the summary sheet in one spreadsheets.batchUpdate: one row by test, the
+   * previous summary is replaced and the summary sheet is created if it does not
+   * exist. The summary has values only, so the spreadsheet does not recalculate
+   * the history after each result
+   * 
+   * @param lastRuns         the number of the newest result columns to read
+   * @param sheetName        The sheet of the results
+   * @param summarySheetName The sheet to write the summary
+   * @return true if the summary is written
+   */
+  public boolean writeResultSummary(int lastRuns, String sheetName, String summarySheetName) {
+    return SheetMetrics.measure("writeResultSummary", () -> {
+      List<TestStats> stats = readHistory(lastRuns, sheetName);
+      if (stats == null)
+        return false;
+      List<List<Object>> rows = new ArrayList<>(stats.size() + 1);
+      rows.add(TestStats.HEADER);
+      for (TestStats test : stats)
+        rows.add(test.toRow());
+      return Sheet.replaceValues(rows, summarySheetName, sheetID);
+    });
+  }
+
+  /**
+   * @return the history of each test ; null if the sheet could not be read
+   */
+  private List<TestStats> readHistory(int lastRuns, String sheetName) {
+    if (lastRuns < 1)
+      throw new IllegalArgumentException("Invalid number of runs: " + lastRuns);
+    int resultCol = CellRef.letterToColumn(testResultCol);
+    int columnCount = Sheet.getColumnCount(sheetName, sheetID);
+    if (columnCount < 0)
+      return null;
+    if (columnCount <= resultCol)
+      return new ArrayList<>();
+    int endCol = Math.min(resultCol + lastRuns, columnCount) - 1;
+    int labelRow = testNameStartRow - 1;
+    List<String> ranges = new ArrayList<>(3);
+    ranges.add(CellRange.column(sheetName, testNameCol, testNameStartRow).toA1());
+    ranges.add(CellRange.of(sheetName, resultCol, testNameStartRow, endCol, CellRange.TO_END).toA1());
+    if (labelRow >= 1)
+      ranges.add(CellRange.of(sheetName, resultCol, labelRow, endCol, labelRow).toA1());
+    List<List<List<Object>>> values = Sheet.readRanges(ranges, SCAN_OPTIONS, sheetID);
+    if (values.size() < ranges.size())
+      return null;
+    // The blank ranges have no values
+    List<Object> names = ListUtils.isEmpty(values.get(0)) ? new ArrayList<>() : values.get(0).get(0);
+    List<List<Object>> runs = (values.get(1) == null) ? new ArrayList<>() : values.get(1);
+    // The result columns are the labeled columns from testResultCol, the
+    // columns are named by their letter when there is no label row
+    List<String> labels = new ArrayList<>();
+    for (int column = resultCol; column <= endCol; column++) {
+      String label = (labelRow >= 1) ? ListUtils.getValue(values.get(2), column - resultCol, 0)
+          : CellRef.columnToLetter(column);
+      if (StringUtils.isEmpty(label))
+        break;
+      labels.add(label);
+    }
+    if (runs.size() > labels.size())
+      runs = runs.subList(0, labels.size());
+    return TestHistory.analyze(names, testNameStartRow, runs, labels);
   }
 
-  // Follow help from:
+  /**
+   * convert the column number as before the cell references: 0 is "", 1 is "B"
+   * and 26 is "A"
+   * 
+   * @param column the column number
+   * @return the column letter
+   * @deprecated the numbers are not the ones of letterToColumn, use
+   *             {@link CellRef#columnToLetter(int)} which is zero based ("A" is
+   *             0)
+   */
+  @Deprecated
   public static String columnToLetter(int column) {
     int temp;
     StringBuilder letter = new StringBuilder();
@@ -370,6 +1189,15 @@ public class Report {
     return letter.toString();
   }
 
+  /**
+   * convert the upper case column letter as before the cell references
+   * 
+   * @param letter the upper case column letter (Ex: "C")
+   * @return the zero based column (Ex: 2)
+   * @deprecated use {@link CellRef#letterToColumn(String)} which checks the
+   *             letter and accepts the lower case
+   */
+  @Deprecated
   public static int letterToColumn(String letter) {
     int column = 0;
     double length = letter.length();
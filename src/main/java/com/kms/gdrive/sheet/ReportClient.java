@@ -0,0 +1,286 @@
+package com.kms.gdrive.sheet;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * The client of ReportServer, which the static Report calls use when the server
+ * is set. The calls share a small pool of connections, so the threads of the
+ * test run do not wait for each other's calls. Each connection checks that the
+ * server has the test columns and the start row of this JVM, the calls throw
+ * IllegalStateException once the server rejects them. The calls return null
+ * when the connection can not be opened, nothing is sent, so Report can fall
+ * back to the local calls. Once the call is sent, a failure returns the error
+ * result as the server may have done it
+ */
+class ReportClient {
+  static final String CLASSNAME = "com.kms.gdrive.sheet.ReportClient";
+  static final int CONNECT_TIMEOUT_MILLIS = 5000;
+  static final int READ_TIMEOUT_MILLIS = 120000;
+  static final int MAX_CONNECTIONS = 4;
+
+  private static final String NOT_FOUND = "-1";
+  private static final String FAILED = "false";
+
+  private final String host;
+  private final int port;
+  private final String runId;
+
+  /**
+   * the connections which are not used by a call, the last used first
+   */
+  private final ArrayDeque<Connection> idle = new ArrayDeque<>();
+  private final Semaphore permits = new Semaphore(MAX_CONNECTIONS);
+  private boolean closed = false;
+
+  /**
+   * the reason why the server rejected the test columns and the start row, null
+   * until rejected
+   */
+  private volatile String configRejection = null;
+
+  /**
+   * Constructor for ReportClient
+   *
+   * @param host  the host of the server
+   * @param port  the port of the server
+   * @param runId the id of the run which is shared by all the shards, the new
+   *              result column is inserted once per run ; null to insert it on
+   *              each call
+   */
+  ReportClient(String host, int port, String runId) {
+    this.host = host;
+    this.port = port;
+    this.runId = runId;
+  }
+
+  Integer findTestByName(String tcName, String sheetName, String sheetID, boolean allowExistingResult) {
+    return toInteger(
+        call(NOT_FOUND, ReportProtocol.FIND, sheetID, sheetName, tcName, Boolean.toString(allowExistingResult)));
+  }
+
+  Integer updateTestResultByName(String tcName, String tcResult, String sheetName, String sheetID,
+      boolean overWriteResult) {
+    return toInteger(call(NOT_FOUND, ReportProtocol.UPDATE_BY_NAME, sheetID, sheetName, tcName, tcResult,
+        Boolean.toString(overWriteResult)));
+  }
+
+  Integer updateTestResultInExistingResult(String tcName, String tcResult, String sheetName, String sheetID) {
+    return toInteger(call(NOT_FOUND, ReportProtocol.UPDATE_EXISTING, sheetID, sheetName, tcName, tcResult));
+  }
+
+  int[] updateTestResults(List<? extends Map.Entry<String, String>> results, String sheetName, String sheetID,
+      Report.UpdateMode mode) {
+    List<String> fields = new ArrayList<>(4 + results.size() * 2);
+    fields.addAll(Arrays.asList(ReportProtocol.UPDATE_RESULTS, sheetID, sheetName, mode.name()));
+    for (Map.Entry<String, String> result : results) {
+      fields.add(result.getKey());
+      fields.add(result.getValue());
+    }
+    int[] failedRows = new int[results.size()];
+    Arrays.fill(failedRows, -1);
+    String rows = call(ReportProtocol.encodeRows(failedRows), fields);
+    return (rows == null) ? null : ReportProtocol.decodeRows(rows);
+  }
+
+  Boolean overwriteResultColHeader(String title, String sheetName, String sheetID) {
+    return toBoolean(call(FAILED, ReportProtocol.HEADER, sheetID, sheetName, title));
+  }
+
+  /**
+   * @return the result of the server, never null: the column is not inserted
+   *         locally as the other shards would insert it too
+   */
+  Boolean createNewResultCol(String sheetName, String sheetID) {
+    return toBoolean(call(FAILED, false, Arrays.asList(ReportProtocol.NEW_COL, sheetID, sheetName, runId)));
+  }
+
+  /**
+   * @return the result of the server, never null: the column is not inserted
+   *         locally as the other shards would insert it too
+   */
+  Boolean createNewResultColTitle(String title, String sheetName, String sheetID) {
+    return toBoolean(
+        call(FAILED, false, Arrays.asList(ReportProtocol.NEW_COL_TITLE, sheetID, sheetName, runId, title)));
+  }
+
+  /**
+   * ask the server to send its pending writes
+   *
+   * @return true if there is nothing left to write ; null if the server can not
+   *         be reached
+   */
+  Boolean flush() {
+    return toBoolean(call(FAILED, ReportProtocol.FLUSH));
+  }
+
+  /**
+   * close the connections, the connections of the running calls are closed when
+   * the calls end
+   */
+  synchronized void close() {
+    closed = true;
+    for (Connection connection : idle)
+      connection.close();
+    idle.clear();
+  }
+
+  private static Integer toInteger(String value) {
+    return (value == null) ? null : Integer.valueOf(value);
+  }
+
+  private static Boolean toBoolean(String value) {
+    return (value == null) ? null : Boolean.valueOf(value);
+  }
+
+  private String call(String errorResult, String... fields) {
+    return call(errorResult, true, Arrays.asList(fields));
+  }
+
+  private String call(String errorResult, List<String> fields) {
+    return call(errorResult, true, fields);
+  }
+
+  /**
+   * send the request on an idle connection and read the response, the calls of
+   * up to MAX_CONNECTIONS threads are sent in parallel
+   *
+   * @param errorResult   the result when the server fails the call or the call
+   *                      is sent but its response is not read
+   * @param localFallback true to return null when the connection can not be
+   *                      opened ; false to return the error result
+   * @param fields        the command and its fields
+   * @return the result ; null if the connection can not be opened and the call
+   *         can be done locally
+   * @throws IllegalStateException when the server rejected the test columns or
+   *                               the start row of this JVM
+   */
+  private String call(String errorResult, boolean localFallback, List<String> fields) {
+    if (configRejection != null)
+      throw new IllegalStateException(configRejection);
+    permits.acquireUninterruptibly();
+    try {
+      Connection connection = takeIdle();
+      if (connection == null)
+        try {
+          connection = connect();
+        } catch (IOException e) {
+          Logger.getLogger(CLASSNAME).log(Level.WARNING, e.getMessage());
+          return localFallback ? null : errorResult;
+        }
+      try {
+        String[] response = connection.send(fields);
+        giveBack(connection);
+        if (ReportProtocol.OK.equals(response[0]))
+          return response[1];
+        // The server has got the call, it is not done again locally
+        Logger.getLogger(CLASSNAME).log(Level.WARNING, response[1]);
+      } catch (IOException e) {
+        // The server may have done the call (Ex: the read timed out), it is not done
+        // again locally
+        Logger.getLogger(CLASSNAME).log(Level.WARNING, e.getMessage());
+        connection.close();
+      }
+      return errorResult;
+    } finally {
+      permits.release();
+    }
+  }
+
+  private synchronized Connection takeIdle() {
+    return idle.pollFirst();
+  }
+
+  private synchronized void giveBack(Connection connection) {
+    if (closed)
+      connection.close();
+    else
+      idle.addFirst(connection);
+  }
+
+  /**
+   * open a connection and check the test columns and the start row with the
+   * server, the connection is not opened when they differ
+   *
+   * @return the connection
+   * @throws IOException           when the connection can not be opened
+   * @throws IllegalStateException when the server rejects the test columns or
+   *                               the start row, the calls would update the
+   *                               wrong cells on the server or locally
+   */
+  private Connection connect() throws IOException {
+    Socket socket = new Socket();
+    try {
+      socket.connect(new InetSocketAddress(host, port), CONNECT_TIMEOUT_MILLIS);
+      socket.setSoTimeout(READ_TIMEOUT_MILLIS);
+      socket.setTcpNoDelay(true);
+      Connection connection = new Connection(socket);
+      String[] response = connection.send(Arrays.asList(ReportProtocol.CONFIG, Report.testNameCol,
+          Report.testResultCol, Integer.toString(Report.testNameStartRow)));
+      if (!ReportProtocol.OK.equals(response[0])) {
+        connection.close();
+        configRejection = "The report server " + host + ":" + port + " rejected the configuration: " + response[1];
+        throw new IllegalStateException(configRejection);
+      }
+      return connection;
+    } catch (IOException e) {
+      socket.close();
+      throw e;
+    }
+  }
+
+  /**
+   * a connection to the server which has accepted the configuration
+   */
+  private static final class Connection {
+    private final Socket socket;
+    private final BufferedReader reader;
+    private final Writer writer;
+
+    Connection(Socket socket) throws IOException {
+      this.socket = socket;
+      reader = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+      writer = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @param fields the command and its fields
+     * @return the status and the result of the response
+     * @throws IOException when the request can not be sent or the response can
+     *                     not be read
+     */
+    String[] send(List<String> fields) throws IOException {
+      writer.write(ReportProtocol.encode(fields));
+      writer.write('\n');
+      writer.flush();
+      String line = reader.readLine();
+      if (line == null)
+        throw new IOException("The report server closed the connection");
+      List<String> response = ReportProtocol.decode(line);
+      return new String[] { response.get(0), (response.size() > 1) ? response.get(1) : "" };
+    }
+
+    void close() {
+      try {
+        socket.close();
+      } catch (IOException e) {
+        Logger.getLogger(CLASSNAME).log(Level.WARNING, e.getMessage());
+      }
+    }
+  }
+}
@@ -0,0 +1,140 @@
+package com.kms.gdrive.sheet;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The line protocol between ReportClient and ReportServer. Each request and
+ * response is one line of the tab separated fields, the tab, the line breaks
+ * and the backslash in the fields are escaped. The response is "OK" and the
+ * result, or "ERR" and the error message
+ */
+final class ReportProtocol {
+  private ReportProtocol() {
+    throw new IllegalStateException("Utility class");
+  }
+
+  static final int DEFAULT_PORT = 47711;
+
+  static final String OK = "OK";
+  static final String ERROR = "ERR";
+
+  // The commands
+  static final String PING = "PING";
+  static final String CONFIG = "CONFIG";
+  static final String FIND = "FIND";
+  static final String UPDATE_BY_NAME = "UPDATE_BY_NAME";
+  static final String UPDATE_EXISTING = "UPDATE_EXISTING";
+  static final String UPDATE_RESULTS = "UPDATE_RESULTS";
+  static final String HEADER = "HEADER";
+  static final String NEW_COL = "NEW_COL";
+  static final String NEW_COL_TITLE = "NEW_COL_TITLE";
+  static final String FLUSH = "FLUSH";
+
+  private static final char SEPARATOR = '\t';
+  private static final String NULL_FIELD = "\\0";
+
+  /**
+   * @param fields the fields of the line, can be null
+   * @return the line without the line break
+   */
+  static String encode(List<String> fields) {
+    StringBuilder line = new StringBuilder();
+    for (int iField = 0; iField < fields.size(); iField++) {
+      if (iField > 0)
+        line.append(SEPARATOR);
+      String field = fields.get(iField);
+      if (field == null) {
+        line.append(NULL_FIELD);
+        continue;
+      }
+      for (int iChar = 0; iChar < field.length(); iChar++) {
+        char c = field.charAt(iChar);
+        switch (c) {
+        case '\\':
+          line.append("\\\\");
+          break;
+        case '\t':
+          line.append("\\t");
+          break;
+        case '\n':
+          line.append("\\n");
+          break;
+        case '\r':
+          line.append("\\r");
+          break;
+        default:
+          line.append(c);
+        }
+      }
+    }
+    return line.toString();
+  }
+
+  /**
+   * @param line the line without the line break
+   * @return the fields of the line
+   */
+  static List<String> decode(String line) {
+    List<String> fields = new ArrayList<>();
+    StringBuilder field = new StringBuilder();
+    boolean nullField = false;
+    for (int iChar = 0; iChar < line.length(); iChar++) {
+      char c = line.charAt(iChar);
+      if (c == SEPARATOR) {
+        fields.add(nullField ? null : field.toString());
+        field.setLength(0);
+        nullField = false;
+      } else if (c == '\\' && iChar + 1 < line.length()) {
+        char escaped = line.charAt(++iChar);
+        switch (escaped) {
+        case 't':
+          field.append('\t');
+          break;
+        case 'n':
+          field.append('\n');
+          break;
+        case 'r':
+          field.append('\r');
+          break;
+        case '0':
+          nullField = true;
+          break;
+        default:
+          field.append(escaped);
+        }
+      } else
+        field.append(c);
+    }
+    fields.add(nullField ? null : field.toString());
+    return fields;
+  }
+
+  /**
+   * @param rows the row indexes
+   * @return the row indexes separated by the comma
+   */
+  static String encodeRows(int[] rows) {
+    StringBuilder line = new StringBuilder();
+    for (int iRow = 0; iRow < rows.length; iRow++) {
+      if (iRow > 0)
+        line.append(',');
+      line.append(rows[iRow]);
+    }
+    return line.toString();
+  }
+
+  /**
+   * @param value the row indexes separated by the comma
+   * @return the row indexes
+   */
+  static int[] decodeRows(String value) {
+    if (value == null || value.isEmpty())
+      return new int[0];
+    String[] items = value.split(",");
+    int[] rows = new int[items.length];
+    for (int iRow = 0; iRow < items.length; iRow++)
+      rows[iRow] = Integer.parseInt(items[iRow]);
+    return rows;
+  }
+}
@@ -0,0 +1,284 @@
+package com.kms.gdrive.sheet;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import com.kms.util.BoundedCache;
+
+/**
+ * The reporting aggregator of the sharded test runs. The test JVMs call Report
+ * through the local socket of this server (see Report.setReportServer), so one
+ * process owns the index and the write-behind buffer of each spreadsheet: the
+ * rows of the shards do not collide, the sheets are scanned once and the writes
+ * of all the shards are sent as the batches
+ *
+ * <pre>
+ * java -cp gsheet-report.jar com.kms.gdrive.sheet.ReportServer [-p port] [-c nameCol resultCol]
+ *     [-r startRow] [-a] [-k keepResultCols] [-w maxPendingWrites flushIntervalMillis]
+ *     [-d credentialDir credentialFile]
+ * </pre>
+ */
+public class ReportServer implements Closeable {
+  public static final String CLASSNAME = "com.kms.gdrive.sheet.ReportServer";
+  public static final int DEFAULT_PORT = ReportProtocol.DEFAULT_PORT;
+  static final int DEFAULT_MAX_PENDING_WRITES = 500;
+  static final long DEFAULT_FLUSH_INTERVAL_MILLIS = 1000;
+  private static final int MAX_RUNS = 1024;
+  private static final long RUN_IDLE_MILLIS = 24 * 60 * 60 * 1000L;
+
+  private final ServerSocket serverSocket;
+  private final ExecutorService connections;
+  private final int maxPendingWrites;
+  private final long flushIntervalMillis;
+
+  /**
+   * the result of the new result column by the sheet and the run, so the column
+   * is inserted once for all the shards of the run. The old runs are dropped
+   */
+  private final BoundedCache<String, Boolean> newResultCols = new BoundedCache<>(MAX_RUNS, RUN_IDLE_MILLIS, null,
+      null);
+
+  /**
+   * Constructor for ReportServer, listening on the loopback address
+   *
+   * @param port                the port to listen, 0 for any free port
+   * @param maxPendingWrites    the pending ranges which trigger the batch write
+   * @param flushIntervalMillis the max time a write stays pending
+   * @throws IOException when the port can not be listened
+   */
+  public ReportServer(int port, int maxPendingWrites, long flushIntervalMillis) throws IOException {
+    this.serverSocket = new ServerSocket(port, 50, InetAddress.getLoopbackAddress());
+    this.maxPendingWrites = maxPendingWrites;
+    this.flushIntervalMillis = flushIntervalMillis;
+    final AtomicInteger threadIndex = new AtomicInteger();
+    this.connections = Executors.newCachedThreadPool(runnable -> {
+      Thread thread = new Thread(runnable, "gsheet-report-server-" + threadIndex.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    });
+  }
+
+  /**
+   * @return the port which the server listens
+   */
+  public int getPort() {
+    return serverSocket.getLocalPort();
+  }
+
+  /**
+   * accept the connections in background
+   */
+  public void start() {
+    Thread acceptor = new Thread(this::acceptLoop, "gsheet-report-server");
+    acceptor.setDaemon(true);
+    acceptor.start();
+  }
+
+  /**
+   * stop accepting the connections and send the pending writes
+   */
+  @Override
+  public void close() throws IOException {
+    serverSocket.close();
+    connections.shutdownNow();
+    Sheet.flushAll();
+  }
+
+  private void acceptLoop() {
+    while (!serverSocket.isClosed())
+      try {
+        Socket socket = serverSocket.accept();
+        connections.execute(() -> serve(socket));
+      } catch (SocketException e) {
+        // The server is closed
+      } catch (IOException e) {
+        Logger.getLogger(CLASSNAME).log(Level.WARNING, e.getMessage());
+      }
+  }
+
+  private void serve(Socket socket) {
+    try (Socket client = socket;
+        BufferedReader reader = new BufferedReader(
+            new InputStreamReader(client.getInputStream(), StandardCharsets.UTF_8));
+        Writer writer = new BufferedWriter(
+            new OutputStreamWriter(client.getOutputStream(), StandardCharsets.UTF_8))) {
+      client.setTcpNoDelay(true);
+      String line;
+      while ((line = reader.readLine()) != null) {
+        List<String> response;
+        try {
+          response = Arrays.asList(ReportProtocol.OK, handle(ReportProtocol.decode(line)));
+        } catch (RuntimeException e) {
+          Logger.getLogger(CLASSNAME).log(Level.WARNING, e.toString());
+          response = Arrays.asList(ReportProtocol.ERROR, e.toString());
+        }
+        writer.write(ReportProtocol.encode(response));
+        writer.write('\n');
+        writer.flush();
+      }
+    } catch (IOException e) {
+      Logger.getLogger(CLASSNAME).log(Level.WARNING, e.getMessage());
+    }
+  }
+
+  /**
+   * run the call of the client
+   *
+   * @param request the command and its fields
+   * @return the result
+   */
+  String handle(List<String> request) {
+    String command = request.get(0);
+    if (ReportProtocol.PING.equals(command))
+      return "";
+    if (ReportProtocol.FLUSH.equals(command))
+      return Boolean.toString(Sheet.flushAll());
+    if (ReportProtocol.CONFIG.equals(command))
+      return checkConfig(request.get(1), request.get(2), Integer.parseInt(request.get(3)));
+    String sheetID = request.get(1);
+    String sheetName = request.get(2);
+    // The Sheet may be created again after an eviction, so the write-behind is
+    // checked at each call
+    Sheet.ensureWriteBehind(maxPendingWrites, flushIntervalMillis, sheetID);
+    // The calls are done on the local Report, not through the report server
+    Report report = Report.getReport(sheetID);
+    switch (command) {
+    case ReportProtocol.FIND:
+      return Integer.toString(report.findTestByName(request.get(3), sheetName, Boolean.parseBoolean(request.get(4))));
+    case ReportProtocol.UPDATE_BY_NAME:
+      return Integer.toString(report.updateTestResultByName(request.get(3), request.get(4), sheetName,
+          Boolean.parseBoolean(request.get(5))));
+    case ReportProtocol.UPDATE_EXISTING:
+      return Integer.toString(report.updateTestResultInExistingResult(request.get(3), request.get(4), sheetName));
+    case ReportProtocol.UPDATE_RESULTS:
+      List<Map.Entry<String, String>> results = new ArrayList<>((request.size() - 4) / 2);
+      for (int iField = 4; iField + 1 < request.size(); iField += 2)
+        results.add(new AbstractMap.SimpleEntry<>(request.get(iField), request.get(iField + 1)));
+      return ReportProtocol
+          .encodeRows(report.updateTestResults(results, sheetName, Report.UpdateMode.valueOf(request.get(3))));
+    case ReportProtocol.HEADER:
+      report.overwriteResultColHeader(request.get(3), sheetName);
+      return Boolean.TRUE.toString();
+    case ReportProtocol.NEW_COL:
+      return Boolean
+          .toString(insertOncePerRun(sheetID, sheetName, request.get(3), () -> report.createNewResultCol(sheetName)));
+    case ReportProtocol.NEW_COL_TITLE:
+      return Boolean.toString(insertOncePerRun(sheetID, sheetName, request.get(3),
+          () -> report.createNewResultColTitle(request.get(4), sheetName)));
+    default:
+      throw new IllegalArgumentException("Unknown command: " + command);
+    }
+  }
+
+  /**
+   * check that the client has the test columns and the start row of the server,
+   * the rows which the server finds are the rows of these columns
+   *
+   * @param testNameCol      the name column of the client
+   * @param testResultCol    the result column of the client
+   * @param testNameStartRow the start row of the client
+   * @return the empty result when they are the same
+   */
+  private static String checkConfig(String testNameCol, String testResultCol, int testNameStartRow) {
+    if (!Report.testNameCol.equalsIgnoreCase(testNameCol) || !Report.testResultCol.equalsIgnoreCase(testResultCol)
+        || Report.testNameStartRow != testNameStartRow)
+      throw new IllegalArgumentException("The report server uses the test columns " + Report.testNameCol + " and "
+          + Report.testResultCol + " from the row " + Report.testNameStartRow + ", not " + testNameCol + " and "
+          + testResultCol + " from the row " + testNameStartRow);
+    return "";
+  }
+
+  /**
+   * insert the result column once for the run, the other shards get the result
+   * of the first insert
+   */
+  private boolean insertOncePerRun(String sheetID, String sheetName, String runId,
+      BooleanSupplier insert) {
+    if (runId == null || runId.isEmpty())
+      return insert.getAsBoolean();
+    String key = sheetID + "!" + sheetName + "!" + runId;
+    Boolean inserted = newResultCols.get(key, runKey -> insert.getAsBoolean());
+    // A failed insert can be tried again by the next shard
+    if (!inserted)
+      newResultCols.remove(key);
+    return inserted;
+  }
+
+  /**
+   * run the server until the JVM is stopped
+   *
+   * @param args [-p port] [-c nameCol resultCol] [-r startRow] [-a] [-k
+   *             keepResultCols] [-w maxPendingWrites flushIntervalMillis] [-d
+   *             credentialDir credentialFile], -a to append the new tests, -k to
+   *             archive the result columns after the newest keepResultCols
+   * @throws IOException when the port can not be listened
+   */
+  public static void main(String[] args) throws IOException {
+    int port = DEFAULT_PORT;
+    int maxPendingWrites = DEFAULT_MAX_PENDING_WRITES;
+    long flushIntervalMillis = DEFAULT_FLUSH_INTERVAL_MILLIS;
+    for (int iArg = 0; iArg < args.length; iArg++)
+      switch (args[iArg]) {
+      case "-p":
+        port = Integer.parseInt(args[++iArg]);
+        break;
+      case "-c":
+        Report.setTestCols(args[iArg + 1], args[iArg + 2]);
+        iArg += 2;
+        break;
+      case "-r":
+        Report.setTestNameStartRow(Integer.parseInt(args[++iArg]));
+        break;
+      case "-a":
+        Report.setAppendNewRows(true);
+        break;
+      case "-k":
+        Report.setAutoArchive(Integer.parseInt(args[++iArg]), null);
+        break;
+      case "-w":
+        maxPendingWrites = Integer.parseInt(args[iArg + 1]);
+        flushIntervalMillis = Long.parseLong(args[iArg + 2]);
+        iArg += 2;
+        break;
+      case "-d":
+        Sheet.setCredentialDir(args[iArg + 1], args[iArg + 2]);
+        iArg += 2;
+        break;
+      default:
+        throw new IllegalArgumentException("Unknown option: " + args[iArg]);
+      }
+
+    ReportServer server = new ReportServer(port, maxPendingWrites, flushIntervalMillis);
+    Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+      try {
+        server.close();
+      } catch (IOException e) {
+        Logger.getLogger(CLASSNAME).log(Level.WARNING, e.getMessage());
+      }
+    }, "gsheet-report-server-shutdown"));
+    Logger.getLogger(CLASSNAME).log(Level.INFO, "Report server is listening on port {0}",
+        Integer.toString(server.getPort()));
+    server.acceptLoop();
+  }
+}
@@ -0,0 +1,240 @@
+package com.kms.gdrive.sheet;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.google.api.client.http.HttpResponseException;
+import com.kms.util.TokenBucket;
+
+/**
+ * Every Google API call of Sheet goes through this scheduler. The calls are
+ * limited by a token bucket for the user and one for each spreadsheet, and the
+ * calls which fail with 429 or 5xx are retried with jittered exponential backoff
+ */
+public class RequestScheduler {
+  private RequestScheduler() {
+    throw new IllegalStateException("Utility class");
+  }
+
+  /**
+   * the Google API call
+   *
+   * @param <T> the response type
+   */
+  @FunctionalInterface
+  interface ApiCall<T> {
+    T execute() throws IOException;
+  }
+
+  static final int HTTP_TOO_MANY_REQUESTS = 429;
+  static final int HTTP_SERVER_ERROR = 500;
+
+  private static volatile double sheetRequestsPerMinute = 0;
+  private static volatile int burst = 10;
+  private static volatile TokenBucket userBucket = new TokenBucket(60, 10);
+  private static final ConcurrentHashMap<String, TokenBucket> sheetBuckets = new ConcurrentHashMap<>();
+
+  private static volatile int maxRetries = 6;
+  private static volatile long initialBackoffMillis = 1000;
+  private static volatile long maxBackoffMillis = 64000;
+
+  private static final AtomicInteger queueDepth = new AtomicInteger();
+  private static final AtomicLong requestCount = new AtomicLong();
+  private static final AtomicLong throttleCount = new AtomicLong();
+  private static final AtomicLong retryCount = new AtomicLong();
+  private static final AtomicLong failureCount = new AtomicLong();
+
+  /**
+   * set the rate limits, 0 for no limit
+   *
+   * @param userRequestsPerMinute  the max requests of the user, default is 60
+   *                               as the Sheets quota
+   * @param sheetRequestsPerMinute the max requests of each spreadsheet, default
+   *                               is no limit
+   * @param burst                  the requests which can be sent at once,
+   *                               default is 10
+   */
+  public static void setRateLimits(double userRequestsPerMinute, double sheetRequestsPerMinute, int burst) {
+    RequestScheduler.burst = burst;
+    RequestScheduler.sheetRequestsPerMinute = sheetRequestsPerMinute;
+    userBucket = new TokenBucket(userRequestsPerMinute, burst);
+    sheetBuckets.clear();
+  }
+
+  /**
+   * set the retry of the 429 and 5xx responses
+   *
+   * @param maxRetries           the max retries of a request, default is 6
+   * @param initialBackoffMillis the backoff of the first retry, default is 1000
+   * @param maxBackoffMillis     the max backoff, default is 64000
+   */
+  public static void setRetryPolicy(int maxRetries, long initialBackoffMillis, long maxBackoffMillis) {
+    RequestScheduler.maxRetries = maxRetries;
+    RequestScheduler.initialBackoffMillis = initialBackoffMillis;
+    RequestScheduler.maxBackoffMillis = maxBackoffMillis;
+  }
+
+  /**
+   * @return the number of calls which are waiting for the rate limit or the
+   *         backoff
+   */
+  public static int getQueueDepth() {
+    return queueDepth.get();
+  }
+
+  /**
+   * @return the number of the sent requests, including the retries
+   */
+  public static long getRequestCount() {
+    return requestCount.get();
+  }
+
+  /**
+   * @return the number of the 429 responses
+   */
+  public static long getThrottleCount() {
+    return throttleCount.get();
+  }
+
+  /**
+   * @return the number of the retries
+   */
+  public static long getRetryCount() {
+    return retryCount.get();
+  }
+
+  /**
+   * @return the number of the calls which failed after the retries
+   */
+  public static long getFailureCount() {
+    return failureCount.get();
+  }
+
+  /**
+   * execute the idempotent call when the rate limits allow, retrying the 429 and
+   * 5xx responses
+   *
+   * @param <T>       the response type
+   * @param sheetID   The sheetID which can get from the google sheet URL
+   * @param operation the API operation for the metrics, see SheetMetrics.OP_*
+   * @param call      the Google API call, which can be sent again
+   * @return the response
+   * @throws IOException when the call fails after the retries
+   */
+  static <T> T execute(String sheetID, String operation, ApiCall<T> call) throws IOException {
+    return execute(sheetID, operation, true, call);
+  }
+
+  /**
+   * execute the call when the rate limits allow, retrying the 429 responses and,
+   * for the idempotent call, the 5xx responses. The server may have applied the
+   * call which gets a 5xx, so the call which adds rows or changes the structure
+   * of the spreadsheet is not sent again
+   *
+   * @param <T>        the response type
+   * @param sheetID    The sheetID which can get from the google sheet URL
+   * @param operation  the API operation for the metrics, see SheetMetrics.OP_*
+   * @param idempotent true if the call has the same result when it is sent
+   *                   twice (Ex: a get or a values.update)
+   * @param call       the Google API call
+   * @return the response
+   * @throws IOException when the call fails after the retries
+   */
+  static <T> T execute(String sheetID, String operation, boolean idempotent, ApiCall<T> call) throws IOException {
+    OperationMetrics metrics = SheetMetrics.apiOperation(operation);
+    for (int attempt = 0;; attempt++) {
+      waitForPermits(sheetID);
+      OperationMetrics previous = SheetMetrics.beginRequest(metrics);
+      long start = System.nanoTime();
+      try {
+        requestCount.incrementAndGet();
+        T response = call.execute();
+        SheetMetrics.recordRequest(metrics, sheetID, System.nanoTime() - start, SheetMetrics.HTTP_OK);
+        return response;
+      } catch (HttpResponseException e) {
+        SheetMetrics.recordRequest(metrics, sheetID, System.nanoTime() - start, e.getStatusCode());
+        if (!isRetryable(e.getStatusCode(), idempotent) || attempt >= maxRetries) {
+          failureCount.incrementAndGet();
+          metrics.failures.increment();
+          throw e;
+        }
+        boolean throttled = e.getStatusCode() == HTTP_TOO_MANY_REQUESTS;
+        if (throttled)
+          throttleCount.incrementAndGet();
+        retryCount.incrementAndGet();
+        SheetMetrics.recordRetry(metrics, throttled);
+      } catch (IOException e) {
+        SheetMetrics.recordRequest(metrics, sheetID, System.nanoTime() - start, SheetMetrics.NO_RESPONSE);
+        failureCount.incrementAndGet();
+        metrics.failures.increment();
+        throw e;
+      } finally {
+        SheetMetrics.endRequest(previous);
+      }
+      backoff(attempt);
+    }
+  }
+
+  /**
+   * drop the rate limit of the spreadsheet which is closed, it starts with the
+   * full burst when the spreadsheet is used again
+   *
+   * @param sheetID The sheetID which can get from the google sheet URL
+   */
+  static void release(String sheetID) {
+    sheetBuckets.remove(sheetID);
+  }
+
+  /**
+   * @param statusCode the HTTP status of the response
+   * @return true if the call can be sent again: the request is throttled or the
+   *         server failed
+   */
+  static boolean isRetryable(int statusCode) {
+    return isRetryable(statusCode, true);
+  }
+
+  /**
+   * @param statusCode the HTTP status of the response
+   * @param idempotent true if the call has the same result when it is sent twice
+   * @return true if the call can be sent again: the request is throttled (429),
+   *         it was not applied ; or the server failed and the call is idempotent
+   */
+  static boolean isRetryable(int statusCode, boolean idempotent) {
+    return statusCode == HTTP_TOO_MANY_REQUESTS || (idempotent && statusCode >= HTTP_SERVER_ERROR);
+  }
+
+  private static void waitForPermits(String sheetID) throws InterruptedIOException {
+    TokenBucket sheetBucket = sheetBuckets.computeIfAbsent(sheetID,
+        key -> new TokenBucket(sheetRequestsPerMinute, burst));
+    queueDepth.incrementAndGet();
+    try {
+      sheetBucket.acquire();
+      userBucket.acquire();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException(e.getMessage());
+    } finally {
+      queueDepth.decrementAndGet();
+    }
+  }
+
+  private static void backoff(int attempt) throws InterruptedIOException {
+    long ceiling = Math.min(maxBackoffMillis, initialBackoffMillis << Math.min(attempt, 20));
+    // Equal jitter: sleep between half and the whole backoff
+    long sleepMillis = ceiling / 2 + ThreadLocalRandom.current().nextLong(ceiling / 2 + 1);
+    queueDepth.incrementAndGet();
+    try {
+      Thread.sleep(sleepMillis);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException(e.getMessage());
+    } finally {
+      queueDepth.decrementAndGet();
+    }
+  }
+}
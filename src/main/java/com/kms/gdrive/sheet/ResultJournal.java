@@ -0,0 +1,486 @@
+package com.kms.gdrive.sheet;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.zip.CRC32;
+
+import com.google.api.services.sheets.v4.model.ValueRange;
+
+/**
+ * Append-only local journal of the cell writes of a Sheet. A write is appended
+ * to a memory-mapped segment file and returns, a background thread replays the
+ * journal to the spreadsheet as values.batchUpdate and saves its position in
+ * the checkpoint file. The writes which are not replayed when the JVM stops are
+ * replayed when the journal is opened again, so each write is delivered at
+ * least once
+ */
+class ResultJournal {
+  static final String CLASSNAME = "com.kms.gdrive.sheet.ResultJournal";
+  static final long DEFAULT_SEGMENT_SIZE = 8L << 20;
+  static final int MAX_BATCH_WRITES = 500;
+  static final long MAX_RETRY_DELAY_MILLIS = 60000;
+
+  private static final String SEGMENT_PREFIX = "journal-";
+  private static final String SEGMENT_SUFFIX = ".log";
+  private static final String CHECKPOINT_FILE = "checkpoint";
+  private static final String LOCK_FILE = "lock";
+
+  /**
+   * the record header: the payload length and the payload CRC32
+   */
+  private static final int HEADER_SIZE = 8;
+  private static final byte CELL_NULL = 0;
+  private static final byte CELL_STRING = 1;
+
+  /**
+   * all the open journals, which are flushed by the shutdown hook
+   */
+  private static final Set<ResultJournal> JOURNALS = Collections.newSetFromMap(new ConcurrentHashMap<>());
+
+  static {
+    Runtime.getRuntime().addShutdownHook(new Thread(ResultJournal::flushAll, "gsheet-journal-shutdown"));
+  }
+
+  /**
+   * replay all the journals
+   *
+   * @return true if there is nothing left to replay
+   */
+  static boolean flushAll() {
+    boolean replayed = true;
+    for (ResultJournal journal : JOURNALS)
+      replayed &= journal.flush();
+    return replayed;
+  }
+
+  /**
+   * a journaled write which is not replayed yet, with the journal position
+   * after it
+   */
+  private static final class Entry {
+    final String range;
+    final List<List<Object>> values;
+    final long segment;
+    final int endOffset;
+
+    Entry(String range, List<List<Object>> values, long segment, int endOffset) {
+      this.range = range;
+      this.values = values;
+      this.segment = segment;
+      this.endOffset = endOffset;
+    }
+  }
+
+  private final Sheet sheet;
+  private final Path directory;
+  private final long segmentSize;
+  private final FileChannel lockChannel;
+  private final FileLock lock;
+
+  /**
+   * the segment which the writes are appended to
+   */
+  private long segment;
+  private MappedByteBuffer segmentBuffer;
+
+  /**
+   * the writes which are not replayed yet, in the journal order
+   */
+  private final ArrayDeque<Entry> pending = new ArrayDeque<>();
+
+  /**
+   * the oldest segment which is not deleted yet
+   */
+  private long oldestSegment;
+
+  /**
+   * keep the batches in order when the replayer and flush() replay together
+   */
+  private final Object replayLock = new Object();
+  private final Thread replayer;
+  private volatile boolean closed = false;
+
+  /**
+   * open the journal, the writes which are not replayed by the previous process
+   * are replayed first
+   *
+   * @param sheet       the Sheet to replay the writes
+   * @param directory   the directory of the journal, only one process can open
+   *                    it
+   * @param segmentSize the size of each segment file
+   * @throws IOException when the journal can not be opened or recovered
+   */
+  ResultJournal(Sheet sheet, Path directory, long segmentSize) throws IOException {
+    this.sheet = sheet;
+    this.directory = directory;
+    this.segmentSize = segmentSize;
+    Files.createDirectories(directory);
+    lockChannel = FileChannel.open(directory.resolve(LOCK_FILE), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+    lock = lockChannel.tryLock();
+    if (lock == null) {
+      lockChannel.close();
+      throw new IOException("The journal is used by another process: " + directory);
+    }
+    try {
+      TreeMap<Long, Path> segments = listSegments();
+      long[] checkpoint = readCheckpoint();
+      for (Map.Entry<Long, Path> segmentFile : segments.entrySet())
+        if (segmentFile.getKey() < checkpoint[0])
+          deleteSegment(segmentFile.getValue());
+        else
+          recover(segmentFile.getKey(), segmentFile.getValue(),
+              (segmentFile.getKey() == checkpoint[0]) ? (int) checkpoint[1] : 0);
+      // Append to a new segment, the tail of the last one can be torn
+      segment = segments.isEmpty() ? checkpoint[0] + 1 : Math.max(checkpoint[0], segments.lastKey()) + 1;
+      oldestSegment = segment;
+      if (pending.isEmpty())
+        for (Path segmentFile : segments.values())
+          deleteSegment(segmentFile);
+      else
+        oldestSegment = Math.max(checkpoint[0], segments.firstKey());
+      segmentBuffer = mapSegment(segment, segmentSize);
+    } catch (IOException e) {
+      lock.release();
+      lockChannel.close();
+      throw e;
+    }
+    replayer = new Thread(this::replayLoop, "gsheet-journal-" + directory.getFileName());
+    replayer.setDaemon(true);
+    replayer.start();
+    JOURNALS.add(this);
+  }
+
+  /**
+   * append the write to the journal, the replayer sends it later
+   *
+   * @param writeRange The range to write
+   * @param values     the values to write, the cells are journaled as String
+   * @throws IOException when the write can not be journaled
+   */
+  void append(String writeRange, List<List<Object>> values) throws IOException {
+    byte[] payload = encode(writeRange, values);
+    CRC32 crc = new CRC32();
+    crc.update(payload);
+    synchronized (this) {
+      if (closed)
+        throw new IOException("The journal is closed: " + directory);
+      if (segmentBuffer.remaining() < HEADER_SIZE + payload.length) {
+        segment++;
+        segmentBuffer = mapSegment(segment, Math.max(segmentSize, HEADER_SIZE + payload.length + HEADER_SIZE));
+      }
+      // The length goes last, so a torn record is read as the end of the journal
+      int start = segmentBuffer.position();
+      segmentBuffer.position(start + Integer.BYTES);
+      segmentBuffer.putInt((int) crc.getValue());
+      segmentBuffer.put(payload);
+      segmentBuffer.putInt(start, payload.length);
+      pending.add(new Entry(writeRange, values, segment, segmentBuffer.position()));
+      notifyAll();
+    }
+  }
+
+  /**
+   * @return the number of the writes which are not replayed yet
+   */
+  synchronized int size() {
+    return pending.size();
+  }
+
+  /**
+   * replay all the journaled writes now
+   *
+   * @return true if there is nothing left to replay
+   */
+  boolean flush() {
+    while (true) {
+      int replayed = replay();
+      if (replayed < 0)
+        return false;
+      if (replayed == 0)
+        return true;
+    }
+  }
+
+  /**
+   * stop the replayer, replay the journal and release it. The writes which are
+   * not replayed stay in the journal for the next open
+   */
+  void close() {
+    synchronized (this) {
+      closed = true;
+      notifyAll();
+    }
+    // No write is replayed after the close, Ex: by another process which opens
+    // the journal next
+    try {
+      replayer.join();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    flush();
+    JOURNALS.remove(this);
+    synchronized (this) {
+      segmentBuffer.force();
+    }
+    try {
+      lock.release();
+      lockChannel.close();
+    } catch (IOException e) {
+      Logger.getLogger(CLASSNAME).log(Level.WARNING, e.getMessage());
+    }
+  }
+
+  private void replayLoop() {
+    long retryDelayMillis = 0;
+    while (!closed) {
+      synchronized (this) {
+        while (pending.isEmpty() && !closed)
+          try {
+            wait();
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+          }
+      }
+      if (replay() >= 0) {
+        retryDelayMillis = 0;
+        continue;
+      }
+      // The spreadsheet is not reachable, the writes stay in the journal
+      retryDelayMillis = Math.min(MAX_RETRY_DELAY_MILLIS, Math.max(1000, retryDelayMillis * 2));
+      // The new writes do not shorten the delay, close() does
+      long retryAt = System.currentTimeMillis() + retryDelayMillis;
+      synchronized (this) {
+        try {
+          for (long delay = retryDelayMillis; delay > 0 && !closed; delay = retryAt - System.currentTimeMillis())
+            wait(delay);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          return;
+        }
+      }
+    }
+  }
+
+  /**
+   * send the oldest pending writes as one values.batchUpdate and save the
+   * checkpoint. The writes which the API rejects are logged and dropped, see
+   * {@link Sheet#sendOrDropBatch(List)}, they would block the journal forever
+   *
+   * @return the number of the replayed writes ; -1 if the batch failed and can
+   *         be sent again
+   */
+  private int replay() {
+    synchronized (replayLock) {
+      List<Entry> batch = new ArrayList<>();
+      synchronized (this) {
+        Iterator<Entry> entries = pending.iterator();
+        while (entries.hasNext() && batch.size() < MAX_BATCH_WRITES)
+          batch.add(entries.next());
+      }
+      if (batch.isEmpty())
+        return 0;
+
+      // The last write of the range wins, as it would when written directly
+      LinkedHashMap<String, List<List<Object>>> writes = new LinkedHashMap<>();
+      for (Entry entry : batch) {
+        writes.remove(entry.range);
+        writes.put(entry.range, entry.values);
+      }
+      List<ValueRange> data = new ArrayList<>(writes.size());
+      for (Map.Entry<String, List<List<Object>>> write : writes.entrySet())
+        data.add(new ValueRange().setRange(write.getKey()).setValues(write.getValue()));
+      if (!sheet.sendOrDropBatch(data))
+        return -1;
+
+      synchronized (this) {
+        for (int iEntry = 0; iEntry < batch.size(); iEntry++)
+          pending.removeFirst();
+      }
+      Entry last = batch.get(batch.size() - 1);
+      try {
+        writeCheckpoint(last.segment, last.endOffset);
+        deleteSegmentsBefore(last.segment);
+      } catch (IOException e) {
+        // The writes are sent, they are replayed again at the next open
+        Logger.getLogger(CLASSNAME).log(Level.WARNING, e.getMessage());
+      }
+      return batch.size();
+    }
+  }
+
+  private void recover(long recoveredSegment, Path segmentFile, int startOffset) throws IOException {
+    // Read, not mapped, so the segment can be deleted once it is replayed
+    ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(segmentFile));
+    buffer.position(Math.min(startOffset, buffer.limit()));
+    CRC32 crc = new CRC32();
+    while (buffer.remaining() >= HEADER_SIZE) {
+      int length = buffer.getInt();
+      int checksum = buffer.getInt();
+      if (length <= 0 || length > buffer.remaining())
+        break;
+      byte[] payload = new byte[length];
+      buffer.get(payload);
+      crc.reset();
+      crc.update(payload);
+      if ((int) crc.getValue() != checksum) {
+        Logger.getLogger(CLASSNAME).log(Level.WARNING, "The journal is corrupted after the offset "
+            + (buffer.position() - length - HEADER_SIZE) + " of " + segmentFile);
+        break;
+      }
+      Entry decoded = decode(payload);
+      pending.add(new Entry(decoded.range, decoded.values, recoveredSegment, buffer.position()));
+    }
+  }
+
+  private TreeMap<Long, Path> listSegments() throws IOException {
+    TreeMap<Long, Path> segments = new TreeMap<>();
+    try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+      for (Path file : files) {
+        String name = file.getFileName().toString();
+        try {
+          segments.put(Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length())),
+              file);
+        } catch (NumberFormatException e) {
+          Logger.getLogger(CLASSNAME).log(Level.WARNING, "Not a journal segment: " + file);
+        }
+      }
+    }
+    return segments;
+  }
+
+  private Path segmentPath(long segmentNumber) {
+    return directory.resolve(String.format("%s%012d%s", SEGMENT_PREFIX, segmentNumber, SEGMENT_SUFFIX));
+  }
+
+  private MappedByteBuffer mapSegment(long segmentNumber, long size) throws IOException {
+    try (FileChannel channel = FileChannel.open(segmentPath(segmentNumber), StandardOpenOption.CREATE_NEW,
+        StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+      // The mapping stays valid after the channel is closed
+      return channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+    }
+  }
+
+  /**
+   * @return the segment and the offset which the journal is replayed up to
+   */
+  private long[] readCheckpoint() throws IOException {
+    Path checkpointFile = directory.resolve(CHECKPOINT_FILE);
+    if (!Files.exists(checkpointFile))
+      return new long[] { 0, 0 };
+    String[] position = new String(Files.readAllBytes(checkpointFile), StandardCharsets.UTF_8).trim().split(" ");
+    try {
+      return new long[] { Long.parseLong(position[0]), Long.parseLong(position[1]) };
+    } catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+      throw new IOException("The journal checkpoint is corrupted: " + checkpointFile);
+    }
+  }
+
+  private void writeCheckpoint(long checkpointSegment, int offset) throws IOException {
+    Path temp = directory.resolve(CHECKPOINT_FILE + ".tmp");
+    Files.write(temp, (checkpointSegment + " " + offset).getBytes(StandardCharsets.UTF_8));
+    Files.move(temp, directory.resolve(CHECKPOINT_FILE), StandardCopyOption.REPLACE_EXISTING,
+        StandardCopyOption.ATOMIC_MOVE);
+  }
+
+  /**
+   * delete the replayed segments. A segment which is still mapped can not be
+   * deleted on Windows until the mapping is garbage collected, it is deleted by
+   * a next replay or at the next open
+   */
+  private void deleteSegmentsBefore(long checkpointSegment) {
+    for (; oldestSegment < checkpointSegment; oldestSegment++)
+      if (!deleteSegment(segmentPath(oldestSegment)))
+        return;
+  }
+
+  /**
+   * @return true if the segment is deleted or does not exist
+   */
+  private static boolean deleteSegment(Path segmentFile) {
+    try {
+      Files.deleteIfExists(segmentFile);
+      return true;
+    } catch (IOException e) {
+      Logger.getLogger(CLASSNAME).log(Level.FINE, e.getMessage());
+      return false;
+    }
+  }
+
+  /**
+   * encode the write as: the range, the row count and for each row the cell
+   * count and the cells
+   */
+  private static byte[] encode(String writeRange, List<List<Object>> values) {
+    List<byte[]> strings = new ArrayList<>();
+    byte[] range = writeRange.getBytes(StandardCharsets.UTF_8);
+    int size = Integer.BYTES + range.length + Integer.BYTES;
+    List<List<Object>> rows = (values == null) ? Collections.emptyList() : values;
+    for (List<Object> row : rows) {
+      size += Integer.BYTES;
+      if (row != null)
+        for (Object cell : row) {
+          byte[] cellBytes = (cell == null) ? null : cell.toString().getBytes(StandardCharsets.UTF_8);
+          strings.add(cellBytes);
+          size += 1 + ((cellBytes == null) ? 0 : Integer.BYTES + cellBytes.length);
+        }
+    }
+    ByteBuffer buffer = ByteBuffer.allocate(size);
+    buffer.putInt(range.length).put(range).putInt(rows.size());
+    Iterator<byte[]> cells = strings.iterator();
+    for (List<Object> row : rows) {
+      buffer.putInt((row == null) ? 0 : row.size());
+      if (row != null)
+        for (int iCell = 0; iCell < row.size(); iCell++) {
+          byte[] cellBytes = cells.next();
+          if (cellBytes == null)
+            buffer.put(CELL_NULL);
+          else
+            buffer.put(CELL_STRING).putInt(cellBytes.length).put(cellBytes);
+        }
+    }
+    return buffer.array();
+  }
+
+  private static Entry decode(byte[] payload) {
+    ByteBuffer buffer = ByteBuffer.wrap(payload);
+    String range = readString(buffer);
+    int rowCount = buffer.getInt();
+    List<List<Object>> values = new ArrayList<>(rowCount);
+    for (int iRow = 0; iRow < rowCount; iRow++) {
+      int cellCount = buffer.getInt();
+      List<Object> row = new ArrayList<>(cellCount);
+      for (int iCell = 0; iCell < cellCount; iCell++)
+        row.add((buffer.get() == CELL_NULL) ? null : readString(buffer));
+      values.add(row);
+    }
+    return new Entry(range, values, 0, 0);
+  }
+
+  private static String readString(ByteBuffer buffer) {
+    byte[] bytes = new byte[buffer.getInt()];
+    buffer.get(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+}
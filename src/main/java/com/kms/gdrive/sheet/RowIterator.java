@@ -0,0 +1,192 @@
+package com.kms.gdrive.sheet;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import com.kms.util.StringUtils;
+
+/**
+ * Iterate the rows of some columns by pages which grow from MIN_PAGE_SIZE to
+ * MAX_PAGE_SIZE. The next page is read in background while the current page is
+ * consumed, unless the current page is shorter than requested
+ */
+class RowIterator implements Iterator<SheetRow> {
+  static final int MIN_PAGE_SIZE = 10;
+  static final int MAX_PAGE_SIZE = 10000;
+  static final int PAGE_GROWTH = 10;
+
+  /**
+   * the daemon threads which read the next pages
+   */
+  private static final ExecutorService PREFETCHER = Executors.newCachedThreadPool(runnable -> {
+    Thread prefetcher = new Thread(runnable, "gsheet-row-prefetch");
+    prefetcher.setDaemon(true);
+    return prefetcher;
+  });
+
+  private final Sheet sheet;
+  private final String sheetName;
+  private final List<String> cols;
+  private final int maxBlankRows;
+  private final ReadOptions options;
+
+  private List<SheetRow> page = new ArrayList<>();
+  private int pageIndex = 0;
+  private int nextPageRow;
+  private int nextPageSize = MIN_PAGE_SIZE;
+  private CompletableFuture<List<SheetRow>> nextPage = null;
+  private boolean endOfData = false;
+  private int blankCount = 0;
+  /**
+   * the blank rows which the API trimmed at the end of the current page
+   */
+  private int trimmedRows = 0;
+
+  /**
+   * Constructor for RowIterator
+   *
+   * @param sheet        the Sheet to read
+   * @param sheetName    The sheet (tab) to read
+   * @param cols         the columns to read
+   * @param startRow     the first row to read
+   * @param maxBlankRows stop after this number of continuous rows which the
+   *                     first column is blank ; -1 to read to the end of the
+   *                     data
+   * @param options      the options of the reads, the values are by COLUMNS
+   */
+  RowIterator(Sheet sheet, String sheetName, List<String> cols, int startRow, int maxBlankRows,
+      ReadOptions options) {
+    this.sheet = sheet;
+    this.sheetName = sheetName;
+    this.cols = cols;
+    this.maxBlankRows = maxBlankRows;
+    this.options = options;
+    this.nextPageRow = startRow;
+  }
+
+  @Override
+  public boolean hasNext() {
+    if (maxBlankRows >= 0 && blankCount > maxBlankRows)
+      return false;
+    if (pageIndex < page.size())
+      return true;
+    if (endOfData)
+      return false;
+    // The trimmed rows are after the rows of the page, the blank rows continue
+    // into the next page
+    blankCount += trimmedRows;
+    trimmedRows = 0;
+    if (maxBlankRows >= 0 && blankCount > maxBlankRows)
+      return false;
+    page = takeNextPage();
+    pageIndex = 0;
+    return !page.isEmpty();
+  }
+
+  @Override
+  public SheetRow next() {
+    if (!hasNext())
+      throw new NoSuchElementException();
+    SheetRow row = page.get(pageIndex++);
+    if (StringUtils.isEmpty(row.getValue(0)))
+      blankCount++;
+    else
+      blankCount = 0;
+    return row;
+  }
+
+  /**
+   * stop the background read
+   */
+  void close() {
+    endOfData = true;
+    if (nextPage != null)
+      nextPage.cancel(false);
+  }
+
+  /**
+   * take the prefetched page, or read it, and start reading the page after it
+   * if the page is full
+   */
+  private List<SheetRow> takeNextPage() {
+    List<SheetRow> rows;
+    try {
+      rows = (nextPage != null) ? nextPage.join() : readPage(nextPageRow, nextPageSize);
+    } catch (CompletionException e) {
+      throw (e.getCause() instanceof UncheckedIOException) ? (UncheckedIOException) e.getCause() : e;
+    }
+    nextPage = null;
+    trimmedRows = nextPageSize - rows.size();
+    nextPageRow += nextPageSize;
+    nextPageSize = Math.min(MAX_PAGE_SIZE, nextPageSize * PAGE_GROWTH);
+    // The trimmed rows at the end of the page are blank, they may already end the
+    // scan
+    if (rows.isEmpty() || (maxBlankRows >= 0 && trimmedRows > maxBlankRows))
+      endOfData = true;
+    // A short page is likely the end of the data, the page after it is read
+    // only if the scan goes on
+    else if (trimmedRows == 0) {
+      final int prefetchRow = nextPageRow;
+      final int prefetchSize = nextPageSize;
+      nextPage = CompletableFuture.supplyAsync(() -> readPage(prefetchRow, prefetchSize), PREFETCHER);
+    }
+    return rows;
+  }
+
+  /**
+   * read the columns of the rows in one values.batchGet
+   *
+   * @param firstRow the first row of the page
+   * @param size     the number of rows of the page
+   * @return the rows, empty if there is no data in the page
+   */
+  private List<SheetRow> readPage(int firstRow, int size) {
+    List<String> ranges = new ArrayList<>(cols.size());
+    int lastRow = firstRow + size - 1;
+    for (String col : cols)
+      ranges.add(CellRange.of(sheetName, col, firstRow, col, lastRow).toA1());
+    List<List<List<Object>>> columns;
+    try {
+      columns = sheet.batchGet(ranges, options);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+
+    // Each range is one column, the API trims the blank cells at its end
+    int rowCount = 0;
+    for (int colIndex = 0; colIndex < columns.size(); colIndex++)
+      rowCount = Math.max(rowCount, cellsOf(columns, colIndex).size());
+    List<SheetRow> rows = new ArrayList<>(rowCount);
+    for (int rowIndex = 0; rowIndex < rowCount; rowIndex++) {
+      List<Object> values = new ArrayList<>(cols.size());
+      for (int colIndex = 0; colIndex < cols.size(); colIndex++)
+        values.add(cellOf(columns, colIndex, rowIndex));
+      rows.add(new SheetRow(firstRow + rowIndex, values));
+    }
+    return rows;
+  }
+
+  /**
+   * @return the cells of the column ; empty if the column is blank
+   */
+  private static List<Object> cellsOf(List<List<List<Object>>> columns, int colIndex) {
+    if (colIndex >= columns.size() || columns.get(colIndex) == null || columns.get(colIndex).isEmpty()
+        || columns.get(colIndex).get(0) == null)
+      return Collections.emptyList();
+    return columns.get(colIndex).get(0);
+  }
+
+  private static Object cellOf(List<List<List<Object>>> columns, int colIndex, int rowIndex) {
+    List<Object> cells = cellsOf(columns, colIndex);
+    return (rowIndex < cells.size()) ? cells.get(rowIndex) : null;
+  }
+}
@@ -0,0 +1,39 @@
+package com.kms.gdrive.sheet;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import com.google.api.client.http.HttpRequestInitializer;
+import com.google.api.client.http.HttpTransport;
+import com.google.api.client.json.JsonFactory;
+import com.google.auth.http.HttpCredentialsAdapter;
+import com.google.auth.oauth2.ServiceAccountCredentials;
+
+/**
+ * Authorize as a service account by its JSON key file, without any browser
+ * flow. Share the spreadsheets with the service account email to report to
+ * them
+ */
+public class ServiceAccountCredentialProvider implements CredentialProvider {
+  private final String keyFile;
+
+  /**
+   * Constructor for ServiceAccountCredentialProvider
+   *
+   * @param keyFile the path of the JSON key file of the service account
+   */
+  public ServiceAccountCredentialProvider(String keyFile) {
+    this.keyFile = keyFile;
+  }
+
+  @Override
+  public HttpRequestInitializer getCredential(HttpTransport httpTransport, JsonFactory jsonFactory)
+      throws IOException {
+    try (InputStream keyStream = new FileInputStream(keyFile)) {
+      // The token is refreshed through the shared transport too
+      return new HttpCredentialsAdapter(
+          ServiceAccountCredentials.fromStream(keyStream, () -> httpTransport).createScoped(Sheet.SCOPES));
+    }
+  }
+}
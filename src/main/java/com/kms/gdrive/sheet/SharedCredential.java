@@ -0,0 +1,57 @@
+package com.kms.gdrive.sheet;
+
+import java.io.IOException;
+
+import com.google.api.client.http.HttpRequestInitializer;
+import com.google.api.client.json.JsonFactory;
+
+/**
+ * The Credential which is shared by all the Sheet objects. It is created by the
+ * provider on the first API call and refreshes its token itself
+ */
+class SharedCredential {
+  private SharedCredential() {
+    throw new IllegalStateException("Utility class");
+  }
+
+  private static CredentialProvider provider = null;
+  private static HttpRequestInitializer credential = null;
+
+  /**
+   * set the provider, the Credential is created again on the next API call
+   *
+   * @param credentialProvider the provider of the Credential
+   */
+  static synchronized void setProvider(CredentialProvider credentialProvider) {
+    provider = credentialProvider;
+    credential = null;
+  }
+
+  /**
+   * get the Credential, creating it on the first call. A failed creation is
+   * tried again on the next call
+   *
+   * @param jsonFactory The JSON factory of the API client
+   * @return the Credential
+   * @throws IOException when the Credential can not be created
+   */
+  static synchronized HttpRequestInitializer get(JsonFactory jsonFactory) throws IOException {
+    if (credential == null) {
+      if (provider == null)
+        throw new IOException("No credential provider is set");
+      credential = provider.getCredential(SharedTransport.get(), jsonFactory);
+      if (credential == null)
+        throw new IOException("The credential provider does not provide a credential");
+    }
+    return credential;
+  }
+
+  /**
+   * @param jsonFactory The JSON factory of the API client
+   * @return the initializer which authorizes the requests by the shared
+   *         Credential, creating it on the first request
+   */
+  static HttpRequestInitializer initializer(JsonFactory jsonFactory) {
+    return request -> get(jsonFactory).initialize(request);
+  }
+}
@@ -0,0 +1,131 @@
+package com.kms.gdrive.sheet;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+import com.google.api.client.http.GZipEncoding;
+import com.google.api.client.http.HttpContent;
+import com.google.api.client.http.HttpExecuteInterceptor;
+import com.google.api.client.http.HttpRequestInitializer;
+import com.google.api.client.http.HttpTransport;
+import com.google.api.client.http.javanet.NetHttpTransport;
+
+/**
+ * The HTTP transport which is shared by all the Sheet objects, so the
+ * connections are kept alive and reused across the spreadsheets
+ */
+class SharedTransport {
+  private SharedTransport() {
+    throw new IllegalStateException("Utility class");
+  }
+
+  static final String GZIP = "gzip";
+
+  private static HttpTransport transport = null;
+  private static volatile int connectTimeoutMillis = 20000;
+  private static volatile int readTimeoutMillis = 60000;
+
+  /**
+   * @return the shared transport, a NetHttpTransport unless another one is set
+   */
+  static synchronized HttpTransport get() {
+    if (transport == null)
+      transport = new NetHttpTransport();
+    return transport;
+  }
+
+  /**
+   * @param httpTransport the transport to use for the Sheet objects which are
+   *                      created after
+   */
+  static synchronized void set(HttpTransport httpTransport) {
+    transport = httpTransport;
+  }
+
+  /**
+   * @param connectTimeoutMillis the connect timeout, 0 for no timeout
+   * @param readTimeoutMillis    the read timeout, 0 for no timeout
+   */
+  static void setTimeouts(int connectTimeoutMillis, int readTimeoutMillis) {
+    SharedTransport.connectTimeoutMillis = connectTimeoutMillis;
+    SharedTransport.readTimeoutMillis = readTimeoutMillis;
+  }
+
+  /**
+   * build the initializer of every request: the credential, the timeouts, the
+   * gzip compression of the request and response content and the byte counters
+   * of SheetMetrics
+   *
+   * @param credential the initializer of the credential, can be null
+   * @return the request initializer
+   */
+  static HttpRequestInitializer initializer(HttpRequestInitializer credential) {
+    return request -> {
+      if (credential != null)
+        credential.initialize(request);
+      request.setConnectTimeout(connectTimeoutMillis);
+      request.setReadTimeout(readTimeoutMillis);
+      request.setEncoding(new GZipEncoding());
+      request.getHeaders().setAcceptEncoding(GZIP);
+      // Keep the interceptor of the credential, it adds the access token
+      HttpExecuteInterceptor credentialInterceptor = request.getInterceptor();
+      request.setInterceptor(intercepted -> {
+        if (credentialInterceptor != null)
+          credentialInterceptor.intercept(intercepted);
+        if (intercepted.getContent() != null && !(intercepted.getContent() instanceof CountingContent))
+          intercepted.setContent(new CountingContent(intercepted.getContent()));
+      });
+      request.setResponseInterceptor(response -> {
+        Long contentLength = response.getHeaders().getContentLength();
+        if (contentLength != null)
+          SheetMetrics.countBytesReceived(contentLength);
+      });
+    };
+  }
+
+  /**
+   * the request content which counts the written bytes, before the compression
+   */
+  static class CountingContent implements HttpContent {
+    private final HttpContent content;
+
+    CountingContent(HttpContent content) {
+      this.content = content;
+    }
+
+    @Override
+    public long getLength() throws IOException {
+      return content.getLength();
+    }
+
+    @Override
+    public String getType() {
+      return content.getType();
+    }
+
+    @Override
+    public boolean retrySupported() {
+      return content.retrySupported();
+    }
+
+    @Override
+    public void writeTo(OutputStream out) throws IOException {
+      long[] written = new long[1];
+      content.writeTo(new FilterOutputStream(out) {
+        @Override
+        public void write(int b) throws IOException {
+          out.write(b);
+          written[0]++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+          out.write(b, off, len);
+          written[0] += len;
+        }
+      });
+      SheetMetrics.countBytesSent(written[0]);
+    }
+  }
+}
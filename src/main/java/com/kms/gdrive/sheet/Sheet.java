@@ -1,33 +1,48 @@
 package com.kms.gdrive.sheet;
 
-import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
-import java.io.InputStreamReader;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
-import com.google.api.client.auth.oauth2.Credential;
-import com.google.api.client.extensions.java6.auth.oauth2.AuthorizationCodeInstalledApp;
-import com.google.api.client.extensions.jetty.auth.oauth2.LocalServerReceiver;
-import com.google.api.client.googleapis.auth.oauth2.GoogleAuthorizationCodeFlow;
-import com.google.api.client.googleapis.auth.oauth2.GoogleClientSecrets;
-import com.google.api.client.http.javanet.NetHttpTransport;
+import com.google.api.client.http.HttpResponseException;
+import com.google.api.client.http.HttpTransport;
 import com.google.api.client.json.JsonFactory;
 import com.google.api.client.json.jackson2.JacksonFactory;
-import com.google.api.client.util.store.FileDataStoreFactory;
 import com.google.api.services.sheets.v4.Sheets;
 import com.google.api.services.sheets.v4.SheetsScopes;
-import com.google.api.services.sheets.v4.model.BatchUpdateSpreadsheetRequest;
+import com.google.api.services.sheets.v4.model.AddSheetRequest;
+import com.google.api.services.sheets.v4.model.AppendDimensionRequest;
+import com.google.api.services.sheets.v4.model.BatchUpdateSpreadsheetResponse;
+import com.google.api.services.sheets.v4.model.CellData;
+import com.google.api.services.sheets.v4.model.CopyPasteRequest;
+import com.google.api.services.sheets.v4.model.DeleteDimensionRequest;
 import com.google.api.services.sheets.v4.model.DimensionRange;
+import com.google.api.services.sheets.v4.model.ExtendedValue;
+import com.google.api.services.sheets.v4.model.GridCoordinate;
+import com.google.api.services.sheets.v4.model.GridProperties;
+import com.google.api.services.sheets.v4.model.GridRange;
 import com.google.api.services.sheets.v4.model.InsertDimensionRequest;
 import com.google.api.services.sheets.v4.model.Request;
-import com.google.api.services.sheets.v4.model.Spreadsheet;
+import com.google.api.services.sheets.v4.model.RowData;
+import com.google.api.services.sheets.v4.model.SheetProperties;
+import com.google.api.services.sheets.v4.model.UpdateCellsRequest;
 import com.google.api.services.sheets.v4.model.ValueRange;
+import com.kms.util.BoundedCache;
 import com.kms.util.StringUtils;
 
 public class Sheet {
@@ -36,48 +51,53 @@ public class Sheet {
   private static final JsonFactory JSON_FACTORY = JacksonFactory.getDefaultInstance();
   private static String credentialsDirectory = "gconf";
   private static String credentialsFile = "gsheet-auth.json"; // As resource
-  private static final List<String> SCOPES = Arrays.asList(SheetsScopes.SPREADSHEETS, SheetsScopes.DRIVE);
+  static final List<String> SCOPES = Arrays.asList(SheetsScopes.SPREADSHEETS, SheetsScopes.DRIVE);
+
+  static {
+    SharedCredential.setProvider(new InstalledAppCredentialProvider(credentialsDirectory, credentialsFile,
+        InstalledAppCredentialProvider.DEFAULT_RECEIVER_PORT));
+  }
 
   public static void setCredentialDir (String credentialsDirectory, String credentialsFile) {
     if (!StringUtils.isEmpty(credentialsDirectory))
       Sheet.credentialsDirectory = credentialsDirectory;
     if (!StringUtils.isEmpty(credentialsFile))
       Sheet.credentialsFile = credentialsFile;
+    SharedCredential.setProvider(new InstalledAppCredentialProvider(Sheet.credentialsDirectory, Sheet.credentialsFile,
+        InstalledAppCredentialProvider.DEFAULT_RECEIVER_PORT));
   }
 
   /**
-   * Creates an authorized Credential object.
+   * set how the Credential is created, Ex: a ServiceAccountCredentialProvider
+   * for the headless runs. The Credential is created on the next API call and
+   * shared by all the Sheet objects
    * 
-   * @param httpTransport The network HTTP Transport.
-   * @return An authorized Credential object.
+   * @param credentialProvider the provider of the Credential
    */
-  private static Credential getCredentials(final NetHttpTransport httpTransport) {
-    // Load google report configuration directory path / env
-    File checkExists = new File(credentialsDirectory + File.separator + credentialsFile);
+  public static void setCredentialProvider(CredentialProvider credentialProvider) {
+    SharedCredential.setProvider(credentialProvider);
+  }
 
-    boolean resourceMode = true;
-    if (checkExists.exists() && checkExists.isFile())
-      resourceMode = false;
-    
-    try (InputStreamReader credentialReader = resourceMode?
-      new InputStreamReader(Sheet.class.getResourceAsStream(File.separator+credentialsFile)):
-      new InputStreamReader((new FileInputStream(credentialsDirectory + File.separator + credentialsFile)));) {
-      File tokenDirFileObj = resourceMode?
-      new File(Sheet.class.getResource(File.separator).getFile()):
-      new File(credentialsDirectory);
-      GoogleClientSecrets clientSecrets = GoogleClientSecrets.load(JSON_FACTORY, credentialReader);
+  /**
+   * Share the transport for the Sheet objects which are created after, Ex: a
+   * pooled Apache transport. The default is one NetHttpTransport for all the
+   * Sheet objects, which keeps the connections alive up to the
+   * http.maxConnections system property per host
+   * 
+   * @param httpTransport the transport to share
+   */
+  public static void setHttpTransport(HttpTransport httpTransport) {
+    SharedTransport.set(httpTransport);
+  }
 
-      // Build flow and trigger user authorization request.
-      GoogleAuthorizationCodeFlow flow = new GoogleAuthorizationCodeFlow.Builder(httpTransport, JSON_FACTORY,
-          clientSecrets, SCOPES).setDataStoreFactory(new FileDataStoreFactory(tokenDirFileObj))
-              .setAccessType("offline").build();
-      LocalServerReceiver receiver = new LocalServerReceiver.Builder().setPort(8888).build();
-      return new AuthorizationCodeInstalledApp(flow, receiver).authorize("user");
-    }
-    catch (Exception e) {
-      Logger.getLogger(CLASSNAME).log(Level.WARNING, e.getMessage());
-      return null;
-    }
+  /**
+   * @param connectTimeoutMillis the connect timeout of the requests, default is
+   *                             20000, 0 for no timeout
+   * @param readTimeoutMillis    the read timeout of the requests, default is
+   *                             60000, 0 for no timeout
+   */
+  public static void setHttpTimeouts(int connectTimeoutMillis, int readTimeoutMillis) {
+    SharedTransport.setTimeouts(connectTimeoutMillis, readTimeoutMillis);
   }
 
   /**
@@ -97,6 +117,91 @@ public class Sheet {
     return (foundSheet == null)?Collections.emptyList():foundSheet.readRange(sheetName, startCol, startRow, endCol, endRow);
   }
 
+  /**
+   * read the range by sheetID
+   * 
+   * @param readRange the range to read
+   * @param sheetID   The sheetID which can get from the google sheet URL
+   * @return the range
+   */
+  public static List<List<Object>> readRange(CellRange readRange, String sheetID) {
+    Sheet foundSheet = getSheet(sheetID);
+    return (foundSheet == null) ? Collections.emptyList() : foundSheet.readRange(readRange);
+  }
+
+  /**
+   * read the range by sheetID with the read options, Ex: the formatted values
+   * of one column by ReadOptions.of(ReadOptions.FORMATTED_VALUE,
+   * ReadOptions.COLUMNS)
+   * 
+   * @param readRange the range to read
+   * @param options   the value render option, the major dimension and the fields
+   * @param sheetID   The sheetID which can get from the google sheet URL
+   * @return the values of the range by the major dimension of the options
+   */
+  public static List<List<Object>> readRange(CellRange readRange, ReadOptions options, String sheetID) {
+    Sheet foundSheet = getSheet(sheetID);
+    return (foundSheet == null) ? Collections.emptyList() : foundSheet.readRange(readRange, options);
+  }
+
+  /**
+   * the the range by sheetID (asynchronous), the call runs after the
+   * asynchronous calls of the same sheet which are called before
+   * 
+   * @param sheetName The sheet to find the test
+   * @param startCol  start Column to get range
+   * @param startRow  start Row to get range
+   * @param endCol    end Column to get range
+   * @param endRow    end Row to get range
+   * @param sheetID   The sheetID which can get from the google sheet URL
+   * @return the future of the range
+   */
+  public static CompletableFuture<List<List<Object>>> readRangeAsync(String sheetName, String startCol,
+      int startRow, String endCol, int endRow, String sheetID) {
+    return AsyncReporting.submit(sheetID, sheetName,
+        () -> readRange(sheetName, startCol, startRow, endCol, endRow, sheetID));
+  }
+
+  /**
+   * read the column from the start row to the end of the sheet by sheetID
+   * 
+   * @param sheetName The sheet to read the column
+   * @param col       the Column to read
+   * @param startRow  start Row to read
+   * @param sheetID   The sheetID which can get from the google sheet URL
+   * @return the range
+   */
+  public static List<List<Object>> readColumn(String sheetName, String col, int startRow, String sheetID) {
+    Sheet foundSheet = getSheet(sheetID);
+    return (foundSheet == null)?Collections.emptyList():foundSheet.readColumn(sheetName, col, startRow);
+  }
+
+  /**
+   * read many ranges in one request by sheetID
+   * 
+   * @param readRanges the ranges in A1 notation (Ex: "Sheet1!C12:C")
+   * @param sheetID    The sheetID which can get from the google sheet URL
+   * @return the values of each range in the input order
+   */
+  public static List<List<List<Object>>> readRanges(List<String> readRanges, String sheetID) {
+    Sheet foundSheet = getSheet(sheetID);
+    return (foundSheet == null)?Collections.emptyList():foundSheet.readRanges(readRanges);
+  }
+
+  /**
+   * read many ranges in one request by sheetID with the read options
+   * 
+   * @param readRanges the ranges in A1 notation (Ex: "Sheet1!C12:C")
+   * @param options    the value render option, the major dimension and the
+   *                   fields of each range
+   * @param sheetID    The sheetID which can get from the google sheet URL
+   * @return the values of each range in the input order
+   */
+  public static List<List<List<Object>>> readRanges(List<String> readRanges, ReadOptions options, String sheetID) {
+    Sheet foundSheet = getSheet(sheetID);
+    return (foundSheet == null) ? Collections.emptyList() : foundSheet.readRanges(readRanges, options);
+  }
+
   /**
    * setValue get the value from range (static)
    * 
@@ -110,6 +215,18 @@ public class Sheet {
     return (foundSheet != null)&&foundSheet.setValue(value, writeRange);
   }
 
+  /**
+   * setValue set the value to the range (static)
+   * 
+   * @param value      To write to as String
+   * @param writeRange The range to write
+   * @param sheetID    The sheetID which can get from the google sheet URL
+   * @return true is successful
+   */
+  public static boolean setValue(String value, CellRange writeRange, String sheetID) {
+    return setValue(value, writeRange.toA1(), sheetID);
+  }
+
   /**
    * setValues set the values to range
    * 
@@ -140,6 +257,18 @@ public class Sheet {
     return (foundSheet != null)&&foundSheet.setValues(values, writeRange);
   }
 
+  /**
+   * setValues set the values to the range (static)
+   * 
+   * @param values     To write to as copy from read range
+   * @param writeRange The range to write
+   * @param sheetID    The sheetID which can get from the google sheet URL
+   * @return true is successful
+   */
+  public static boolean setValues(List<List<Object>> values, CellRange writeRange, String sheetID) {
+    return setValues(values, writeRange.toA1(), sheetID);
+  }
+
   /**
    * insert a column at the index (static)
    * 
@@ -153,11 +282,161 @@ public class Sheet {
     return (foundSheet != null)&&foundSheet.insertColumn(columnIndex, sheetName);
   }
 
+  /**
+   * write the values to many ranges in one request (static)
+   * 
+   * @param data    the ranges and values to write
+   * @param sheetID The sheetID which can get from the google sheet URL
+   * @return true is successful
+   */
+  public static boolean batchSetValues(List<ValueRange> data, String sheetID) {
+    Sheet foundSheet = getSheet(sheetID);
+    return (foundSheet != null)&&foundSheet.batchSetValues(data);
+  }
+
+  /**
+   * append the rows after the table of the range (static), see
+   * {@link #appendRows(List, String)}
+   * 
+   * @param values      the rows to append, the null cells are skipped
+   * @param appendRange the range to find the table (Ex: "Sheet1!C12:E")
+   * @param sheetID     The sheetID which can get from the google sheet URL
+   * @return the row index of the first appended row ; -1 if failed
+   */
+  public static int appendRows(List<List<Object>> values, String appendRange, String sheetID) {
+    Sheet foundSheet = getSheet(sheetID);
+    return (foundSheet == null) ? -1 : foundSheet.appendRows(values, appendRange);
+  }
+
+  /**
+   * buffer the writes of the sheet and send them as one batch (static). The
+   * buffer is flushed when maxPendingWrites ranges are pending, when
+   * flushIntervalMillis expires, on flush and at the JVM shutdown
+   * 
+   * @param maxPendingWrites    the number of pending ranges which triggers the
+   *                            flush
+   * @param flushIntervalMillis the max time a write stays pending, 0 to disable
+   * @param sheetID             The sheetID which can get from the google sheet URL
+   */
+  public static void enableWriteBehind(int maxPendingWrites, long flushIntervalMillis, String sheetID) {
+    Sheet foundSheet = getSheet(sheetID);
+    if (foundSheet != null)
+      foundSheet.enableWriteBehind(maxPendingWrites, flushIntervalMillis);
+  }
+
+  /**
+   * journal the writes of the sheet locally and replay them to the spreadsheet
+   * in background (static), see {@link #enableJournal(Path)}
+   * 
+   * @param directory the directory of the journals, the journal of the sheet is
+   *                  in its sheetID sub directory
+   * @param sheetID   The sheetID which can get from the google sheet URL
+   * @return true if the journal is enabled
+   */
+  public static boolean enableJournal(String directory, String sheetID) {
+    Sheet foundSheet = getSheet(sheetID);
+    return (foundSheet != null) && foundSheet.enableJournal(Paths.get(directory, sheetID));
+  }
+
+  /**
+   * send the pending writes of the sheet (static)
+   * 
+   * @param sheetID The sheetID which can get from the google sheet URL
+   * @return true if there is nothing left to write
+   */
+  public static boolean flush(String sheetID) {
+    Sheet foundSheet = getSheet(sheetID);
+    return (foundSheet == null)||foundSheet.flush();
+  }
+
+  /**
+   * send the pending writes of all the sheets
+   * 
+   * @return true if there is nothing left to write
+   */
+  public static boolean flushAll() {
+    boolean flushed = WriteBuffer.flushAll();
+    return ResultJournal.flushAll() && flushed;
+  }
+
+  /**
+   * insert a column with its header in one request (static), see
+   * {@link #insertColumnWithHeader(int, int, int, String, String)}
+   * 
+   * @param columnIndex    The index of the column to insert
+   * @param copyHeaderRows The number of the top rows to copy from the shifted
+   *                       column
+   * @param labelRow       The row to write the label
+   * @param label          The label of the column
+   * @param sheetName      The sheet Name to insert the column
+   * @param sheetID        The sheetID which can get from the google sheet URL
+   * @return true is successful
+   */
+  public static boolean insertColumnWithHeader(int columnIndex, int copyHeaderRows, int labelRow, String label,
+      String sheetName, String sheetID) {
+    Sheet foundSheet = getSheet(sheetID);
+    return (foundSheet != null)&&foundSheet.insertColumnWithHeader(columnIndex, copyHeaderRows, labelRow, label, sheetName);
+  }
+
+  /**
+   * move the columns to the archive sheet in one request (static), see
+   * {@link #archiveColumns(int, int, int, String, String)}
+   * 
+   * @param startColumn The index of the first column to archive
+   * @param endColumn   The index after the last column to archive
+   * @param keyColumns  The number of the first columns which are copied to the
+   *                    archive, Ex: the test names
+   * @param sheetName   The sheet Name to archive the columns
+   * @param archiveName The sheet Name of the archive
+   * @param sheetID     The sheetID which can get from the google sheet URL
+   * @return true is successful
+   */
+  public static boolean archiveColumns(int startColumn, int endColumn, int keyColumns, String sheetName,
+      String archiveName, String sheetID) {
+    Sheet foundSheet = getSheet(sheetID);
+    return (foundSheet != null) && foundSheet.archiveColumns(startColumn, endColumn, keyColumns, sheetName, archiveName);
+  }
+
+  /**
+   * write the values to the sheet and clear its other values in one request
+   * (static), see {@link #replaceValues(List, String)}
+   * 
+   * @param values    the rows of values
+   * @param sheetName The sheet Name to write
+   * @param sheetID   The sheetID which can get from the google sheet URL
+   * @return true is successful
+   */
+  public static boolean replaceValues(List<List<Object>> values, String sheetName, String sheetID) {
+    Sheet foundSheet = getSheet(sheetID);
+    return (foundSheet != null) && foundSheet.replaceValues(values, sheetName);
+  }
+
+  /**
+   * write the values to the sheet and clear its other values in one request
+   * (static), see {@link #replaceValues(List, String, boolean)}
+   * 
+   * @param values    the rows of values
+   * @param sheetName The sheet Name to write
+   * @param formulas  true to write the text which starts with "=" as a formula
+   * @param sheetID   The sheetID which can get from the google sheet URL
+   * @return true is successful
+   */
+  public static boolean replaceValues(List<List<Object>> values, String sheetName, boolean formulas,
+      String sheetID) {
+    Sheet foundSheet = getSheet(sheetID);
+    return (foundSheet != null) && foundSheet.replaceValues(values, sheetName, formulas);
+  }
+
   // MANAGE Sheet object by Factory
+  static final int DEFAULT_MAX_SHEETS = 256;
+  static final long DEFAULT_SHEET_IDLE_MILLIS = 60 * 60 * 1000L;
+
   /**
-   * store the Hash of Sheet by the SheetID, using for factory buffer
+   * store the Sheet by the SheetID, using for factory buffer. The least recently
+   * used and the idle Sheets are closed and dropped, except the pinned ones
    */
-  private static HashMap<String, Sheet> hashSheets = new HashMap<>();
+  private static final BoundedCache<String, Sheet> hashSheets = new BoundedCache<>(DEFAULT_MAX_SHEETS,
+      DEFAULT_SHEET_IDLE_MILLIS, (id, sheet) -> sheet.close(), sheet -> !sheet.pinned);
 
   /**
    * get Sheet by the sheetID
@@ -166,26 +445,94 @@ public class Sheet {
    * @return Sheet by the input sheetID
    */
   private static Sheet getSheet(String sheetID) {
-    if (hashSheets.containsKey(sheetID))
-      return hashSheets.get(sheetID);
-    else {
-      Sheet newSheet = new Sheet(sheetID);
-      hashSheets.put(sheetID, newSheet);
-      return newSheet;
-    }
+    // The Sheet is constructed once per sheetID, the other threads wait for it
+    return hashSheets.get(sheetID, Sheet::new);
+  }
+
+  /**
+   * set the bounds of the Sheet factory, the Sheets which have the write-behind
+   * or the journal enabled by the caller are kept
+   * 
+   * @param maxSheets  the max number of Sheets, the least recently used is closed
+   *                   first, default is 256
+   * @param idleMillis the time a Sheet is kept without call, 0 to keep it until
+   *                   the factory is full, default is one hour
+   */
+  public static void setCacheLimits(int maxSheets, long idleMillis) {
+    hashSheets.setLimits(maxSheets, idleMillis);
+    hashSheets.cleanUp();
+  }
+
+  /**
+   * close and drop the Sheets which are not pinned, Ex: at the end of a test run
+   * in a long running JVM
+   */
+  public static void evictAll() {
+    hashSheets.evictAll();
+  }
+
+  /**
+   * @return the factory of Sheets, for its size and hit/miss/eviction counts
+   */
+  static BoundedCache<String, Sheet> getCache() {
+    return hashSheets;
+  }
+
+  /**
+   * create the backend of each new Sheet by the sheetID
+   */
+  private static volatile Function<String, SheetBackend> backendFactory = Sheet::createGoogleBackend;
+
+  /**
+   * set the backend of the Sheet objects which are created after, Ex: an
+   * InMemorySheetBackend to run the reports offline
+   * 
+   * @param factory create the backend by the sheetID
+   */
+  public static void setBackendFactory(Function<String, SheetBackend> factory) {
+    backendFactory = factory;
+  }
+
+  /**
+   * @param sheetID The sheetID which can get from the google sheet URL
+   * @return the backend which calls the Google Sheets API
+   */
+  static SheetBackend createGoogleBackend(String sheetID) {
+    HttpTransport httpTransport = SharedTransport.get();
+    // The Credential is created on the first API call
+    Sheets service = new Sheets.Builder(httpTransport, JSON_FACTORY,
+        SharedTransport.initializer(SharedCredential.initializer(JSON_FACTORY))).setApplicationName(APPLICATION_NAME)
+            .build();
+    return new GoogleSheetBackend(service, sheetID);
   }
 
   // OBJECT declaration
   /**
-   * has to be constructed by constructor for service as Sheets
+   * has to be constructed by constructor for the backend of the spreadsheet
    */
-  Sheets service = null;
+  SheetBackend backend = null;
 
   /**
    * keep the sheetID after constructing
    */
   String sheetID = "";
 
+  /**
+   * the write-behind buffer, null when the writes are sent directly
+   */
+  volatile WriteBuffer writeBuffer = null;
+
+  /**
+   * the local journal of the writes, null when the writes are not journaled
+   */
+  volatile ResultJournal journal = null;
+
+  /**
+   * true when the write-behind or the journal is enabled by the caller, the
+   * factory does not evict this Sheet so the settings are not lost
+   */
+  volatile boolean pinned = false;
+
   /**
    * Constructor for Sheet
    * 
@@ -194,11 +541,7 @@ public class Sheet {
   public Sheet(String sheetID) {
     try {
       this.sheetID = sheetID;
-      NetHttpTransport.Builder transportBuilder = new NetHttpTransport.Builder();
-      NetHttpTransport httpTransport = transportBuilder.build();
-      transportBuilder.doNotValidateCertificate();
-      service = new Sheets.Builder(httpTransport, JSON_FACTORY, getCredentials(httpTransport))
-          .setApplicationName(APPLICATION_NAME).build();
+      backend = backendFactory.apply(sheetID);
     } catch (Exception e) {
       Logger.getLogger(CLASSNAME).log(Level.WARNING, e.getMessage());
     }
@@ -215,21 +558,198 @@ public class Sheet {
    * @return the range
    */
   public List<List<Object>> readRange(String sheetName, String startCol, int startRow, String endCol, int endRow) {
-    if (service != null)
+    return readRange(CellRange.of(sheetName, startCol, startRow, endCol, endRow));
+  }
+
+  /**
+   * read the range
+   * 
+   * @param readRange the range to read
+   * @return the range
+   */
+  public List<List<Object>> readRange(CellRange readRange) {
+    return readRange(readRange.toA1());
+  }
+
+  /**
+   * read the range with the read options
+   * 
+   * @param readRange the range to read
+   * @param options   the value render option, the major dimension and the fields
+   * @return the values of the range by the major dimension of the options
+   */
+  public List<List<Object>> readRange(CellRange readRange, ReadOptions options) {
+    return readRange(readRange.toA1(), options);
+  }
+
+  /**
+   * read the column from the start row to the end of the sheet
+   * 
+   * @param sheetName The sheet to read the column
+   * @param col       the Column to read
+   * @param startRow  start Row to read
+   * @return the range
+   */
+  public List<List<Object>> readColumn(String sheetName, String col, int startRow) {
+    return readRange(CellRange.column(sheetName, col, startRow));
+  }
+
+  /**
+   * read the range in A1 notation
+   * 
+   * @param readRange the range to read (Ex: "Sheet1!C12:C")
+   * @return the range
+   */
+  List<List<Object>> readRange(String readRange) {
+    return readRange(readRange, ReadOptions.DEFAULT);
+  }
+
+  /**
+   * read the range in A1 notation with the read options
+   * 
+   * @param readRange the range to read (Ex: "Sheet1!C12:C")
+   * @param options   the value render option, the major dimension and the fields
+   * @return the range
+   */
+  List<List<Object>> readRange(String readRange, ReadOptions options) {
+    flush();
+    if (backend != null)
       try {
-        final String readRange = sheetName + "!" + startCol + startRow + ":" + endCol + endRow;
-        com.google.api.services.sheets.v4.Sheets.Spreadsheets.Values.Get getRequest = service.spreadsheets().values().get(sheetID, readRange);
-        getRequest.setValueRenderOption("FORMULA");
-        ValueRange valueRange = getRequest.execute();
-        valueRange.set("valueRenderOption", "FORMULA");
-        return valueRange.getValues();
+        ValueRange valueRange = RequestScheduler.execute(sheetID, SheetMetrics.OP_VALUES_GET,
+            () -> backend.get(readRange, options));
+        return (valueRange.getValues() == null) ? Collections.emptyList() : valueRange.getValues();
       } catch (IOException e) {
         Logger.getLogger(CLASSNAME).log(Level.WARNING, e.getMessage());
       }
     return Collections.emptyList();
   }
 
-  static final String INPUT_OPT_USER_ENTERED = "USER_ENTERED";
+  /**
+   * read many ranges in one values.batchGet
+   * 
+   * @param readRanges the ranges in A1 notation (Ex: "Sheet1!C12:C")
+   * @return the values of each range in the input order, empty if failed
+   */
+  public List<List<List<Object>>> readRanges(List<String> readRanges) {
+    return readRanges(readRanges, ReadOptions.DEFAULT);
+  }
+
+  /**
+   * read many ranges in one values.batchGet with the read options
+   * 
+   * @param readRanges the ranges in A1 notation (Ex: "Sheet1!C12:C")
+   * @param options    the value render option, the major dimension and the
+   *                   fields of each range
+   * @return the values of each range in the input order, empty if failed
+   */
+  public List<List<List<Object>>> readRanges(List<String> readRanges, ReadOptions options) {
+    try {
+      return batchGet(readRanges, options);
+    } catch (IOException e) {
+      Logger.getLogger(CLASSNAME).log(Level.WARNING, e.getMessage());
+    }
+    return Collections.emptyList();
+  }
+
+  /**
+   * read many ranges in one values.batchGet
+   * 
+   * @param readRanges the ranges in A1 notation (Ex: "Sheet1!C12:C")
+   * @param options    the value render option, the major dimension and the
+   *                   fields of each range
+   * @return the values of each range in the input order
+   * @throws IOException when the ranges can not be read
+   */
+  List<List<List<Object>>> batchGet(List<String> readRanges, ReadOptions options) throws IOException {
+    flush();
+    List<ValueRange> valueRanges = RequestScheduler.execute(sheetID, SheetMetrics.OP_VALUES_BATCH_GET,
+        () -> requireBackend().batchGet(readRanges, options));
+    List<List<List<Object>>> values = new ArrayList<>(readRanges.size());
+    for (ValueRange valueRange : valueRanges)
+      values.add(valueRange.getValues());
+    return values;
+  }
+
+  /**
+   * stream the rows of the columns lazily, see
+   * {@link #streamRows(String, List, int, int)}
+   * 
+   * @param sheetName    The sheet to read
+   * @param cols         the columns to read (Ex: "C", "E")
+   * @param startRow     the first row to read
+   * @param maxBlankRows the stream ends after this number of continuous rows
+   *                     which the first column is blank ; -1 to read to the end
+   *                     of the data
+   * @param sheetID      The sheetID which can get from the google sheet URL
+   * @return the stream of the rows
+   */
+  public static Stream<SheetRow> streamRows(String sheetName, List<String> cols, int startRow, int maxBlankRows,
+      String sheetID) {
+    return streamRows(sheetName, cols, startRow, maxBlankRows, ReadOptions.DEFAULT, sheetID);
+  }
+
+  /**
+   * stream the rows of the columns lazily with the value render option, see
+   * {@link #streamRows(String, List, int, int, ReadOptions)}
+   * 
+   * @param sheetName    The sheet to read
+   * @param cols         the columns to read (Ex: "C", "E")
+   * @param startRow     the first row to read
+   * @param maxBlankRows the stream ends after this number of continuous rows
+   *                     which the first column is blank ; -1 to read to the end
+   *                     of the data
+   * @param options      the value render option of the reads
+   * @param sheetID      The sheetID which can get from the google sheet URL
+   * @return the stream of the rows
+   */
+  public static Stream<SheetRow> streamRows(String sheetName, List<String> cols, int startRow, int maxBlankRows,
+      ReadOptions options, String sheetID) {
+    Sheet foundSheet = getSheet(sheetID);
+    return (foundSheet == null) ? Stream.empty()
+        : foundSheet.streamRows(sheetName, cols, startRow, maxBlankRows, options);
+  }
+
+  /**
+   * stream the rows of the columns lazily. The rows are read by pages which grow
+   * from 10 to 100, 1000 and 10000 rows, the next page is read in background
+   * while the current one is consumed. A failed read is thrown as
+   * UncheckedIOException by the stream
+   * 
+   * @param sheetName    The sheet to read
+   * @param cols         the columns to read (Ex: "C", "E")
+   * @param startRow     the first row to read
+   * @param maxBlankRows the stream ends after this number of continuous rows
+   *                     which the first column is blank ; -1 to read to the end
+   *                     of the data
+   * @return the stream of the rows, close it to stop the background read
+   */
+  public Stream<SheetRow> streamRows(String sheetName, List<String> cols, int startRow, int maxBlankRows) {
+    return streamRows(sheetName, cols, startRow, maxBlankRows, ReadOptions.DEFAULT);
+  }
+
+  /**
+   * stream the rows of the columns lazily with the value render option of the
+   * options. Each column is read as one list (COLUMNS) and only the values are
+   * returned whatever the dimension and the fields of the options, see
+   * {@link #streamRows(String, List, int, int)}
+   * 
+   * @param sheetName    The sheet to read
+   * @param cols         the columns to read (Ex: "C", "E")
+   * @param startRow     the first row to read
+   * @param maxBlankRows the stream ends after this number of continuous rows
+   *                     which the first column is blank ; -1 to read to the end
+   *                     of the data
+   * @param options      the value render option of the reads
+   * @return the stream of the rows, close it to stop the background read
+   */
+  public Stream<SheetRow> streamRows(String sheetName, List<String> cols, int startRow, int maxBlankRows,
+      ReadOptions options) {
+    RowIterator rows = new RowIterator(this, sheetName, cols, startRow, maxBlankRows,
+        ReadOptions.of(options.getValueRenderOption(), ReadOptions.COLUMNS).withFields(ReadOptions.VALUES_ONLY));
+    return StreamSupport.stream(Spliterators.spliteratorUnknownSize(rows, Spliterator.ORDERED | Spliterator.NONNULL),
+        false).onClose(rows::close);
+  }
+
   /**
    * setValue set the value to range
    * 
@@ -238,18 +758,7 @@ public class Sheet {
    * @return true is successful
    */
   public boolean setValue(String value, String writeRange) {
-    if (service != null)
-      try {
-        // Create value list range
-        ValueRange updateValues = new ValueRange();
-        updateValues.setValues(Arrays.asList(Arrays.asList((Object) value)));
-        service.spreadsheets().values().update(sheetID, writeRange, updateValues).setValueInputOption(INPUT_OPT_USER_ENTERED)
-            .execute();
-        return true;
-      } catch (IOException e) {
-        Logger.getLogger(CLASSNAME).log(Level.WARNING, e.getMessage());
-      }
-    return false;
+    return setValues(Arrays.asList(Arrays.asList((Object) value)), writeRange);
   }
 
   /**
@@ -264,14 +773,62 @@ public class Sheet {
    * @return true is successful
    */
   public boolean setValues(List<List<Object>> values, String sheetName, String startCol, int startRow, String endCol, int endRow) {
-    if (service != null)
+    return setValues(values, CellRange.of(sheetName, startCol, startRow, endCol, endRow));
+  }
+
+  /**
+   * setValue set the values to range
+   * 
+   * @param values     To write to as copy from read range
+   * @param writeRange The range to write
+   * @return true is successful
+   */
+  public boolean setValues(List<List<Object>> values, CellRange writeRange) {
+    return setValues(values, writeRange.toA1());
+  }
+
+  /**
+   * setValue set the value to range
+   * 
+   * @param value      To write to as String
+   * @param writeRange The range to write
+   * @return true is successful
+   */
+  public boolean setValue(String value, CellRange writeRange) {
+    return setValue(value, writeRange.toA1());
+  }
+
+  /**
+   * setValue set the values to range
+   * 
+   * @param values     To write to as copy from read range
+   * @param writeRange The range to write
+   * @return true is successful
+   */
+  public boolean setValues(List<List<Object>> values, String writeRange) {
+    ResultJournal resultJournal = journal;
+    if (resultJournal != null)
+      try {
+        resultJournal.append(writeRange, values);
+        return true;
+      } catch (IOException e) {
+        // Write directly when the journal fails, once the journaled writes are
+        // replayed, so an older journaled write does not overwrite this one
+        Logger.getLogger(CLASSNAME).log(Level.WARNING, e.getMessage());
+        if (!resultJournal.flush())
+          return false;
+      }
+    WriteBuffer buffer = writeBuffer;
+    if (buffer != null) {
+      buffer.add(writeRange, values);
+      return true;
+    }
+    if (backend != null)
       try {
-        final String writeRange = sheetName + "!" + startCol + startRow + ":" + endCol + endRow;
-        // Create value list range
-        ValueRange updateValues = new ValueRange();
-        updateValues.setValues(values);
-        service.spreadsheets().values().update(sheetID, writeRange, updateValues).setValueInputOption(INPUT_OPT_USER_ENTERED)
-            .execute();
+        RequestScheduler.execute(sheetID, SheetMetrics.OP_VALUES_UPDATE, () -> {
+          backend.update(writeRange, values);
+          return null;
+        });
         return true;
       } catch (IOException e) {
         Logger.getLogger(CLASSNAME).log(Level.WARNING, e.getMessage());
@@ -280,27 +837,360 @@ public class Sheet {
   }
 
   /**
-   * setValue set the values to range
+   * write the values to many ranges in one values.batchUpdate
    * 
-   * @param values     To write to as copy from read range
-   * @param writeRange The range to write
+   * @param data the ranges and values to write
    * @return true is successful
    */
-  public boolean setValues(List<List<Object>> values, String writeRange) {
-    if (service != null)
+  public boolean batchSetValues(List<ValueRange> data) {
+    ResultJournal resultJournal = journal;
+    if (resultJournal != null && data != null)
       try {
-        // Create value list range
-        ValueRange updateValues = new ValueRange();
-        updateValues.setValues(values);
-        service.spreadsheets().values().update(sheetID, writeRange, updateValues).setValueInputOption(INPUT_OPT_USER_ENTERED)
-            .execute();
+        for (ValueRange valueRange : data)
+          resultJournal.append(valueRange.getRange(), valueRange.getValues());
         return true;
       } catch (IOException e) {
+        // The journaled part is replayed before the batch is sent directly
         Logger.getLogger(CLASSNAME).log(Level.WARNING, e.getMessage());
       }
+    // The pending writes go first, so the batch is written in order
+    flush();
+    return sendBatch(data);
+  }
+
+  /**
+   * append the rows after the table of the range in one values.append
+   * (INSERT_ROWS). The spreadsheet allocates the rows, so the writers of the
+   * same sheet do not get the same rows. The pending writes are sent first, the
+   * append is not buffered nor journaled as its rows are known from the response
+   * 
+   * @param values      the rows to append, the null cells are skipped
+   * @param appendRange the range to find the table (Ex: "Sheet1!C12:E")
+   * @return the row index of the first appended row ; -1 if failed or if the
+   *         pending writes can not be sent
+   */
+  public int appendRows(List<List<Object>> values, String appendRange) {
+    if (values == null || values.isEmpty())
+      return -1;
+    // The inserted rows move the cells below the table, the pending writes would
+    // be sent later to the moved rows
+    if (!flush())
+      return -1;
+    if (backend != null)
+      try {
+        String updatedRange = RequestScheduler.execute(sheetID, SheetMetrics.OP_VALUES_APPEND, false,
+            () -> backend.append(appendRange, values));
+        return firstRowOf(updatedRange);
+      } catch (IOException e) {
+        Logger.getLogger(CLASSNAME).log(Level.WARNING, e.getMessage());
+      }
+    return -1;
+  }
+
+  /**
+   * @param range the range in A1 notation (Ex: "Sheet1!C30:E31")
+   * @return the first row of the range (Ex: 30) ; -1 if the range has no row
+   */
+  static int firstRowOf(String range) {
+    if (range == null)
+      return -1;
+    try {
+      int row = CellRange.parse(range).getStartRow();
+      return (row > 0) ? row : -1;
+    } catch (IllegalArgumentException e) {
+      Logger.getLogger(CLASSNAME).log(Level.WARNING, e.getMessage());
+    }
+    return -1;
+  }
+
+  /**
+   * send the values.batchUpdate without the write-behind buffer
+   * 
+   * @param data the ranges and values to write
+   * @return true is successful
+   */
+  boolean sendBatch(List<ValueRange> data) {
+    if (data == null || data.isEmpty())
+      return true;
+    if (backend != null)
+      try {
+        sendBatchOrThrow(data);
+        return true;
+      } catch (IOException e) {
+        Logger.getLogger(CLASSNAME).log(Level.WARNING, e.getMessage());
+      }
+    return false;
+  }
+
+  /**
+   * send the values.batchUpdate of the write-behind buffer or of the journal. A
+   * batch which the API rejects (Ex: 400 for a deleted tab) would be rejected
+   * again, so it is sent again range by range and the rejected ranges are logged
+   * and dropped
+   * 
+   * @param data the ranges and values to write
+   * @return true if the batch is written or dropped ; false if it can be sent
+   *         again later (429, 5xx, I/O error)
+   */
+  boolean sendOrDropBatch(List<ValueRange> data) {
+    if (data == null || data.isEmpty())
+      return true;
+    try {
+      sendBatchOrThrow(data);
+      return true;
+    } catch (HttpResponseException e) {
+      if (RequestScheduler.isRetryable(e.getStatusCode())) {
+        Logger.getLogger(CLASSNAME).log(Level.WARNING, e.getMessage());
+        return false;
+      }
+      if (data.size() == 1) {
+        Logger.getLogger(CLASSNAME).log(Level.SEVERE, "Dropped the write of " + data.get(0).getRange() + " "
+            + data.get(0).getValues() + ", rejected with " + e.getStatusCode() + ": " + e.getMessage());
+        return true;
+      }
+      boolean sent = true;
+      for (ValueRange valueRange : data)
+        sent &= sendOrDropBatch(Collections.singletonList(valueRange));
+      return sent;
+    } catch (IOException e) {
+      Logger.getLogger(CLASSNAME).log(Level.WARNING, e.getMessage());
+      return false;
+    }
+  }
+
+  private void sendBatchOrThrow(List<ValueRange> data) throws IOException {
+    SheetBackend sheetBackend = requireBackend();
+    RequestScheduler.execute(sheetID, SheetMetrics.OP_VALUES_BATCH_UPDATE, () -> {
+      sheetBackend.batchUpdateValues(data);
+      return null;
+    });
+  }
+
+  /**
+   * buffer the writes and send them as one batch, see
+   * {@link #enableWriteBehind(int, long, String)}
+   * 
+   * @param maxPendingWrites    the number of pending ranges which triggers the
+   *                            flush
+   * @param flushIntervalMillis the max time a write stays pending, 0 to disable
+   */
+  public synchronized void enableWriteBehind(int maxPendingWrites, long flushIntervalMillis) {
+    if (writeBuffer != null)
+      writeBuffer.close();
+    writeBuffer = new WriteBuffer(this, maxPendingWrites, flushIntervalMillis);
+    pinned = true;
+  }
+
+  /**
+   * enable the write-behind if it is not enabled yet, without pinning the Sheet
+   * in the factory: the caller enables it again on the Sheet which is created
+   * after an eviction
+   * 
+   * @param maxPendingWrites    the number of pending ranges which triggers the
+   *                            flush
+   * @param flushIntervalMillis the max time a write stays pending, 0 to disable
+   * @param sheetID             The sheetID which can get from the google sheet URL
+   */
+  static void ensureWriteBehind(int maxPendingWrites, long flushIntervalMillis, String sheetID) {
+    Sheet foundSheet = getSheet(sheetID);
+    synchronized (foundSheet) {
+      if (foundSheet.writeBuffer == null)
+        foundSheet.writeBuffer = new WriteBuffer(foundSheet, maxPendingWrites, flushIntervalMillis);
+    }
+  }
+
+  /**
+   * journal the writes locally and return, a background thread replays the
+   * journal as values.batchUpdate. The writes which are not replayed when the JVM
+   * stops are replayed when the journal of the same directory is enabled again.
+   * The journal goes before the write-behind buffer
+   * 
+   * @param directory the directory of the journal, it is locked by this process
+   * @return true if the journal is enabled
+   */
+  public synchronized boolean enableJournal(Path directory) {
+    if (journal != null)
+      return true;
+    try {
+      journal = new ResultJournal(this, directory, ResultJournal.DEFAULT_SEGMENT_SIZE);
+      pinned = true;
+      return true;
+    } catch (IOException e) {
+      Logger.getLogger(CLASSNAME).log(Level.WARNING, e.getMessage());
+    }
     return false;
   }
 
+  /**
+   * replay the journal and stop journaling the writes
+   */
+  public synchronized void disableJournal() {
+    if (journal != null) {
+      journal.close();
+      journal = null;
+    }
+  }
+
+  /**
+   * send the pending writes and stop the journal and the write-behind buffer,
+   * the next writes are sent directly. The factory closes the evicted Sheets
+   */
+  public synchronized void close() {
+    disableJournal();
+    WriteBuffer buffer = writeBuffer;
+    writeBuffer = null;
+    if (buffer != null)
+      buffer.close();
+    RequestScheduler.release(sheetID);
+  }
+
+  /**
+   * send the pending writes, the journaled writes first
+   * 
+   * @return true if there is nothing left to write
+   */
+  public boolean flush() {
+    ResultJournal resultJournal = journal;
+    boolean replayed = (resultJournal == null) || resultJournal.flush();
+    WriteBuffer buffer = writeBuffer;
+    return ((buffer == null) || buffer.flush()) && replayed;
+  }
+
+  /**
+   * the properties of each sheet (tab) by the lower case title, null until
+   * loaded
+   */
+  private volatile Map<String, SheetProperties> tabProperties = null;
+
+  /**
+   * load the properties of the sheets (tabs), only the sheets.properties fields
+   * are requested
+   * 
+   * @return the properties by the lower case title
+   * @throws IOException when the spreadsheet can not be read
+   */
+  private synchronized Map<String, SheetProperties> loadTabProperties() throws IOException {
+    List<SheetProperties> properties = RequestScheduler.execute(sheetID, SheetMetrics.OP_SPREADSHEETS_GET,
+        () -> requireBackend().getSheetProperties());
+    Map<String, SheetProperties> loaded = new HashMap<>();
+    for (SheetProperties tab : properties)
+      loaded.put(tab.getTitle().toLowerCase(Locale.ROOT), tab);
+    tabProperties = loaded;
+    return loaded;
+  }
+
+  /**
+   * get the properties of the sheet (tab) from the cache, the cache is loaded
+   * again once when the sheet is not found
+   * 
+   * @param sheetName The sheet Name
+   * @return the properties ; null if the sheet is not found
+   * @throws IOException when the spreadsheet can not be read
+   */
+  SheetProperties getTabProperties(String sheetName) throws IOException {
+    Map<String, SheetProperties> properties = tabProperties;
+    boolean loaded = false;
+    if (properties == null) {
+      properties = loadTabProperties();
+      loaded = true;
+    }
+    SheetProperties found = properties.get(sheetName.toLowerCase(Locale.ROOT));
+    if (found == null && !loaded)
+      found = loadTabProperties().get(sheetName.toLowerCase(Locale.ROOT));
+    return found;
+  }
+
+  /**
+   * get the sheetId (the number in the URL after gid=) of the sheet (tab)
+   * 
+   * @param sheetName The sheet Name
+   * @return the sheetId ; -1 if the sheet is not found
+   * @throws IOException when the spreadsheet can not be read
+   */
+  int getTabId(String sheetName) throws IOException {
+    SheetProperties properties = getTabProperties(sheetName);
+    return (properties == null || properties.getSheetId() == null) ? -1 : properties.getSheetId();
+  }
+
+  /**
+   * drop the cached properties of the sheets (tabs), they are loaded again at
+   * the next structural operation
+   */
+  public void refreshMetadata() {
+    tabProperties = null;
+  }
+
+  /**
+   * drop the cached properties of the sheets (tabs) (static)
+   * 
+   * @param sheetID The sheetID which can get from the google sheet URL
+   */
+  public static void refreshMetadata(String sheetID) {
+    Sheet foundSheet = getSheet(sheetID);
+    if (foundSheet != null)
+      foundSheet.refreshMetadata();
+  }
+
+  /**
+   * get the number of columns of the sheet (tab), the properties are read again
+   * since the inserted and deleted columns change it
+   * 
+   * @param sheetName The sheet Name
+   * @param sheetID   The sheetID which can get from the google sheet URL
+   * @return the number of columns ; -1 if the sheet is not found
+   */
+  static int getColumnCount(String sheetName, String sheetID) {
+    Sheet foundSheet = getSheet(sheetID);
+    try {
+      foundSheet.refreshMetadata();
+      SheetProperties properties = foundSheet.getTabProperties(sheetName);
+      if (properties != null && properties.getGridProperties() != null)
+        return properties.getGridProperties().getColumnCount();
+    } catch (IOException e) {
+      Logger.getLogger(CLASSNAME).log(Level.WARNING, e.getMessage());
+    }
+    return -1;
+  }
+
+  /**
+   * send the requests as one spreadsheets.batchUpdate after the pending writes.
+   * The cached properties of the sheets are dropped when the request is rejected
+   * as not found or invalid, which is the case of a deleted or renamed sheet
+   * 
+   * @param requests the requests to send
+   * @return the response
+   * @throws IOException when the requests fail or the pending writes can not be
+   *                     sent
+   */
+  BatchUpdateSpreadsheetResponse batchUpdate(List<Request> requests) throws IOException {
+    // The pending writes go first, the requests can move their cells
+    if (!flush())
+      throw new IOException("The pending writes of " + sheetID + " can not be sent");
+    try {
+      return RequestScheduler.execute(sheetID, SheetMetrics.OP_SPREADSHEETS_BATCH_UPDATE, false,
+          () -> requireBackend().batchUpdate(requests));
+    } catch (HttpResponseException e) {
+      if (e.getStatusCode() == HTTP_BAD_REQUEST || e.getStatusCode() == HTTP_NOT_FOUND)
+        refreshMetadata();
+      throw e;
+    }
+  }
+
+  /**
+   * @return the backend
+   * @throws IOException when the backend could not be created
+   */
+  private SheetBackend requireBackend() throws IOException {
+    if (backend == null)
+      throw new IOException("The backend of " + sheetID + " is not available");
+    return backend;
+  }
+
+  static final String DIMENSION_COLUMNS = "COLUMNS";
+  static final String DIMENSION_ROWS = "ROWS";
+  static final int HTTP_BAD_REQUEST = 400;
+  static final int HTTP_NOT_FOUND = 404;
+
   /**
    * insert a column at the index
    * 
@@ -309,35 +1199,71 @@ public class Sheet {
    * @return true is successful
    */
   public boolean insertColumn(int columnIndex, String sheetName) {
-    Spreadsheet spreadsheet = null;
-    if (service != null)
-      // Get sheet id
+    // The pending writes are addressed before the column is inserted
+    flush();
+    if (backend != null)
       try {
-        spreadsheet = service.spreadsheets().get(sheetID).execute();
-
-        Integer isheetID = -1;
-        
-        for (int iSheetIndex = 0 ; iSheetIndex < spreadsheet.getSheets().size() ; iSheetIndex ++)
-          if (spreadsheet.getSheets().get(iSheetIndex).getProperties().getTitle().equalsIgnoreCase(sheetName)) {
-            isheetID = spreadsheet.getSheets().get(iSheetIndex).getProperties().getSheetId();
-            break;
-          }
-
+        int isheetID = getTabId(sheetName);
         if (isheetID >= 0) {
           // Set column insert
           DimensionRange dimentionRange = new DimensionRange();
           dimentionRange.setStartIndex(columnIndex);
           dimentionRange.setEndIndex(columnIndex + 1);
           dimentionRange.setSheetId(isheetID);
-          dimentionRange.setDimension("COLUMNS");
+          dimentionRange.setDimension(DIMENSION_COLUMNS);
 
           InsertDimensionRequest insertCol = new InsertDimensionRequest();
           insertCol.setRange(dimentionRange);
 
           // Execute to insert column
-          BatchUpdateSpreadsheetRequest r = new BatchUpdateSpreadsheetRequest()
-              .setRequests(Arrays.asList(new Request().setInsertDimension(insertCol)));
-          service.spreadsheets().batchUpdate(sheetID, r).execute();
+          batchUpdate(Arrays.asList(new Request().setInsertDimension(insertCol)));
+          return true;
+        }
+      } catch (IOException e) {
+        Logger.getLogger(CLASSNAME).log(Level.WARNING, e.getMessage());
+      }
+    return false;
+  }
+
+  /**
+   * insert a column, write the header formulas of the shifted column and the
+   * label as one spreadsheets.batchUpdate, so the column is created completely or
+   * not at all. The formulas are read before and written as their text, so the
+   * new column has the same formulas as the shifted column had (Ex:
+   * "=COUNTA(E3:E)" stays on the column E)
+   * 
+   * @param columnIndex    The index of the column to insert
+   * @param copyHeaderRows The number of the top rows to copy from the shifted
+   *                       column, 0 to copy nothing
+   * @param labelRow       The row to write the label, 0 to write no label
+   * @param label          The label of the column
+   * @param sheetName      The sheet Name to insert the column
+   * @return true is successful
+   */
+  public boolean insertColumnWithHeader(int columnIndex, int copyHeaderRows, int labelRow, String label,
+      String sheetName) {
+    // The pending writes are addressed before the column is inserted
+    flush();
+    if (backend != null)
+      try {
+        int isheetID = getTabId(sheetName);
+        if (isheetID >= 0) {
+          List<Request> requests = new ArrayList<>();
+          requests.add(new Request().setInsertDimension(new InsertDimensionRequest().setRange(new DimensionRange()
+              .setSheetId(isheetID).setDimension(DIMENSION_COLUMNS).setStartIndex(columnIndex)
+              .setEndIndex(columnIndex + 1))));
+          if (copyHeaderRows > 0)
+            requests.add(new Request().setUpdateCells(new UpdateCellsRequest()
+                .setStart(new GridCoordinate().setSheetId(isheetID).setRowIndex(0).setColumnIndex(columnIndex))
+                .setRows(readHeader(columnIndex, copyHeaderRows, sheetName)).setFields("userEnteredValue")));
+          if (labelRow > 0)
+            requests.add(new Request().setUpdateCells(new UpdateCellsRequest()
+                .setStart(new GridCoordinate().setSheetId(isheetID).setRowIndex(labelRow - 1)
+                    .setColumnIndex(columnIndex))
+                .setRows(Arrays.asList(new RowData().setValues(Arrays.asList(
+                    new CellData().setUserEnteredValue(new ExtendedValue().setStringValue(label))))))
+                .setFields("userEnteredValue")));
+          batchUpdate(requests);
           return true;
         }
       } catch (IOException e) {
@@ -345,4 +1271,218 @@ public class Sheet {
       }
     return false;
   }
+
+  /**
+   * read the formulas of the top rows of the column
+   * 
+   * @param columnIndex The index of the column
+   * @param rowCount    The number of the top rows
+   * @param sheetName   The sheet Name to read
+   * @return one row by top row, the blank cells are empty
+   * @throws IOException when the column can not be read
+   */
+  private List<RowData> readHeader(int columnIndex, int rowCount, String sheetName) throws IOException {
+    List<List<Object>> values = batchGet(
+        Arrays.asList(CellRange.of(sheetName, columnIndex, 1, columnIndex, rowCount).toA1()), ReadOptions.DEFAULT)
+            .get(0);
+    List<RowData> rows = new ArrayList<>(rowCount);
+    for (int iRow = 0; iRow < rowCount; iRow++) {
+      List<Object> row = (values != null && iRow < values.size()) ? values.get(iRow) : null;
+      rows.add(new RowData()
+          .setValues(Arrays.asList((row == null || row.isEmpty()) ? new CellData() : cellOf(row.get(0), true))));
+    }
+    return rows;
+  }
+
+  /**
+   * move the columns to the archive sheet (tab) as one spreadsheets.batchUpdate,
+   * so the columns are archived completely or not at all. Each call inserts one
+   * block at the left of the archive, before the blocks which were archived
+   * before: the first keyColumns columns of the sheet (Ex: the test names) and
+   * the archived columns after them. So each block keeps the keys of its rows
+   * when the rows of the sheet change later. The cells are pasted with their
+   * formulas and formats, the header formulas work on the archive as on the
+   * sheet. The archive is created by the first call
+   * 
+   * @param startColumn The index of the first column to archive
+   * @param endColumn   The index after the last column to archive
+   * @param keyColumns  The number of the first columns which are copied to the
+   *                    archive, Ex: the test names
+   * @param sheetName   The sheet Name to archive the columns
+   * @param archiveName The sheet Name of the archive
+   * @return true is successful
+   */
+  public boolean archiveColumns(int startColumn, int endColumn, int keyColumns, String sheetName,
+      String archiveName) {
+    if (keyColumns < 0 || startColumn < keyColumns || endColumn <= startColumn)
+      throw new IllegalArgumentException(
+          "Invalid columns to archive: " + startColumn + ":" + endColumn + ", key columns " + keyColumns);
+    // The pending writes are addressed before the columns are moved
+    flush();
+    if (backend != null)
+      try {
+        // The rows which are appended since the properties are loaded are archived
+        // too
+        refreshMetadata();
+        SheetProperties properties = getTabProperties(sheetName);
+        if (properties != null) {
+          int isheetID = properties.getSheetId();
+          int rowCount = properties.getGridProperties().getRowCount();
+          int count = endColumn - startColumn;
+          SheetProperties archive = getTabProperties(archiveName);
+          int archiveID;
+          List<Request> requests = new ArrayList<>();
+          if (archive == null) {
+            archiveID = newTabId();
+            requests.add(new Request().setAddSheet(new AddSheetRequest().setProperties(new SheetProperties()
+                .setSheetId(archiveID).setTitle(archiveName).setGridProperties(
+                    new GridProperties().setRowCount(rowCount).setColumnCount(keyColumns + count)))));
+          } else {
+            archiveID = archive.getSheetId();
+            int archiveRows = archive.getGridProperties().getRowCount();
+            if (archiveRows < rowCount)
+              requests.add(new Request().setAppendDimension(new AppendDimensionRequest().setSheetId(archiveID)
+                  .setDimension(DIMENSION_ROWS).setLength(rowCount - archiveRows)));
+            // The blocks which were archived before move right with their keys
+            requests.add(new Request().setInsertDimension(new InsertDimensionRequest().setRange(new DimensionRange()
+                .setSheetId(archiveID).setDimension(DIMENSION_COLUMNS).setStartIndex(0)
+                .setEndIndex(keyColumns + count))));
+          }
+          if (keyColumns > 0)
+            requests.add(copyColumns(isheetID, 0, keyColumns, archiveID, 0, rowCount));
+          requests.add(copyColumns(isheetID, startColumn, endColumn, archiveID, keyColumns, rowCount));
+          requests.add(new Request().setDeleteDimension(new DeleteDimensionRequest().setRange(new DimensionRange()
+              .setSheetId(isheetID).setDimension(DIMENSION_COLUMNS).setStartIndex(startColumn)
+              .setEndIndex(endColumn))));
+          batchUpdate(requests);
+          // The archive is added and the column counts are changed
+          refreshMetadata();
+          return true;
+        }
+      } catch (IOException e) {
+        Logger.getLogger(CLASSNAME).log(Level.WARNING, e.getMessage());
+      }
+    return false;
+  }
+
+  /**
+   * write the values to the sheet (tab) from the top left cell and clear the
+   * other values of the sheet as one spreadsheets.batchUpdate, the sheet is
+   * created or grown to fit the values. The text is written as it is, even when
+   * it starts with "=" (Ex: a test name)
+   * 
+   * @param values    the rows of values, Number and Boolean are written as they
+   *                  are
+   * @param sheetName The sheet Name to write
+   * @return true is successful
+   */
+  public boolean replaceValues(List<List<Object>> values, String sheetName) {
+    return replaceValues(values, sheetName, false);
+  }
+
+  /**
+   * write the values to the sheet (tab) from the top left cell and clear the
+   * other values of the sheet as one spreadsheets.batchUpdate, the sheet is
+   * created or grown to fit the values
+   * 
+   * @param values    the rows of values, Number and Boolean are written as they
+   *                  are
+   * @param sheetName The sheet Name to write
+   * @param formulas  true to write the text which starts with "=" as a formula ;
+   *                  false to write all the text as it is
+   * @return true is successful
+   */
+  public boolean replaceValues(List<List<Object>> values, String sheetName, boolean formulas) {
+    if (backend != null)
+      try {
+        int rowCount = Math.max(1, values.size());
+        int columnCount = 1;
+        List<RowData> rows = new ArrayList<>(values.size());
+        for (List<Object> row : values) {
+          columnCount = Math.max(columnCount, row.size());
+          List<CellData> cells = new ArrayList<>(row.size());
+          for (Object value : row)
+            cells.add(cellOf(value, formulas));
+          rows.add(new RowData().setValues(cells));
+        }
+        SheetProperties properties = getTabProperties(sheetName);
+        int isheetID;
+        List<Request> requests = new ArrayList<>();
+        if (properties == null) {
+          isheetID = newTabId();
+          requests.add(new Request().setAddSheet(new AddSheetRequest().setProperties(new SheetProperties()
+              .setSheetId(isheetID).setTitle(sheetName)
+              .setGridProperties(new GridProperties().setRowCount(rowCount).setColumnCount(columnCount)))));
+        } else {
+          isheetID = properties.getSheetId();
+          GridProperties grid = properties.getGridProperties();
+          if (grid.getRowCount() < rowCount)
+            requests.add(new Request().setAppendDimension(new AppendDimensionRequest().setSheetId(isheetID)
+                .setDimension(DIMENSION_ROWS).setLength(rowCount - grid.getRowCount())));
+          if (grid.getColumnCount() < columnCount)
+            requests.add(new Request().setAppendDimension(new AppendDimensionRequest().setSheetId(isheetID)
+                .setDimension(DIMENSION_COLUMNS).setLength(columnCount - grid.getColumnCount())));
+        }
+        // The cells of the range which are not in the rows are cleared
+        requests.add(new Request().setUpdateCells(new UpdateCellsRequest()
+            .setRange(new GridRange().setSheetId(isheetID)).setRows(rows).setFields("userEnteredValue")));
+        batchUpdate(requests);
+        // The sheet is added or grown
+        if (requests.size() > 1)
+          refreshMetadata();
+        return true;
+      } catch (IOException e) {
+        Logger.getLogger(CLASSNAME).log(Level.WARNING, e.getMessage());
+      }
+    return false;
+  }
+
+  /**
+   * @param value    the value, Number and Boolean are written as they are
+   * @param formulas true to write the text which starts with "=" as a formula
+   * @return the cell of the value
+   */
+  private static CellData cellOf(Object value, boolean formulas) {
+    if (value == null)
+      return new CellData();
+    ExtendedValue extendedValue = new ExtendedValue();
+    if (value instanceof Number)
+      extendedValue.setNumberValue(((Number) value).doubleValue());
+    else if (value instanceof Boolean)
+      extendedValue.setBoolValue((Boolean) value);
+    else if (formulas && value.toString().startsWith("="))
+      extendedValue.setFormulaValue(value.toString());
+    else
+      extendedValue.setStringValue(value.toString());
+    return new CellData().setUserEnteredValue(extendedValue);
+  }
+
+  /**
+   * @return the copy of the columns with their formulas and formats, the rows
+   *         from the top to rowCount
+   */
+  private static Request copyColumns(int fromTabId, int startColumn, int endColumn, int toTabId, int toColumn,
+      int rowCount) {
+    return new Request().setCopyPaste(new CopyPasteRequest()
+        .setSource(new GridRange().setSheetId(fromTabId).setStartRowIndex(0).setEndRowIndex(rowCount)
+            .setStartColumnIndex(startColumn).setEndColumnIndex(endColumn))
+        .setDestination(new GridRange().setSheetId(toTabId).setStartRowIndex(0).setEndRowIndex(rowCount)
+            .setStartColumnIndex(toColumn).setEndColumnIndex(toColumn + endColumn - startColumn))
+        .setPasteType("PASTE_NORMAL"));
+  }
+
+  /**
+   * @return the sheetId for a new sheet (tab), after the sheetIds in use
+   * @throws IOException when the spreadsheet can not be read
+   */
+  private int newTabId() throws IOException {
+    Map<String, SheetProperties> properties = tabProperties;
+    if (properties == null)
+      properties = loadTabProperties();
+    int maxId = 0;
+    for (SheetProperties tab : properties.values())
+      if (tab.getSheetId() != null)
+        maxId = Math.max(maxId, tab.getSheetId());
+    return maxId + 1;
+  }
 }
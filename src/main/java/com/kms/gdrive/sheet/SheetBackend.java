@@ -0,0 +1,83 @@
+package com.kms.gdrive.sheet;
+
+import java.io.IOException;
+import java.util.List;
+
+import com.google.api.services.sheets.v4.model.BatchUpdateSpreadsheetResponse;
+import com.google.api.services.sheets.v4.model.Request;
+import com.google.api.services.sheets.v4.model.SheetProperties;
+import com.google.api.services.sheets.v4.model.ValueRange;
+
+/**
+ * The operations of one spreadsheet which Sheet is built on. The default
+ * backend calls the Google Sheets API, InMemorySheetBackend keeps the cells in
+ * memory to run the Report workloads offline. The ranges are in A1 notation
+ * (Ex: "Sheet1!C12:C") and the values are written as USER_ENTERED
+ */
+public interface SheetBackend {
+  /**
+   * read the range
+   *
+   * @param range   the range to read
+   * @param options the value render option, the major dimension and the fields
+   * @return the values of the range
+   * @throws IOException when the range can not be read
+   */
+  ValueRange get(String range, ReadOptions options) throws IOException;
+
+  /**
+   * read many ranges in one request
+   *
+   * @param ranges  the ranges to read
+   * @param options the value render option, the major dimension and the fields
+   *                of each range
+   * @return the values of each range in the input order
+   * @throws IOException when the ranges can not be read
+   */
+  List<ValueRange> batchGet(List<String> ranges, ReadOptions options) throws IOException;
+
+  /**
+   * write the values to the range
+   *
+   * @param range  the range to write
+   * @param values the values to write
+   * @throws IOException when the values can not be written
+   */
+  void update(String range, List<List<Object>> values) throws IOException;
+
+  /**
+   * write the values to many ranges in one request
+   *
+   * @param data the ranges and values to write
+   * @throws IOException when the values can not be written
+   */
+  void batchUpdateValues(List<ValueRange> data) throws IOException;
+
+  /**
+   * append the rows after the table which is found in the range. The rows are
+   * inserted (INSERT_ROWS), so the spreadsheet allocates them and the cells below
+   * the table are moved down
+   *
+   * @param range  the range to find the table (Ex: "Sheet1!C12:E")
+   * @param values the rows to append, the null cells are skipped
+   * @return the range which the rows are written to (Ex: "Sheet1!C30:E31")
+   * @throws IOException when the rows can not be appended
+   */
+  String append(String range, List<List<Object>> values) throws IOException;
+
+  /**
+   * send the structural requests (Ex: InsertDimension) in one request, they are
+   * applied all or nothing
+   *
+   * @param requests the requests to send
+   * @return the response
+   * @throws IOException when the requests fail
+   */
+  BatchUpdateSpreadsheetResponse batchUpdate(List<Request> requests) throws IOException;
+
+  /**
+   * @return the properties of the sheets (tabs)
+   * @throws IOException when the spreadsheet can not be read
+   */
+  List<SheetProperties> getSheetProperties() throws IOException;
+}
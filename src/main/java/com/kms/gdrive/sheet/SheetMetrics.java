@@ -0,0 +1,372 @@
+package com.kms.gdrive.sheet;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.management.ObjectName;
+
+import com.kms.util.BoundedCache;
+
+/**
+ * The metrics of all the API requests and Report operations: the calls, the
+ * failures, the retries, the bytes and the latency histogram by the operation.
+ * They are exposed by the getters, by JMX as
+ * "com.kms.gdrive.sheet:type=SheetMetrics" and to the MetricsListener objects
+ */
+public class SheetMetrics {
+  private SheetMetrics() {
+    throw new IllegalStateException("Utility class");
+  }
+
+  public static final String CLASSNAME = "com.kms.gdrive.sheet.SheetMetrics";
+  public static final String MBEAN_NAME = "com.kms.gdrive.sheet:type=SheetMetrics";
+
+  // The API operations
+  public static final String OP_VALUES_GET = "values.get";
+  public static final String OP_VALUES_BATCH_GET = "values.batchGet";
+  public static final String OP_VALUES_UPDATE = "values.update";
+  public static final String OP_VALUES_BATCH_UPDATE = "values.batchUpdate";
+  public static final String OP_VALUES_APPEND = "values.append";
+  public static final String OP_SPREADSHEETS_GET = "spreadsheets.get";
+  public static final String OP_SPREADSHEETS_BATCH_UPDATE = "spreadsheets.batchUpdate";
+
+  static final String REPORT_PREFIX = "report.";
+  static final int HTTP_OK = 200;
+  static final int NO_RESPONSE = -1;
+
+  private static final ConcurrentHashMap<String, OperationMetrics> operations = new ConcurrentHashMap<>();
+  private static final List<MetricsListener> listeners = new CopyOnWriteArrayList<>();
+
+  /**
+   * the API operation of the request which the current thread is sending, to
+   * count the bytes of the HTTP request and response
+   */
+  private static final ThreadLocal<OperationMetrics> currentOperation = new ThreadLocal<>();
+
+  private static final LongAdder unknownBytesSent = new LongAdder();
+  private static final LongAdder unknownBytesReceived = new LongAdder();
+  private static final AtomicBoolean summaryAtShutdown = new AtomicBoolean();
+
+  static {
+    try {
+      ManagementFactory.getPlatformMBeanServer().registerMBean(new MXBean(), new ObjectName(MBEAN_NAME));
+    } catch (Exception e) {
+      // Another class loader has registered it, the metrics are still available by the getters
+      Logger.getLogger(CLASSNAME).log(Level.WARNING, e.getMessage());
+    }
+  }
+
+  /**
+   * @param listener the listener to call after each API request and Report
+   *                 operation
+   */
+  public static void addListener(MetricsListener listener) {
+    listeners.add(listener);
+  }
+
+  /**
+   * @param listener the listener to remove
+   */
+  public static void removeListener(MetricsListener listener) {
+    listeners.remove(listener);
+  }
+
+  /**
+   * @param name the operation name (Ex: SheetMetrics.OP_VALUES_GET)
+   * @return the metrics of the operation ; null if it is not called yet
+   */
+  public static OperationMetrics getOperation(String name) {
+    return operations.get(name);
+  }
+
+  /**
+   * @return the metrics of all the called operations by the name
+   */
+  public static Map<String, OperationMetrics> getOperations() {
+    return new TreeMap<>(operations);
+  }
+
+  /**
+   * reset all the metrics
+   */
+  public static void reset() {
+    for (OperationMetrics metrics : operations.values())
+      metrics.reset();
+    unknownBytesSent.reset();
+    unknownBytesReceived.reset();
+  }
+
+  /**
+   * @return the size, hits, misses and evictions of the Sheet and Report
+   *         factories, Ex: "sheets.evictions"
+   */
+  public static Map<String, Long> getCacheStats() {
+    Map<String, Long> stats = new TreeMap<>();
+    putCacheStats(stats, "sheets.", Sheet.getCache());
+    putCacheStats(stats, "reports.", Report.getCache());
+    return stats;
+  }
+
+  private static void putCacheStats(Map<String, Long> stats, String prefix, BoundedCache<?, ?> cache) {
+    stats.put(prefix + "size", (long) cache.size());
+    stats.put(prefix + "hits", cache.getHitCount());
+    stats.put(prefix + "misses", cache.getMissCount());
+    stats.put(prefix + "evictions", cache.getEvictionCount());
+  }
+
+  /**
+   * @return the summary table of all the operations, Ex: to print at the end of
+   *         the test suite
+   */
+  public static String getSummary() {
+    StringBuilder summary = new StringBuilder();
+    summary.append(String.format("%-36s %8s %6s %6s %6s %10s %10s %10s %10s %12s %12s%n", "operation", "calls",
+        "fail", "retry", "429", "p50 ms", "p90 ms", "p99 ms", "max ms", "bytes out", "bytes in"));
+    long calls = 0;
+    long bytesSent = unknownBytesSent.sum();
+    long bytesReceived = unknownBytesReceived.sum();
+    for (OperationMetrics metrics : getOperations().values()) {
+      summary.append(String.format("%-36s %8d %6d %6d %6d %10.1f %10.1f %10.1f %10.1f %12d %12d%n",
+          metrics.getName(), metrics.getCallCount(), metrics.getFailureCount(), metrics.getRetryCount(),
+          metrics.getThrottleCount(), millis(metrics.latencyMicros.getValueAtPercentile(50)),
+          millis(metrics.latencyMicros.getValueAtPercentile(90)),
+          millis(metrics.latencyMicros.getValueAtPercentile(99)), millis(metrics.latencyMicros.getMax()),
+          metrics.getBytesSent(), metrics.getBytesReceived()));
+      if (metrics.isApiOperation())
+        calls += metrics.getCallCount();
+      bytesSent += metrics.getBytesSent();
+      bytesReceived += metrics.getBytesReceived();
+    }
+    summary.append(String.format("API requests: %d, bytes out: %d, bytes in: %d%n", calls, bytesSent,
+        bytesReceived));
+    summary.append(String.format("Sheets: %s%nReports: %s%n", Sheet.getCache(), Report.getCache()));
+    return summary.toString();
+  }
+
+  /**
+   * log the summary at the JVM shutdown
+   */
+  public static void logSummaryAtShutdown() {
+    if (summaryAtShutdown.compareAndSet(false, true))
+      Runtime.getRuntime().addShutdownHook(new Thread(
+          () -> Logger.getLogger(CLASSNAME).log(Level.INFO, "Google Sheets metrics\n{0}", getSummary()),
+          "gsheet-metrics-summary"));
+  }
+
+  private static double millis(long micros) {
+    return micros / 1000.0;
+  }
+
+  private static OperationMetrics operation(String name, boolean apiOperation) {
+    OperationMetrics metrics = operations.get(name);
+    return (metrics != null) ? metrics
+        : operations.computeIfAbsent(name, key -> new OperationMetrics(key, apiOperation));
+  }
+
+  /**
+   * @param name the API operation name
+   * @return the metrics of the API operation
+   */
+  static OperationMetrics apiOperation(String name) {
+    return operation(name, true);
+  }
+
+  /**
+   * mark the API operation which the current thread is sending
+   *
+   * @param metrics the metrics of the API operation
+   * @return the previous operation of the thread, to pass to
+   *         {@link #endRequest(OperationMetrics)}
+   */
+  static OperationMetrics beginRequest(OperationMetrics metrics) {
+    OperationMetrics previous = currentOperation.get();
+    currentOperation.set(metrics);
+    return previous;
+  }
+
+  /**
+   * @param previous the operation which beginRequest returned
+   */
+  static void endRequest(OperationMetrics previous) {
+    if (previous == null)
+      currentOperation.remove();
+    else
+      currentOperation.set(previous);
+  }
+
+  /**
+   * record one API request
+   *
+   * @param metrics      the metrics of the API operation
+   * @param sheetID      The sheetID which can get from the google sheet URL
+   * @param latencyNanos the time of the request
+   * @param statusCode   the HTTP status ; -1 when there is no response
+   */
+  static void recordRequest(OperationMetrics metrics, String sheetID, long latencyNanos, int statusCode) {
+    metrics.record(latencyNanos);
+    for (MetricsListener listener : listeners)
+      listener.onApiRequest(metrics.getName(), sheetID, latencyNanos, statusCode);
+  }
+
+  /**
+   * record the retry of an API request
+   *
+   * @param metrics   the metrics of the API operation
+   * @param throttled true if the request is retried for the 429 response
+   */
+  static void recordRetry(OperationMetrics metrics, boolean throttled) {
+    metrics.retries.increment();
+    if (throttled)
+      metrics.throttles.increment();
+  }
+
+  /**
+   * @param bytes the bytes of the request content which the current thread sends
+   */
+  static void countBytesSent(long bytes) {
+    OperationMetrics metrics = currentOperation.get();
+    if (metrics == null)
+      unknownBytesSent.add(bytes);
+    else
+      metrics.bytesSent.add(bytes);
+  }
+
+  /**
+   * @param bytes the bytes of the response content which the current thread
+   *              receives
+   */
+  static void countBytesReceived(long bytes) {
+    OperationMetrics metrics = currentOperation.get();
+    if (metrics == null)
+      unknownBytesReceived.add(bytes);
+    else
+      metrics.bytesReceived.add(bytes);
+  }
+
+  /**
+   * run and record a Report operation. The operation fails when it throws,
+   * returns false or returns null
+   *
+   * @param <T>       the result type
+   * @param name      the Report operation name, without the "report." prefix
+   * @param operation the operation to run
+   * @return the result of the operation
+   */
+  static <T> T measure(String name, Supplier<T> operation) {
+    OperationMetrics metrics = operation(REPORT_PREFIX + name, false);
+    long start = System.nanoTime();
+    boolean success = false;
+    try {
+      T result = operation.get();
+      success = result != null && !Boolean.FALSE.equals(result);
+      return result;
+    } finally {
+      long latencyNanos = System.nanoTime() - start;
+      metrics.record(latencyNanos);
+      if (!success)
+        metrics.failures.increment();
+      for (MetricsListener listener : listeners)
+        listener.onReportOperation(metrics.getName(), latencyNanos, success);
+    }
+  }
+
+  /**
+   * the registered MBean, reading the metrics of SheetMetrics
+   */
+  private static class MXBean implements SheetMetricsMXBean {
+    @Override
+    public long getRequestCount() {
+      long count = 0;
+      for (OperationMetrics metrics : operations.values())
+        if (metrics.isApiOperation())
+          count += metrics.getCallCount();
+      return count;
+    }
+
+    @Override
+    public long getFailureCount() {
+      long count = 0;
+      for (OperationMetrics metrics : operations.values())
+        if (metrics.isApiOperation())
+          count += metrics.getFailureCount();
+      return count;
+    }
+
+    @Override
+    public long getRetryCount() {
+      long count = 0;
+      for (OperationMetrics metrics : operations.values())
+        count += metrics.getRetryCount();
+      return count;
+    }
+
+    @Override
+    public long getThrottleCount() {
+      long count = 0;
+      for (OperationMetrics metrics : operations.values())
+        count += metrics.getThrottleCount();
+      return count;
+    }
+
+    @Override
+    public long getBytesSent() {
+      long bytes = unknownBytesSent.sum();
+      for (OperationMetrics metrics : operations.values())
+        bytes += metrics.getBytesSent();
+      return bytes;
+    }
+
+    @Override
+    public long getBytesReceived() {
+      long bytes = unknownBytesReceived.sum();
+      for (OperationMetrics metrics : operations.values())
+        bytes += metrics.getBytesReceived();
+      return bytes;
+    }
+
+    @Override
+    public int getQueueDepth() {
+      return RequestScheduler.getQueueDepth();
+    }
+
+    @Override
+    public Map<String, Long> getCallCounts() {
+      Map<String, Long> counts = new TreeMap<>();
+      for (OperationMetrics metrics : operations.values())
+        counts.put(metrics.getName(), metrics.getCallCount());
+      return counts;
+    }
+
+    @Override
+    public Map<String, Double> getLatencyP99Millis() {
+      Map<String, Double> latencies = new TreeMap<>();
+      for (OperationMetrics metrics : operations.values())
+        latencies.put(metrics.getName(), millis(metrics.latencyMicros.getValueAtPercentile(99)));
+      return latencies;
+    }
+
+    @Override
+    public Map<String, Long> getCacheStats() {
+      return SheetMetrics.getCacheStats();
+    }
+
+    @Override
+    public String getSummary() {
+      return SheetMetrics.getSummary();
+    }
+
+    @Override
+    public void reset() {
+      SheetMetrics.reset();
+    }
+  }
+}
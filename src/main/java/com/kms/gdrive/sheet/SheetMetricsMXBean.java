@@ -0,0 +1,71 @@
+package com.kms.gdrive.sheet;
+
+import java.util.Map;
+
+/**
+ * The JMX view of SheetMetrics, registered as
+ * "com.kms.gdrive.sheet:type=SheetMetrics"
+ */
+public interface SheetMetricsMXBean {
+  /**
+   * @return the number of the API requests, including the retries
+   */
+  long getRequestCount();
+
+  /**
+   * @return the number of the API calls which failed after the retries
+   */
+  long getFailureCount();
+
+  /**
+   * @return the number of the retries
+   */
+  long getRetryCount();
+
+  /**
+   * @return the number of the 429 responses
+   */
+  long getThrottleCount();
+
+  /**
+   * @return the bytes of the request content
+   */
+  long getBytesSent();
+
+  /**
+   * @return the bytes of the response content
+   */
+  long getBytesReceived();
+
+  /**
+   * @return the number of calls which are waiting for the rate limit or the
+   *         backoff
+   */
+  int getQueueDepth();
+
+  /**
+   * @return the number of calls by the operation
+   */
+  Map<String, Long> getCallCounts();
+
+  /**
+   * @return the 99th percentile latency in milliseconds by the operation
+   */
+  Map<String, Double> getLatencyP99Millis();
+
+  /**
+   * @return the size, hits, misses and evictions of the Sheet and Report
+   *         factories
+   */
+  Map<String, Long> getCacheStats();
+
+  /**
+   * @return the summary table of all the operations
+   */
+  String getSummary();
+
+  /**
+   * reset all the metrics
+   */
+  void reset();
+}
@@ -0,0 +1,47 @@
+package com.kms.gdrive.sheet;
+
+import java.util.List;
+
+/**
+ * One row which is read by Sheet.streamRows, the values are in the order of the
+ * requested columns
+ */
+public class SheetRow {
+  private final int rowIndex;
+  private final List<Object> values;
+
+  /**
+   * Constructor for SheetRow
+   *
+   * @param rowIndex the row index in the sheet
+   * @param values   the values of the requested columns, null for blank cells
+   */
+  SheetRow(int rowIndex, List<Object> values) {
+    this.rowIndex = rowIndex;
+    this.values = values;
+  }
+
+  /**
+   * @return the row index in the sheet
+   */
+  public int getRowIndex() {
+    return rowIndex;
+  }
+
+  /**
+   * @param colIndex the index in the requested columns
+   * @return the trimmed value as String ; null if blank
+   */
+  public String getValue(int colIndex) {
+    if (colIndex >= values.size() || values.get(colIndex) == null)
+      return null;
+    return values.get(colIndex).toString().trim();
+  }
+
+  /**
+   * @return the raw values of the requested columns
+   */
+  public List<Object> getValues() {
+    return values;
+  }
+}
@@ -0,0 +1,123 @@
+package com.kms.gdrive.sheet;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Compute the history of each test from the result columns of a report sheet
+ * in memory, instead of the formulas which the spreadsheet recalculates after
+ * each write. A result is passed or skipped by its text (Ex: "PASS" or "SKIP"),
+ * the other texts are failed and the blank cells are the runs without the test
+ */
+public class TestHistory {
+  private TestHistory() {
+    throw new IllegalStateException("Utility class");
+  }
+
+  public static final String PASS = "PASS";
+  public static final String FAIL = "FAIL";
+  public static final String SKIP = "SKIP";
+
+  /**
+   * the tests which are computed in parallel from this number
+   */
+  static final int PARALLEL_MIN_TESTS = 1024;
+
+  private static volatile Set<String> passResults = upperCase(Arrays.asList(PASS, "PASSED", "OK", "SUCCESS"));
+  private static volatile Set<String> skipResults = upperCase(Arrays.asList(SKIP, "SKIPPED", "IGNORED", "N/A"));
+
+  /**
+   * set the texts of the passed and skipped results, the case is ignored
+   *
+   * @param passResults the passed results, default is PASS, PASSED, OK and
+   *                    SUCCESS
+   * @param skipResults the results which are not counted, default is SKIP,
+   *                    SKIPPED, IGNORED and N/A
+   */
+  public static void setResultValues(Collection<String> passResults, Collection<String> skipResults) {
+    TestHistory.passResults = upperCase(passResults);
+    TestHistory.skipResults = upperCase(skipResults);
+  }
+
+  /**
+   * compute the history of each test, the tests are computed in parallel when
+   * they are many
+   *
+   * @param names     the test names of the rows from startRow
+   * @param startRow  the row of the first name
+   * @param runs      the results of each run from the newest, each run has the
+   *                  rows from startRow
+   * @param runLabels the label of each run, in the order of runs
+   * @return the history of each named row, in the order of the rows
+   */
+  public static List<TestStats> analyze(List<Object> names, int startRow, List<List<Object>> runs,
+      List<String> runLabels) {
+    IntStream rows = IntStream.range(0, names.size());
+    if (names.size() >= PARALLEL_MIN_TESTS)
+      rows = rows.parallel();
+    return rows.mapToObj(index -> analyzeRow(names, index, startRow, runs, runLabels)).filter(Objects::nonNull)
+        .collect(Collectors.toList());
+  }
+
+  /**
+   * @param result the result of a run
+   * @return 1 if passed, -1 if failed ; 0 if the test did not run or is skipped
+   */
+  static int outcomeOf(Object result) {
+    if (result == null)
+      return 0;
+    String text = result.toString().trim().toUpperCase(Locale.ROOT);
+    if (text.isEmpty() || skipResults.contains(text))
+      return 0;
+    return passResults.contains(text) ? 1 : -1;
+  }
+
+  private static TestStats analyzeRow(List<Object> names, int index, int startRow, List<List<Object>> runs,
+      List<String> runLabels) {
+    Object name = names.get(index);
+    if (name == null || name.toString().trim().isEmpty())
+      return null;
+    int count = 0;
+    int passes = 0;
+    int flips = 0;
+    int streak = 0;
+    int last = 0;
+    String firstFailure = null;
+    // From the oldest run, so the streak is the one of the newest runs
+    for (int run = runs.size() - 1; run >= 0; run--) {
+      List<Object> results = runs.get(run);
+      int outcome = outcomeOf((index < results.size()) ? results.get(index) : null);
+      if (outcome == 0)
+        continue;
+      count++;
+      if (outcome > 0)
+        passes++;
+      else if (firstFailure == null)
+        firstFailure = (run < runLabels.size()) ? runLabels.get(run) : null;
+      if (last != 0 && outcome != last) {
+        flips++;
+        streak = 0;
+      }
+      streak++;
+      last = outcome;
+    }
+    return new TestStats(name.toString().trim(), startRow + index, count, passes, flips, last > 0, streak,
+        firstFailure);
+  }
+
+  private static Set<String> upperCase(Collection<String> values) {
+    Set<String> upper = new HashSet<>();
+    if (values != null)
+      for (String value : values)
+        upper.add(value.trim().toUpperCase(Locale.ROOT));
+    return Collections.unmodifiableSet(upper);
+  }
+}
@@ -0,0 +1,186 @@
+package com.kms.gdrive.sheet;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import com.kms.util.StringUtils;
+
+/**
+ * In-memory index of the test name column of one sheet (tab). It is built from one read of the name and
+ * result columns and then kept up to date by Report, so the lookups do not go back to the Google API.
+ * The index is the lock of its sheet, Report finds and allocates the rows while holding it
+ */
+class TestNameIndex {
+  /**
+   * the columns and start row which the index is built for
+   */
+  final String nameCol;
+  final String resultCol;
+  final int startRow;
+
+  /**
+   * the ordered row indexes by the normalized test name
+   */
+  private final Map<String, List<Integer>> rowsByName = new HashMap<>();
+
+  /**
+   * the rows which already have the result in the result column
+   */
+  private final BitSet resultRows = new BitSet();
+
+  /**
+   * the max Row which the Test Name is not empty
+   */
+  private int maxRowIndex = 1;
+
+  /**
+   * Constructor for TestNameIndex
+   *
+   * @param nameCol   the test name column (Ex: "C")
+   * @param resultCol the test result column (Ex: "E")
+   * @param startRow  the first row of the test names
+   */
+  TestNameIndex(String nameCol, String resultCol, int startRow) {
+    this.nameCol = nameCol;
+    this.resultCol = resultCol;
+    this.startRow = startRow;
+  }
+
+  /**
+   * check if the index is built for the current Report configuration
+   *
+   * @param nameCol   the test name column
+   * @param resultCol the test result column
+   * @param startRow  the first row of the test names
+   * @return true if the index can be used for the configuration
+   */
+  boolean isBuiltFor(String nameCol, String resultCol, int startRow) {
+    return this.startRow == startRow && this.nameCol.equalsIgnoreCase(nameCol)
+        && this.resultCol.equalsIgnoreCase(resultCol);
+  }
+
+  /**
+   * load the index from the rows of the name and result columns
+   *
+   * @param rows the rows which the first value is the name and the second value
+   *             is the result
+   */
+  synchronized void load(Iterator<SheetRow> rows) {
+    while (rows.hasNext()) {
+      SheetRow row = rows.next();
+      String scanName = row.getValue(0);
+      if (!StringUtils.isEmpty(scanName)) {
+        addRow(scanName, row.getRowIndex());
+        if (!StringUtils.isEmpty(row.getValue(1)))
+          resultRows.set(row.getRowIndex());
+      }
+    }
+  }
+
+  /**
+   * find the first row of the test
+   *
+   * @param tcName              The test name to find
+   * @param allowExistingResult TRUE: find Test which has result or not; FALSE:
+   *                            find the test which does not has Result
+   * @return The row index of the found test ; -1 if not found
+   */
+  synchronized int findRow(String tcName, boolean allowExistingResult) {
+    for (int row : rowsOf(tcName))
+      if (allowExistingResult || !resultRows.get(row))
+        return row;
+    return -1;
+  }
+
+  /**
+   * find the row of the n-th occurrence of the test
+   *
+   * @param tcName     The test name to find
+   * @param occurrence the zero based occurrence of the test name
+   * @return The row index of the found test ; -1 if not found
+   */
+  synchronized int findOccurrence(String tcName, int occurrence) {
+    List<Integer> rows = rowsOf(tcName);
+    return (occurrence >= 0 && occurrence < rows.size()) ? rows.get(occurrence) : -1;
+  }
+
+  /**
+   * @return the row which the next new test will be written
+   */
+  synchronized int nextNewRow() {
+    return Math.max(maxRowIndex, startRow) + 1;
+  }
+
+  /**
+   * record the test name at the row
+   *
+   * @param tcName The test name
+   * @param row    The row index of the test
+   */
+  synchronized void addRow(String tcName, int row) {
+    List<Integer> rows = rowsByName.computeIfAbsent(normalize(tcName), key -> new ArrayList<>(1));
+    int insertAt = rows.size();
+    while (insertAt > 0 && rows.get(insertAt - 1) > row)
+      insertAt--;
+    rows.add(insertAt, row);
+    if (row > maxRowIndex)
+      maxRowIndex = row;
+  }
+
+  /**
+   * record that the row has the result
+   *
+   * @param row The row index of the test
+   */
+  synchronized void markResult(int row) {
+    resultRows.set(row);
+  }
+
+  /**
+   * move the rows from the row to the end, using when the rows which the index
+   * allocated are appended to other rows by the spreadsheet
+   *
+   * @param fromRow the first row to move
+   * @param offset  the number of rows to move, negative to move up
+   */
+  synchronized void moveRows(int fromRow, int offset) {
+    if (offset == 0)
+      return;
+    for (List<Integer> rows : rowsByName.values())
+      for (int iRow = 0; iRow < rows.size(); iRow++)
+        if (rows.get(iRow) >= fromRow)
+          rows.set(iRow, rows.get(iRow) + offset);
+    BitSet moved = resultRows.get(fromRow, Math.max(fromRow, resultRows.length()));
+    resultRows.clear(fromRow, Math.max(fromRow, resultRows.length()));
+    for (int row = moved.nextSetBit(0); row >= 0; row = moved.nextSetBit(row + 1))
+      resultRows.set(fromRow + row + offset);
+    if (maxRowIndex >= fromRow)
+      maxRowIndex += offset;
+  }
+
+  /**
+   * forget all the results, using after a new result column is inserted
+   */
+  synchronized void clearResults() {
+    resultRows.clear();
+  }
+
+  private List<Integer> rowsOf(String tcName) {
+    List<Integer> rows = rowsByName.get(normalize(tcName));
+    return (rows == null) ? Collections.emptyList() : rows;
+  }
+
+  /**
+   * @param name the test name
+   * @return the key of the test name in the index
+   */
+  static String normalize(String name) {
+    return name.trim().toLowerCase(Locale.ROOT);
+  }
+}
@@ -1,41 +1,35 @@
 package com.kms.gdrive.sheet;
 
-import java.util.ArrayList;
+import com.kms.util.StringIntMap;
 
+/**
+ * Count the results which are written for each test of one sheet (tab), using
+ * to find the row of the next result in the existing result column
+ */
 class TestResult {
-  String name = null;
-  int index = -1;
-
-  public int getIndex() {
-    return index;
-  }
-
-  String result = null;
-
-  public TestResult(String name, String result, int index) {
-    this.name = name;
-    this.result = result;
-    this.index = index;
-  }
-
-  public boolean isName(String name) {
-    if (this.name != null && name != null)
-      return this.name.equalsIgnoreCase(name);
-    return false;
-  }
-
-  // FACTORY
-  static ArrayList<TestResult> results = new ArrayList<>();
-
-  public static int findTheTestIndex(String name) {
-    for (int iExistingResult = (results.size() - 1); iExistingResult >= 0; iExistingResult--)
-      if (results.get(iExistingResult).isName(name))
-        return results.get(iExistingResult).getIndex();
-    return -1;
+  /**
+   * the number of results by the normalized test name
+   */
+  private final StringIntMap resultCounts = new StringIntMap();
+
+  /**
+   * @param name the test name
+   * @return the zero based index of the last result of the test ; -1 if the
+   *         test does not have result
+   */
+  public synchronized int findTheTestIndex(String name) {
+    if (name == null)
+      return -1;
+    return resultCounts.get(TestNameIndex.normalize(name)) - 1;
   }
 
-  public static void addNew(String name, String result) {
-    int foundIndex = findTheTestIndex(name) + 1;
-    results.add(new TestResult(name, result, foundIndex));
+  /**
+   * record a new result of the test
+   *
+   * @param name the test name
+   */
+  public synchronized void addNew(String name) {
+    if (name != null)
+      resultCounts.add(TestNameIndex.normalize(name), 1);
   }
-}
\ No newline at end of file
+}
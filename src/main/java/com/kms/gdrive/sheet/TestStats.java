@@ -0,0 +1,138 @@
+package com.kms.gdrive.sheet;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The history of one test over the last runs, computed by TestHistory from the
+ * result columns of the report sheet. The runs which have no result or a
+ * skipped result are not counted
+ */
+public class TestStats {
+  /**
+   * the columns of the summary sheet, see {@link #toRow()}
+   */
+  static final List<Object> HEADER = Arrays.asList("Test", "Row", "Runs", "Passed", "Failed", "Pass rate", "Flips",
+      "Last result", "Streak", "First failure");
+
+  private final String name;
+  private final int rowIndex;
+  private final int runs;
+  private final int passes;
+  private final int flips;
+  private final boolean lastPassed;
+  private final int streak;
+  private final String firstFailure;
+
+  /**
+   * Constructor for TestStats
+   *
+   * @param name         the test name
+   * @param rowIndex     the row of the test in the report sheet
+   * @param runs         the runs which have a result
+   * @param passes       the passed runs
+   * @param flips        the changes between passed and failed from one run to
+   *                     the next
+   * @param lastPassed   true if the newest result is passed
+   * @param streak       the newest runs which have the same result
+   * @param firstFailure the label of the oldest failed run ; null if the test
+   *                     did not fail
+   */
+  TestStats(String name, int rowIndex, int runs, int passes, int flips, boolean lastPassed, int streak,
+      String firstFailure) {
+    this.name = name;
+    this.rowIndex = rowIndex;
+    this.runs = runs;
+    this.passes = passes;
+    this.flips = flips;
+    this.lastPassed = lastPassed;
+    this.streak = streak;
+    this.firstFailure = firstFailure;
+  }
+
+  /**
+   * @return the test name
+   */
+  public String getName() {
+    return name;
+  }
+
+  /**
+   * @return the row of the test in the report sheet
+   */
+  public int getRowIndex() {
+    return rowIndex;
+  }
+
+  /**
+   * @return the runs which have a result
+   */
+  public int getRuns() {
+    return runs;
+  }
+
+  /**
+   * @return the passed runs
+   */
+  public int getPasses() {
+    return passes;
+  }
+
+  /**
+   * @return the failed runs
+   */
+  public int getFailures() {
+    return runs - passes;
+  }
+
+  /**
+   * @return the passed runs by the runs, 0 to 1 ; 0 if the test has no result
+   */
+  public double getPassRate() {
+    return (runs == 0) ? 0 : (double) passes / runs;
+  }
+
+  /**
+   * @return the changes between passed and failed from one run to the next, the
+   *         flaky tests have many
+   */
+  public int getFlips() {
+    return flips;
+  }
+
+  /**
+   * @return true if the newest result is passed
+   */
+  public boolean isLastPassed() {
+    return lastPassed;
+  }
+
+  /**
+   * @return the newest runs which have the same result as the newest run
+   */
+  public int getStreak() {
+    return streak;
+  }
+
+  /**
+   * @return the label of the oldest failed run ; null if the test did not fail
+   */
+  public String getFirstFailure() {
+    return firstFailure;
+  }
+
+  /**
+   * @return the values of the summary sheet, in the order of the header
+   */
+  List<Object> toRow() {
+    return Arrays.asList(name, rowIndex, runs, passes, getFailures(), getPassRate(), flips,
+        (runs == 0) ? "" : (lastPassed ? TestHistory.PASS : TestHistory.FAIL), streak,
+        (firstFailure == null) ? "" : firstFailure);
+  }
+
+  @Override
+  public String toString() {
+    return name + " (row " + rowIndex + "): " + passes + "/" + runs + " passed, " + flips + " flips, "
+        + ((runs == 0) ? "no result" : (lastPassed ? TestHistory.PASS : TestHistory.FAIL) + " x" + streak);
+  }
+}
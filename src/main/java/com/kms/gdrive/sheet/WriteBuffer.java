@@ -0,0 +1,165 @@
+package com.kms.gdrive.sheet;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import com.google.api.services.sheets.v4.model.ValueRange;
+
+/**
+ * Write-behind buffer of a Sheet. The pending writes are collected by range and
+ * sent as one values.batchUpdate when the size threshold is hit, when the flush
+ * interval expires, on flush() or at the JVM shutdown
+ */
+class WriteBuffer {
+  /**
+   * the single daemon thread which flushes the buffers on the interval
+   */
+  private static final ScheduledExecutorService FLUSHER = Executors.newSingleThreadScheduledExecutor(runnable -> {
+    Thread flusher = new Thread(runnable, "gsheet-write-behind");
+    flusher.setDaemon(true);
+    return flusher;
+  });
+
+  /**
+   * all the buffers which are flushed by the shutdown hook
+   */
+  private static final Set<WriteBuffer> BUFFERS = Collections.newSetFromMap(new ConcurrentHashMap<>());
+
+  static {
+    Runtime.getRuntime().addShutdownHook(new Thread(WriteBuffer::flushAll, "gsheet-write-behind-shutdown"));
+  }
+
+  /**
+   * flush all the buffers
+   *
+   * @return true if there is nothing left to write
+   */
+  static boolean flushAll() {
+    boolean flushed = true;
+    for (WriteBuffer buffer : BUFFERS)
+      flushed &= buffer.flush();
+    return flushed;
+  }
+
+  private final Sheet sheet;
+  private final int maxPendingWrites;
+  private final long flushIntervalMillis;
+
+  /**
+   * the pending values by the write range, in the order of the last write
+   */
+  private LinkedHashMap<String, List<List<Object>>> pending = new LinkedHashMap<>();
+  private ScheduledFuture<?> scheduledFlush = null;
+  private boolean closed = false;
+
+  /**
+   * keep the batches in order when the flushes are called from many threads
+   */
+  private final Object flushLock = new Object();
+
+  /**
+   * Constructor for WriteBuffer
+   *
+   * @param sheet               the Sheet to write the batches
+   * @param maxPendingWrites    flush when the number of pending ranges reaches
+   *                            this size
+   * @param flushIntervalMillis flush the pending writes after this time, 0 to
+   *                            flush by size and flush() only
+   */
+  WriteBuffer(Sheet sheet, int maxPendingWrites, long flushIntervalMillis) {
+    this.sheet = sheet;
+    this.maxPendingWrites = Math.max(1, maxPendingWrites);
+    this.flushIntervalMillis = flushIntervalMillis;
+    BUFFERS.add(this);
+  }
+
+  /**
+   * add the values to write, the previous pending values of the same range are
+   * replaced
+   *
+   * @param writeRange The range to write
+   * @param values     the values to write
+   */
+  void add(String writeRange, List<List<Object>> values) {
+    boolean full;
+    synchronized (this) {
+      pending.remove(writeRange);
+      pending.put(writeRange, values);
+      full = pending.size() >= maxPendingWrites;
+      if (!full && scheduledFlush == null && flushIntervalMillis > 0)
+        scheduledFlush = FLUSHER.schedule(this::flush, flushIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+    if (full)
+      flush();
+  }
+
+  /**
+   * @return the number of pending ranges
+   */
+  synchronized int size() {
+    return pending.size();
+  }
+
+  /**
+   * send all the pending writes as one values.batchUpdate. The failed writes are
+   * kept for the next flush unless they are written again meanwhile, the writes
+   * which the API rejects are dropped, see {@link Sheet#sendOrDropBatch(List)}
+   *
+   * @return true if there is nothing left to write
+   */
+  boolean flush() {
+    synchronized (flushLock) {
+      LinkedHashMap<String, List<List<Object>>> batch;
+      synchronized (this) {
+        if (scheduledFlush != null) {
+          scheduledFlush.cancel(false);
+          scheduledFlush = null;
+        }
+        if (pending.isEmpty())
+          return true;
+        batch = pending;
+        pending = new LinkedHashMap<>();
+      }
+
+      List<ValueRange> data = new ArrayList<>(batch.size());
+      for (Map.Entry<String, List<List<Object>>> entry : batch.entrySet())
+        data.add(new ValueRange().setRange(entry.getKey()).setValues(entry.getValue()));
+      if (sheet.sendOrDropBatch(data))
+        return true;
+
+      synchronized (this) {
+        LinkedHashMap<String, List<List<Object>>> retry = new LinkedHashMap<>(batch);
+        for (Map.Entry<String, List<List<Object>>> entry : pending.entrySet()) {
+          retry.remove(entry.getKey());
+          retry.put(entry.getKey(), entry.getValue());
+        }
+        pending = retry;
+        // The failed writes are sent again by the timer, the run may not write
+        // anymore
+        if (!closed && scheduledFlush == null && flushIntervalMillis > 0)
+          scheduledFlush = FLUSHER.schedule(this::flush, flushIntervalMillis, TimeUnit.MILLISECONDS);
+      }
+      return false;
+    }
+  }
+
+  /**
+   * flush and stop flushing this buffer
+   */
+  void close() {
+    synchronized (this) {
+      closed = true;
+    }
+    flush();
+    BUFFERS.remove(this);
+  }
+}
@@ -0,0 +1,315 @@
+package com.kms.util;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * The cache which is bounded by the number of entries and by the idle time. The
+ * least recently used entry is evicted when the cache is full, the entries which
+ * are not used for the idle time are evicted at the next access. Each value is
+ * created once: the other threads which get the same key wait for it. The
+ * evicted values are passed to the eviction listener, out of the lock of the
+ * cache
+ *
+ * @param <K> the key type
+ * @param <V> the value type
+ */
+public class BoundedCache<K, V> {
+  public static final String CLASSNAME = "com.kms.util.BoundedCache";
+
+  /**
+   * one entry, the value is done when it is created
+   */
+  private static class Node<V> {
+    final CompletableFuture<V> value = new CompletableFuture<>();
+    long lastAccessNanos;
+  }
+
+  /**
+   * the entries from the least to the most recently used
+   */
+  private final LinkedHashMap<K, Node<V>> entries = new LinkedHashMap<>(16, 0.75f, true);
+  private final BiConsumer<? super K, ? super V> evictionListener;
+  private final Predicate<? super V> evictable;
+
+  private int maxSize;
+  private long idleNanos;
+
+  private long hitCount = 0;
+  private long missCount = 0;
+  private long evictionCount = 0;
+
+  /**
+   * Constructor for BoundedCache
+   *
+   * @param maxSize          the max number of entries
+   * @param idleMillis       the time an entry is kept without access ; 0 to keep
+   *                         it until the cache is full
+   * @param evictionListener called with each evicted entry ; null for none
+   * @param evictable        the values which can be evicted, Ex: to keep the
+   *                         value which holds a resource ; null for all
+   */
+  public BoundedCache(int maxSize, long idleMillis, BiConsumer<? super K, ? super V> evictionListener,
+      Predicate<? super V> evictable) {
+    this.evictionListener = evictionListener;
+    this.evictable = evictable;
+    setLimits(maxSize, idleMillis);
+  }
+
+  /**
+   * change the limits, the entries over the new limits are evicted at the next
+   * access
+   *
+   * @param maxSize    the max number of entries
+   * @param idleMillis the time an entry is kept without access ; 0 to keep it
+   *                   until the cache is full
+   */
+  public synchronized void setLimits(int maxSize, long idleMillis) {
+    if (maxSize < 1 || idleMillis < 0)
+      throw new IllegalArgumentException("Invalid cache limits: " + maxSize + ", " + idleMillis);
+    this.maxSize = maxSize;
+    this.idleNanos = idleMillis * 1_000_000L;
+  }
+
+  /**
+   * get the value of the key, create it if it is not in the cache
+   *
+   * @param key     the key
+   * @param creator create the value of the key, it should not return null
+   * @return the value
+   */
+  public V get(K key, Function<? super K, ? extends V> creator) {
+    Node<V> node;
+    boolean created = false;
+    List<Map.Entry<K, Node<V>>> evicted;
+    synchronized (this) {
+      long now = System.nanoTime();
+      evicted = evictIdle(now);
+      node = entries.get(key);
+      if (node == null) {
+        node = new Node<>();
+        entries.put(key, node);
+        missCount++;
+        created = true;
+        evictOverflow(evicted, node);
+      } else
+        hitCount++;
+      node.lastAccessNanos = now;
+    }
+    if (created)
+      try {
+        node.value.complete(creator.apply(key));
+      } catch (RuntimeException | Error e) {
+        synchronized (this) {
+          entries.remove(key, node);
+        }
+        node.value.completeExceptionally(e);
+      }
+    notifyEvicted(evicted);
+    return valueOf(node);
+  }
+
+  /**
+   * @param key the key
+   * @return the value ; null if the key is not in the cache
+   */
+  public V getIfPresent(K key) {
+    Node<V> node;
+    synchronized (this) {
+      node = entries.get(key);
+      if (node == null)
+        return null;
+      node.lastAccessNanos = System.nanoTime();
+    }
+    return valueOf(node);
+  }
+
+  /**
+   * remove the key, the eviction listener is not called
+   *
+   * @param key the key
+   * @return the removed value ; null if the key is not in the cache or its value
+   *         is not created yet
+   */
+  public V remove(K key) {
+    Node<V> node;
+    synchronized (this) {
+      node = entries.remove(key);
+    }
+    return (node == null || !node.value.isDone() || node.value.isCompletedExceptionally()) ? null
+        : node.value.join();
+  }
+
+  /**
+   * evict the idle entries now, Ex: from a scheduled task of a service which is
+   * not called
+   */
+  public void cleanUp() {
+    List<Map.Entry<K, Node<V>>> evicted;
+    synchronized (this) {
+      evicted = evictIdle(System.nanoTime());
+      evictOverflow(evicted, null);
+    }
+    notifyEvicted(evicted);
+  }
+
+  /**
+   * evict all the evictable entries
+   */
+  public void evictAll() {
+    List<Map.Entry<K, Node<V>>> evicted = new ArrayList<>();
+    synchronized (this) {
+      Iterator<Map.Entry<K, Node<V>>> iterator = entries.entrySet().iterator();
+      while (iterator.hasNext()) {
+        Map.Entry<K, Node<V>> entry = iterator.next();
+        if (isEvictable(entry.getValue())) {
+          iterator.remove();
+          evicted.add(entry);
+          evictionCount++;
+        }
+      }
+    }
+    notifyEvicted(evicted);
+  }
+
+  /**
+   * @return the values which are created, from the least to the most recently
+   *         used
+   */
+  public List<V> values() {
+    List<Node<V>> nodes;
+    synchronized (this) {
+      nodes = new ArrayList<>(entries.values());
+    }
+    List<V> values = new ArrayList<>(nodes.size());
+    for (Node<V> node : nodes)
+      if (node.value.isDone() && !node.value.isCompletedExceptionally())
+        values.add(node.value.join());
+    return values;
+  }
+
+  /**
+   * @return the number of entries
+   */
+  public synchronized int size() {
+    return entries.size();
+  }
+
+  /**
+   * @return the number of the gets which found the key
+   */
+  public synchronized long getHitCount() {
+    return hitCount;
+  }
+
+  /**
+   * @return the number of the gets which created the value
+   */
+  public synchronized long getMissCount() {
+    return missCount;
+  }
+
+  /**
+   * @return the number of the evicted entries
+   */
+  public synchronized long getEvictionCount() {
+    return evictionCount;
+  }
+
+  @Override
+  public synchronized String toString() {
+    return "size=" + entries.size() + "/" + maxSize + ", hits=" + hitCount + ", misses=" + missCount
+        + ", evictions=" + evictionCount;
+  }
+
+  /**
+   * remove the entries which are idle, has to be called while holding the lock
+   */
+  private List<Map.Entry<K, Node<V>>> evictIdle(long now) {
+    List<Map.Entry<K, Node<V>>> evicted = new ArrayList<>();
+    if (idleNanos == 0)
+      return evicted;
+    Iterator<Map.Entry<K, Node<V>>> iterator = entries.entrySet().iterator();
+    while (iterator.hasNext()) {
+      Map.Entry<K, Node<V>> entry = iterator.next();
+      // The entries are in the access order, the next ones are not idle
+      if (now - entry.getValue().lastAccessNanos < idleNanos)
+        break;
+      if (isEvictable(entry.getValue())) {
+        iterator.remove();
+        evicted.add(entry);
+        evictionCount++;
+      }
+    }
+    return evicted;
+  }
+
+  /**
+   * remove the least recently used entries over the max size, has to be called
+   * while holding the lock
+   *
+   * @param added the entry which is added, it is kept even if the other entries
+   *              are not evictable ; null for none
+   */
+  private void evictOverflow(List<Map.Entry<K, Node<V>>> evicted, Node<V> added) {
+    Iterator<Map.Entry<K, Node<V>>> iterator = entries.entrySet().iterator();
+    int overflow = entries.size() - maxSize;
+    while (overflow > 0 && iterator.hasNext()) {
+      Map.Entry<K, Node<V>> entry = iterator.next();
+      if (entry.getValue() != added && isEvictable(entry.getValue())) {
+        iterator.remove();
+        evicted.add(entry);
+        evictionCount++;
+        overflow--;
+      }
+    }
+  }
+
+  /**
+   * the value which is being created is evictable, the listener gets it when it
+   * is created
+   */
+  private boolean isEvictable(Node<V> node) {
+    if (evictable == null || !node.value.isDone())
+      return true;
+    return node.value.isCompletedExceptionally() || evictable.test(node.value.join());
+  }
+
+  private void notifyEvicted(List<Map.Entry<K, Node<V>>> evicted) {
+    if (evictionListener == null)
+      return;
+    for (Map.Entry<K, Node<V>> entry : evicted)
+      entry.getValue().value.thenAccept(value -> {
+        try {
+          evictionListener.accept(entry.getKey(), value);
+        } catch (RuntimeException e) {
+          Logger.getLogger(CLASSNAME).log(Level.WARNING, e.getMessage());
+        }
+      });
+  }
+
+  private static <V> V valueOf(Node<V> node) {
+    try {
+      return node.value.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new CompletionException(e);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof Error)
+        throw (Error) e.getCause();
+      throw (e.getCause() instanceof RuntimeException) ? (RuntimeException) e.getCause()
+          : new CompletionException(e.getCause());
+    }
+  }
+}
@@ -0,0 +1,101 @@
+package com.kms.util;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Run the tasks on a bounded pool of threads. The tasks of the same key run one
+ * after another in the submitted order, the tasks of the different keys run in
+ * parallel. The submit blocks when maxPendingTasks tasks are not finished yet
+ */
+public class KeyedTaskQueue {
+  private final ExecutorService executor;
+  private final Semaphore pendingPermits;
+  private final int maxPendingTasks;
+
+  /**
+   * the last submitted task of each key, the next task of the key runs after it
+   */
+  private final ConcurrentHashMap<String, CompletableFuture<?>> tails = new ConcurrentHashMap<>();
+
+  /**
+   * Constructor for KeyedTaskQueue
+   *
+   * @param threadCount     the number of threads to run the tasks
+   * @param maxPendingTasks the max number of submitted and not finished tasks
+   * @param threadName      the prefix of the thread names
+   */
+  public KeyedTaskQueue(int threadCount, int maxPendingTasks, String threadName) {
+    final AtomicInteger threadIndex = new AtomicInteger();
+    ThreadFactory threadFactory = runnable -> {
+      Thread thread = new Thread(runnable, threadName + "-" + threadIndex.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    };
+    ThreadPoolExecutor pool = new ThreadPoolExecutor(threadCount, threadCount, 60, TimeUnit.SECONDS,
+        new LinkedBlockingQueue<>(), threadFactory);
+    pool.allowCoreThreadTimeOut(true);
+    this.executor = pool;
+    this.maxPendingTasks = Math.max(1, maxPendingTasks);
+    this.pendingPermits = new Semaphore(this.maxPendingTasks);
+  }
+
+  /**
+   * submit the task, blocking while the queue is full
+   *
+   * @param <T>  the result type
+   * @param key  the tasks of the same key run in the submitted order
+   * @param task the task to run
+   * @return the future of the task result
+   */
+  public <T> CompletableFuture<T> submit(String key, Supplier<T> task) {
+    pendingPermits.acquireUninterruptibly();
+    @SuppressWarnings("unchecked")
+    final CompletableFuture<T>[] submitted = new CompletableFuture[1];
+    tails.compute(key, (k, tail) -> {
+      CompletableFuture<?> previous = (tail == null) ? CompletableFuture.completedFuture(null) : tail;
+      submitted[0] = previous.handle((result, error) -> null).thenApplyAsync(ignored -> task.get(), executor);
+      return submitted[0];
+    });
+    CompletableFuture<T> future = submitted[0];
+    future.whenComplete((result, error) -> {
+      pendingPermits.release();
+      tails.remove(key, future);
+    });
+    return future;
+  }
+
+  /**
+   * @return the number of submitted and not finished tasks
+   */
+  public int getPendingCount() {
+    return maxPendingTasks - pendingPermits.availablePermits();
+  }
+
+  /**
+   * wait until all the submitted tasks are finished, including the tasks which
+   * are submitted while waiting
+   */
+  public void awaitAll() {
+    while (!tails.isEmpty()) {
+      CompletableFuture<?>[] running = tails.values().toArray(new CompletableFuture<?>[0]);
+      CompletableFuture.allOf(running).handle((result, error) -> null).join();
+    }
+  }
+
+  /**
+   * wait for the submitted tasks and stop the threads
+   */
+  public void shutdown() {
+    awaitAll();
+    executor.shutdown();
+  }
+}
@@ -0,0 +1,133 @@
+package com.kms.util;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free histogram of the positive values (Ex: the latency in microseconds)
+ * with log-linear buckets, as HdrHistogram: each power of two is split into 16
+ * sub-buckets, so the recorded values keep about 6% precision from 1 to
+ * Long.MAX_VALUE in 960 counters
+ */
+public class LatencyHistogram {
+  private static final int SUB_BUCKET_BITS = 4;
+  private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+  private static final int BUCKET_COUNT = (64 - SUB_BUCKET_BITS) * SUB_BUCKET_COUNT;
+
+  private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+  private final LongAdder totalCount = new LongAdder();
+  private final LongAdder totalValue = new LongAdder();
+  private final AtomicLongArray minMax = new AtomicLongArray(new long[] { Long.MAX_VALUE, 0 });
+
+  /**
+   * @param value the value to record, the negative value is recorded as 0
+   */
+  public void record(long value) {
+    long recorded = Math.max(0, value);
+    counts.incrementAndGet(bucketOf(recorded));
+    totalCount.increment();
+    totalValue.add(recorded);
+    long min;
+    while (recorded < (min = minMax.get(0)) && !minMax.compareAndSet(0, min, recorded)) {
+      // retry until the min is updated by this or a smaller value
+    }
+    long max;
+    while (recorded > (max = minMax.get(1)) && !minMax.compareAndSet(1, max, recorded)) {
+      // retry until the max is updated by this or a bigger value
+    }
+  }
+
+  /**
+   * @return the number of the recorded values
+   */
+  public long getCount() {
+    return totalCount.sum();
+  }
+
+  /**
+   * @return the sum of the recorded values
+   */
+  public long getTotal() {
+    return totalValue.sum();
+  }
+
+  /**
+   * @return the smallest recorded value ; 0 if nothing is recorded
+   */
+  public long getMin() {
+    long min = minMax.get(0);
+    return (min == Long.MAX_VALUE) ? 0 : min;
+  }
+
+  /**
+   * @return the biggest recorded value
+   */
+  public long getMax() {
+    return minMax.get(1);
+  }
+
+  /**
+   * @return the mean of the recorded values ; 0 if nothing is recorded
+   */
+  public double getMean() {
+    long count = getCount();
+    return (count == 0) ? 0 : (double) getTotal() / count;
+  }
+
+  /**
+   * @param percentile the percentile from 0 to 100 (Ex: 99.9)
+   * @return the value which the percentile of the recorded values are less than
+   *         or equal to, in the precision of the buckets ; 0 if nothing is
+   *         recorded
+   */
+  public long getValueAtPercentile(double percentile) {
+    long count = getCount();
+    if (count == 0)
+      return 0;
+    long rank = Math.max(1, (long) Math.ceil(Math.min(100, percentile) / 100 * count));
+    long seen = 0;
+    for (int bucket = 0; bucket < BUCKET_COUNT; bucket++) {
+      seen += counts.get(bucket);
+      if (seen >= rank)
+        return Math.min(getMax(), highestValueOf(bucket));
+    }
+    return getMax();
+  }
+
+  /**
+   * forget all the recorded values
+   */
+  public void reset() {
+    for (int bucket = 0; bucket < BUCKET_COUNT; bucket++)
+      counts.set(bucket, 0);
+    totalCount.reset();
+    totalValue.reset();
+    minMax.set(0, Long.MAX_VALUE);
+    minMax.set(1, 0);
+  }
+
+  /**
+   * @param value the positive value
+   * @return the bucket of the value: the values under 16 have their own bucket,
+   *         the bigger values are bucketed by the highest 5 bits
+   */
+  static int bucketOf(long value) {
+    if (value < SUB_BUCKET_COUNT)
+      return (int) value;
+    int magnitude = 63 - Long.numberOfLeadingZeros(value);
+    int subBucket = (int) (value >>> (magnitude - SUB_BUCKET_BITS)) & (SUB_BUCKET_COUNT - 1);
+    return (magnitude - SUB_BUCKET_BITS + 1) * SUB_BUCKET_COUNT + subBucket;
+  }
+
+  /**
+   * @param bucket the bucket
+   * @return the highest value of the bucket
+   */
+  static long highestValueOf(int bucket) {
+    if (bucket < SUB_BUCKET_COUNT)
+      return bucket;
+    int shift = bucket / SUB_BUCKET_COUNT - 1;
+    long lowest = (long) (SUB_BUCKET_COUNT + bucket % SUB_BUCKET_COUNT) << shift;
+    return lowest + (1L << shift) - 1;
+  }
+}
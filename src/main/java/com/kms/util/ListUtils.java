@@ -18,7 +18,8 @@ public class ListUtils {
   }
 
   /**
-   * Get the value from List by Row and Col indexes
+   * Get the value from List by Row and Col indexes, the number and boolean
+   * cells (Ex: read as UNFORMATTED_VALUE) are returned as their text
    * 
    * @param values value to get the value from
    * @param rowIndex the row index
@@ -29,8 +30,8 @@ public class ListUtils {
     if (isEmpty(values) || rowIndex >= values.size())
       return null;
     List<Object> row = values.get(rowIndex);
-    if (colIndex >= row.size())
+    if (row == null || colIndex >= row.size() || row.get(colIndex) == null)
       return null;
-    return ((String) row.get(colIndex)).trim();
+    return row.get(colIndex).toString().trim();
   }
 }
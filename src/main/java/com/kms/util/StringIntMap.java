@@ -0,0 +1,104 @@
+package com.kms.util;
+
+import java.util.Arrays;
+
+/**
+ * Open addressing hash map from String to primitive int, using linear probing.
+ * The missing keys have the value 0. It is not thread safe
+ */
+public class StringIntMap {
+  private static final float LOAD_FACTOR = 0.6f;
+
+  private String[] keys;
+  private int[] values;
+  private int size = 0;
+  private int resizeAt;
+
+  /**
+   * Constructor for StringIntMap
+   */
+  public StringIntMap() {
+    this(16);
+  }
+
+  /**
+   * Constructor for StringIntMap
+   *
+   * @param expectedSize the number of keys to hold without resizing
+   */
+  public StringIntMap(int expectedSize) {
+    int capacity = Integer.highestOneBit(Math.max(4, (int) (expectedSize / LOAD_FACTOR)) - 1) << 1;
+    keys = new String[capacity];
+    values = new int[capacity];
+    resizeAt = (int) (capacity * LOAD_FACTOR);
+  }
+
+  /**
+   * @param key the key
+   * @return the value of the key ; 0 if the key is missing
+   */
+  public int get(String key) {
+    int slot = findSlot(keys, key);
+    return (keys[slot] == null) ? 0 : values[slot];
+  }
+
+  /**
+   * add the delta to the value of the key
+   *
+   * @param key   the key
+   * @param delta the number to add
+   * @return the new value
+   */
+  public int add(String key, int delta) {
+    int slot = findSlot(keys, key);
+    if (keys[slot] == null) {
+      if (size >= resizeAt) {
+        resize();
+        slot = findSlot(keys, key);
+      }
+      keys[slot] = key;
+      size++;
+    }
+    values[slot] += delta;
+    return values[slot];
+  }
+
+  /**
+   * @return the number of keys
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * remove all the keys
+   */
+  public void clear() {
+    Arrays.fill(keys, null);
+    Arrays.fill(values, 0);
+    size = 0;
+  }
+
+  private static int findSlot(String[] keys, String key) {
+    int mask = keys.length - 1;
+    int hash = key.hashCode();
+    int slot = (hash ^ (hash >>> 16)) & mask;
+    while (keys[slot] != null && !keys[slot].equals(key))
+      slot = (slot + 1) & mask;
+    return slot;
+  }
+
+  private void resize() {
+    String[] oldKeys = keys;
+    int[] oldValues = values;
+    keys = new String[oldKeys.length << 1];
+    values = new int[oldKeys.length << 1];
+    resizeAt = (int) (keys.length * LOAD_FACTOR);
+    for (int oldSlot = 0; oldSlot < oldKeys.length; oldSlot++)
+      if (oldKeys[oldSlot] != null) {
+        int slot = findSlot(keys, oldKeys[oldSlot]);
+        keys[slot] = oldKeys[oldSlot];
+        values[slot] = oldValues[oldSlot];
+      }
+  }
+}
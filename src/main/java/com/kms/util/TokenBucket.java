@@ -0,0 +1,60 @@
+package com.kms.util;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token bucket rate limiter. The permits are reserved in the calling order, a
+ * caller waits until its reserved permit is refilled
+ */
+public class TokenBucket {
+  private final double capacity;
+  private final double permitsPerNano;
+  private double tokens;
+  private long lastRefillNanos;
+
+  /**
+   * Constructor for TokenBucket
+   *
+   * @param permitsPerMinute the sustained rate, 0 or less for no limit
+   * @param burst            the number of permits which can be used at once
+   */
+  public TokenBucket(double permitsPerMinute, int burst) {
+    this.capacity = Math.max(1, burst);
+    this.permitsPerNano = permitsPerMinute / TimeUnit.MINUTES.toNanos(1);
+    this.tokens = this.capacity;
+    this.lastRefillNanos = System.nanoTime();
+  }
+
+  /**
+   * @return true if the bucket does not limit the rate
+   */
+  public boolean isUnlimited() {
+    return permitsPerNano <= 0;
+  }
+
+  /**
+   * reserve one permit
+   *
+   * @return the nanoseconds to wait before the permit can be used
+   */
+  public synchronized long reserve() {
+    if (isUnlimited())
+      return 0;
+    long now = System.nanoTime();
+    tokens = Math.min(capacity, tokens + (now - lastRefillNanos) * permitsPerNano);
+    lastRefillNanos = now;
+    tokens -= 1;
+    return (tokens >= 0) ? 0 : (long) Math.ceil(-tokens / permitsPerNano);
+  }
+
+  /**
+   * wait for one permit
+   *
+   * @throws InterruptedException if interrupted while waiting
+   */
+  public void acquire() throws InterruptedException {
+    long waitNanos = reserve();
+    if (waitNanos > 0)
+      TimeUnit.NANOSECONDS.sleep(waitNanos);
+  }
+}
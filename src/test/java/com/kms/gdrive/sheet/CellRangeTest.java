@@ -0,0 +1,111 @@
+package com.kms.gdrive.sheet;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import org.junit.Test;
+
+/**
+ * The parse and format round-trips of CellRef and CellRange
+ */
+public class CellRangeTest {
+  @Test
+  public void columnLettersRoundTrip() {
+    assertEquals("A", CellRef.columnToLetter(0));
+    assertEquals("Z", CellRef.columnToLetter(25));
+    assertEquals("AA", CellRef.columnToLetter(26));
+    assertEquals("ZZ", CellRef.columnToLetter(CellRef.CACHED_COLUMNS - 1));
+    assertEquals("AAA", CellRef.columnToLetter(CellRef.CACHED_COLUMNS));
+    for (int column = 0; column < 26 * 26 * 26 + 26 * 26 + 26; column++)
+      assertEquals(column, CellRef.letterToColumn(CellRef.columnToLetter(column)));
+    assertEquals(28, CellRef.letterToColumn("ac"));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void emptyColumnLetter() {
+    CellRef.letterToColumn("");
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void columnLetterWithDigit() {
+    CellRef.letterToColumn("A1");
+  }
+
+  @Test
+  public void cellRoundTrip() {
+    CellRef cell = CellRef.parse("AB12");
+    assertEquals(27, cell.getColumn());
+    assertEquals(12, cell.getRow());
+    assertEquals("AB12", cell.toString());
+    assertEquals(cell, CellRef.of("ab", 12));
+    assertEquals(cell, CellRef.parse(cell.toString()));
+
+    CellRef column = CellRef.parse("C");
+    assertEquals(2, column.getColumn());
+    assertEquals(0, column.getRow());
+    assertEquals("C", column.toString());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void cellWithoutColumn() {
+    CellRef.parse("12");
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void cellWithBadRow() {
+    CellRef.parse("C1x");
+  }
+
+  @Test
+  public void rangeRoundTrip() {
+    String[] ranges = { "Sheet1!C12:E40", "Sheet1!C12:C", "'Test Results'!A1:B2", "'It''s'!C3:C3", "'A1'!A1:A1",
+        "'R1C1'!B2:D", "C12:E12" };
+    for (String range : ranges) {
+      CellRange parsed = CellRange.parse(range);
+      assertEquals(range, parsed.toA1());
+      assertEquals(parsed, CellRange.parse(parsed.toA1()));
+    }
+  }
+
+  @Test
+  public void rangeFields() {
+    CellRange range = CellRange.parse("'It''s'!C12:E");
+    assertEquals("It's", range.getSheetName());
+    assertEquals(2, range.getStartColumn());
+    assertEquals(12, range.getStartRow());
+    assertEquals(4, range.getEndColumn());
+    assertEquals(CellRange.TO_END, range.getEndRow());
+    assertEquals(CellRef.parse("C12"), range.getStart());
+    assertEquals(CellRef.parse("E"), range.getEnd());
+
+    CellRange cell = CellRange.parse("Sheet1!D7");
+    assertEquals(cell.getStart(), cell.getEnd());
+    assertEquals("Sheet1!D7:D7", cell.toA1());
+    assertNull(CellRange.parse("D7").getSheetName());
+  }
+
+  @Test
+  public void rangeFactories() {
+    assertEquals("Sheet1!C12:E40", CellRange.of("Sheet1", "C", 12, "E", 40).toA1());
+    assertEquals("Sheet1!C12:C", CellRange.column("Sheet1", "C", 12).toA1());
+    assertEquals("'My Sheet'!E5:E5", CellRange.cell("My Sheet", "E", 5).toA1());
+    assertEquals("Other!C12:E40", CellRange.parse("Sheet1!C12:E40").withSheetName("Other").toA1());
+  }
+
+  @Test
+  public void quoteSheetName() {
+    assertEquals("Sheet1", CellRange.quoteSheetName("Sheet1"));
+    assertEquals("Sheet_1", CellRange.quoteSheetName("Sheet_1"));
+    assertEquals("'Test Results'", CellRange.quoteSheetName("Test Results"));
+    assertEquals("'It''s'", CellRange.quoteSheetName("It's"));
+    assertEquals("'AB12'", CellRange.quoteSheetName("AB12"));
+    assertEquals("'r2c3'", CellRange.quoteSheetName("r2c3"));
+    assertEquals("'1st'", CellRange.quoteSheetName("1st"));
+    assertEquals("'quoted'", CellRange.quoteSheetName("'quoted'"));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void rangeEndBeforeStart() {
+    CellRange.parse("Sheet1!C12:C3");
+  }
+}
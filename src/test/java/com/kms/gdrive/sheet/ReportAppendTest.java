@@ -0,0 +1,82 @@
+package com.kms.gdrive.sheet;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * The append mode of Report on the in-memory backend: the spreadsheet inserts
+ * the appended rows after the first table, so the known rows below it move down
+ */
+public class ReportAppendTest {
+  private InMemorySheetBackend backend;
+  private String sheetID;
+
+  @Before
+  public void setUp() throws IOException {
+    backend = new InMemorySheetBackend().addSheet("T");
+    // t1 and t2 are the first table, t3 is below a blank row
+    backend.update("T!C12:C13", Arrays.asList(row("t1"), row("t2")));
+    backend.update("T!C15", Collections.singletonList(row("t3")));
+    sheetID = "append-" + System.nanoTime();
+    Sheet.setBackendFactory(id -> backend);
+    RequestScheduler.setRateLimits(0, 0, 1);
+    Report.setAppendNewRows(true);
+  }
+
+  @After
+  public void tearDown() {
+    Report.setAppendNewRows(false);
+    RequestScheduler.setRateLimits(60, 0, 10);
+    Sheet.setBackendFactory(Sheet::createGoogleBackend);
+  }
+
+  @Test
+  public void shiftRowsBelowAppend() throws IOException {
+    List<Map.Entry<String, String>> results = new ArrayList<>();
+    results.add(result("t1", "P1"));
+    results.add(result("t3", "P3"));
+    results.add(result("n1", "PN"));
+    assertArrayEquals(new int[] { 12, 16, 14 },
+        Report.updateTestResults(results, "T", sheetID, Report.UpdateMode.OVERWRITE));
+    Sheet.flush(sheetID);
+    assertEquals(Arrays.asList(Arrays.asList("t1", "", "P1"), row("t2"), Arrays.asList("n1", "", "PN"),
+        Collections.emptyList(), Arrays.asList("t3", "", "P3")), values("T!C12:E16"));
+  }
+
+  @Test
+  public void findShiftedRows() throws IOException {
+    assertEquals(14, Report.updateTestResultByName("n1", "PN", "T", sheetID, true));
+    // t3 is found at its new row, without reading the sheet again
+    assertEquals(16, Report.findTestByName("t3", "T", sheetID, true));
+    assertEquals(16, Report.updateTestResultByName("t3", "P3", "T", sheetID, true));
+    assertEquals(15, Report.updateTestResultByName("n2", "PN2", "T", sheetID, true));
+    assertEquals(17, Report.findTestByName("t3", "T", sheetID, true));
+    Sheet.flush(sheetID);
+    assertEquals(Arrays.asList(row("n1"), row("n2"), Collections.emptyList(), row("t3")), values("T!C14:C17"));
+    assertEquals(Arrays.asList(row("P3")), values("T!E17"));
+  }
+
+  private List<List<Object>> values(String range) throws IOException {
+    return backend.get(range, ReadOptions.DEFAULT).getValues();
+  }
+
+  private static List<Object> row(Object... values) {
+    return Arrays.asList(values);
+  }
+
+  private static Map.Entry<String, String> result(String tcName, String tcResult) {
+    return new AbstractMap.SimpleEntry<>(tcName, tcResult);
+  }
+}
@@ -0,0 +1,50 @@
+package com.kms.gdrive.sheet;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+/**
+ * The escaping of the lines of the report server protocol
+ */
+public class ReportProtocolTest {
+  @Test
+  public void plainFields() {
+    List<String> fields = Arrays.asList(ReportProtocol.FIND, "sheetID", "Sheet1", "test1", "true");
+    assertEquals("FIND\tsheetID\tSheet1\ttest1\ttrue", ReportProtocol.encode(fields));
+    assertEquals(fields, ReportProtocol.decode(ReportProtocol.encode(fields)));
+  }
+
+  @Test
+  public void escapedFields() {
+    List<String> fields = Arrays.asList("tab\there", "line\nbreak", "carriage\rreturn", "back\\slash", "\\t",
+        "\\0", "trailing\\", "", "\t\n\r\\");
+    String line = ReportProtocol.encode(fields);
+    assertTrue(line.indexOf('\n') < 0 && line.indexOf('\r') < 0);
+    assertEquals(fields.size() - 1, line.chars().filter(c -> c == '\t').count());
+    assertEquals(fields, ReportProtocol.decode(line));
+  }
+
+  @Test
+  public void nullFields() {
+    List<String> fields = Arrays.asList(ReportProtocol.NEW_COL, "sheetID", "Sheet1", null);
+    assertEquals(fields, ReportProtocol.decode(ReportProtocol.encode(fields)));
+    List<String> nullField = Arrays.asList((String) null);
+    assertEquals(nullField, ReportProtocol.decode(ReportProtocol.encode(nullField)));
+    assertEquals(Arrays.asList("", ""), ReportProtocol.decode("\t"));
+  }
+
+  @Test
+  public void rows() {
+    int[] rows = { 12, -1, 100000 };
+    assertEquals("12,-1,100000", ReportProtocol.encodeRows(rows));
+    assertArrayEquals(rows, ReportProtocol.decodeRows(ReportProtocol.encodeRows(rows)));
+    assertArrayEquals(new int[0], ReportProtocol.decodeRows(ReportProtocol.encodeRows(new int[0])));
+    assertArrayEquals(new int[0], ReportProtocol.decodeRows(null));
+  }
+}
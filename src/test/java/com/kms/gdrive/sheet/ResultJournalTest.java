@@ -0,0 +1,172 @@
+package com.kms.gdrive.sheet;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * The recovery of ResultJournal: the writes which are not replayed are replayed
+ * at the next open, up to the first torn or corrupt record
+ */
+public class ResultJournalTest {
+  private static final long SEGMENT_SIZE = 4096;
+  private static final int HEADER_SIZE = 8;
+
+  private Path directory;
+  private InMemorySheetBackend backend;
+  private Sheet sheet;
+
+  @Before
+  public void setUp() throws IOException {
+    directory = Files.createTempDirectory("gsheet-journal");
+    backend = new InMemorySheetBackend().addSheet("T");
+    Sheet.setBackendFactory(id -> backend);
+    RequestScheduler.setRateLimits(0, 0, 1);
+    RequestScheduler.setRetryPolicy(0, 0, 0);
+    sheet = new Sheet("journal-test");
+    // The spreadsheet is not reachable, the writes stay in the journal
+    backend.setQuotaErrorRate(1, 0);
+    ResultJournal journal = new ResultJournal(sheet, directory, SEGMENT_SIZE);
+    journal.append("T!A1", values("v1"));
+    journal.append("T!A2", values("v2"));
+    journal.append("T!A3", values("v3"));
+    assertFalse(journal.flush());
+    journal.close();
+    backend.setQuotaErrorRate(0, 0);
+  }
+
+  @After
+  public void tearDown() throws IOException {
+    RequestScheduler.setRetryPolicy(6, 1000, 64000);
+    RequestScheduler.setRateLimits(60, 0, 10);
+    Sheet.setBackendFactory(Sheet::createGoogleBackend);
+    try (Stream<Path> files = Files.walk(directory)) {
+      files.sorted(Comparator.reverseOrder()).forEach(file -> file.toFile().delete());
+    }
+  }
+
+  @Test
+  public void replayAfterRestart() throws IOException {
+    ResultJournal journal = new ResultJournal(sheet, directory, SEGMENT_SIZE);
+    assertTrue(journal.flush());
+    assertEquals(0, journal.size());
+    journal.close();
+    assertEquals("v1", cell("T!A1"));
+    assertEquals("v2", cell("T!A2"));
+    assertEquals("v3", cell("T!A3"));
+
+    // The replayed writes are not replayed again
+    backend.update("T!A1", values("changed"));
+    journal = new ResultJournal(sheet, directory, SEGMENT_SIZE);
+    assertEquals(0, journal.size());
+    journal.close();
+    assertEquals("changed", cell("T!A1"));
+  }
+
+  @Test
+  public void stopAtTornRecord() throws IOException {
+    // The length is written last, a torn record has no length
+    Path segment = firstSegment();
+    int third = recordOffset(segment, 2);
+    try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+      channel.write(ByteBuffer.allocate(Integer.BYTES), third);
+    }
+    ResultJournal journal = new ResultJournal(sheet, directory, SEGMENT_SIZE);
+    assertTrue(journal.flush());
+    journal.close();
+    assertEquals("v1", cell("T!A1"));
+    assertEquals("v2", cell("T!A2"));
+    assertNull(cell("T!A3"));
+  }
+
+  @Test
+  public void stopAtCorruptRecord() throws IOException {
+    Path segment = firstSegment();
+    int second = recordOffset(segment, 1);
+    try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+      ByteBuffer payload = ByteBuffer.allocate(1);
+      channel.read(payload, second + HEADER_SIZE + 2);
+      payload.put(0, (byte) (payload.get(0) ^ 0x55));
+      payload.rewind();
+      channel.write(payload, second + HEADER_SIZE + 2);
+    }
+    ResultJournal journal = new ResultJournal(sheet, directory, SEGMENT_SIZE);
+    // The journal goes on in a new segment
+    journal.append("T!B1", values("new"));
+    assertTrue(journal.flush());
+    journal.close();
+    assertEquals("v1", cell("T!A1"));
+    assertNull(cell("T!A2"));
+    assertNull(cell("T!A3"));
+    assertEquals("new", cell("T!B1"));
+
+    journal = new ResultJournal(sheet, directory, SEGMENT_SIZE);
+    assertEquals(0, journal.size());
+    journal.close();
+  }
+
+  @Test
+  public void dropRejectedWrites() throws IOException {
+    ResultJournal journal = new ResultJournal(sheet, directory, SEGMENT_SIZE);
+    journal.append("Missing!A1", values("rejected"));
+    journal.append("T!A4", values("v4"));
+    // The rejected write does not block the journal
+    assertTrue(journal.flush());
+    journal.close();
+    assertEquals("v3", cell("T!A3"));
+    assertEquals("v4", cell("T!A4"));
+
+    journal = new ResultJournal(sheet, directory, SEGMENT_SIZE);
+    assertEquals(0, journal.size());
+    journal.close();
+  }
+
+  private Path firstSegment() throws IOException {
+    List<Path> segments = new ArrayList<>();
+    try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "journal-*.log")) {
+      for (Path file : files)
+        segments.add(file);
+    }
+    Collections.sort(segments);
+    return segments.get(0);
+  }
+
+  /**
+   * @return the offset of the record in the segment, each record is its length,
+   *         its CRC32 and its payload
+   */
+  private static int recordOffset(Path segment, int record) throws IOException {
+    ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(segment));
+    int offset = 0;
+    for (int iRecord = 0; iRecord < record; iRecord++)
+      offset += HEADER_SIZE + buffer.getInt(offset);
+    return offset;
+  }
+
+  private String cell(String range) throws IOException {
+    List<List<Object>> values = backend.get(range, ReadOptions.DEFAULT).getValues();
+    return (values == null) ? null : (String) values.get(0).get(0);
+  }
+
+  private static List<List<Object>> values(Object value) {
+    return Collections.singletonList(Collections.singletonList(value));
+  }
+}
@@ -0,0 +1,77 @@
+package com.kms.gdrive.sheet;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * The row moves of TestNameIndex, as done after the spreadsheet inserts the
+ * appended rows above the allocated ones
+ */
+public class TestNameIndexTest {
+  private TestNameIndex index;
+
+  @Before
+  public void setUp() {
+    index = new TestNameIndex("C", "E", 12);
+    index.addRow("t1", 12);
+    index.addRow("t2", 13);
+    index.addRow("t3", 15);
+    index.addRow("t1", 16);
+    index.markResult(13);
+    index.markResult(16);
+  }
+
+  @Test
+  public void moveRowsDown() {
+    index.moveRows(14, 2);
+    assertEquals(12, index.findRow("t1", true));
+    assertEquals(13, index.findRow("t2", true));
+    assertEquals(17, index.findRow("t3", true));
+    assertEquals(18, index.findOccurrence("t1", 1));
+    assertEquals(19, index.nextNewRow());
+  }
+
+  @Test
+  public void moveResultsWithRows() {
+    index.moveRows(14, 2);
+    // The result of row 13 stays, the result of row 16 moves to row 18
+    assertEquals(-1, index.findRow("t2", false));
+    assertEquals(12, index.findRow("t1", false));
+    index.markResult(12);
+    assertEquals(-1, index.findRow("t1", false));
+    index.moveRows(12, 1);
+    assertEquals(-1, index.findRow("t1", false));
+    assertEquals(18, index.findRow("t3", false));
+  }
+
+  @Test
+  public void moveRowsUp() {
+    index.moveRows(15, -1);
+    assertEquals(14, index.findRow("t3", true));
+    assertEquals(15, index.findOccurrence("t1", 1));
+    assertEquals(-1, index.findOccurrence("t1", 2));
+    assertEquals(16, index.nextNewRow());
+    // The result of row 16 moves to row 15
+    index.markResult(12);
+    assertEquals(-1, index.findRow("t1", false));
+  }
+
+  @Test
+  public void moveNothing() {
+    index.moveRows(14, 0);
+    index.moveRows(20, 3);
+    assertEquals(15, index.findRow("t3", true));
+    assertEquals(16, index.findOccurrence("t1", 1));
+    assertEquals(17, index.nextNewRow());
+  }
+
+  @Test
+  public void keepNewRowsAfterMove() {
+    index.moveRows(14, 2);
+    index.addRow("t4", index.nextNewRow());
+    assertEquals(19, index.findRow("t4", true));
+    assertEquals(20, index.nextNewRow());
+  }
+}
@@ -0,0 +1,116 @@
+package com.kms.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+/**
+ * The eviction and the pinning of BoundedCache
+ */
+public class BoundedCacheTest {
+  private final List<String> evicted = new ArrayList<>();
+
+  private BoundedCache<String, String> newCache(int maxSize, long idleMillis) {
+    return new BoundedCache<>(maxSize, idleMillis, (key, value) -> evicted.add(key),
+        value -> !value.startsWith("pinned"));
+  }
+
+  @Test
+  public void evictLeastRecentlyUsed() {
+    BoundedCache<String, String> cache = newCache(2, 0);
+    cache.get("a", key -> key);
+    cache.get("b", key -> key);
+    // "a" becomes the most recently used, so "b" is evicted
+    cache.get("a", key -> "not created");
+    cache.get("c", key -> key);
+    assertEquals(Arrays.asList("b"), evicted);
+    assertEquals(Arrays.asList("a", "c"), cache.values());
+    assertEquals(1, cache.getHitCount());
+    assertEquals(3, cache.getMissCount());
+    assertEquals(1, cache.getEvictionCount());
+  }
+
+  @Test
+  public void createOnce() {
+    BoundedCache<String, String> cache = newCache(4, 0);
+    String value = cache.get("a", key -> new String("value"));
+    assertSame(value, cache.get("a", key -> new String("value")));
+    assertSame(value, cache.getIfPresent("a"));
+    assertNull(cache.getIfPresent("b"));
+  }
+
+  @Test
+  public void keepPinnedValues() {
+    BoundedCache<String, String> cache = newCache(2, 0);
+    cache.get("p1", key -> "pinned1");
+    cache.get("p2", key -> "pinned2");
+    cache.get("a", key -> key);
+    // The cache goes over its size rather than evict the pinned values
+    assertEquals(3, cache.size());
+    cache.get("b", key -> key);
+    assertEquals(Arrays.asList("a"), evicted);
+    cache.evictAll();
+    assertEquals(Arrays.asList("a", "b"), evicted);
+    assertEquals(Arrays.asList("pinned1", "pinned2"), cache.values());
+  }
+
+  @Test
+  public void evictIdleEntries() throws InterruptedException {
+    BoundedCache<String, String> cache = newCache(10, 20);
+    cache.get("a", key -> key);
+    cache.get("p", key -> "pinned");
+    Thread.sleep(50);
+    cache.cleanUp();
+    assertEquals(Arrays.asList("a"), evicted);
+    assertEquals(Arrays.asList("pinned"), cache.values());
+  }
+
+  @Test
+  public void shrinkLimits() {
+    BoundedCache<String, String> cache = newCache(3, 0);
+    cache.get("a", key -> key);
+    cache.get("b", key -> key);
+    cache.get("c", key -> key);
+    cache.setLimits(1, 0);
+    cache.get("d", key -> key);
+    assertEquals(Arrays.asList("a", "b", "c"), evicted);
+    assertEquals(Arrays.asList("d"), cache.values());
+  }
+
+  @Test
+  public void removeWithoutListener() {
+    BoundedCache<String, String> cache = newCache(2, 0);
+    cache.get("a", key -> key);
+    assertEquals("a", cache.remove("a"));
+    assertNull(cache.remove("a"));
+    assertEquals(0, cache.size());
+    assertEquals(new ArrayList<String>(), evicted);
+  }
+
+  @Test
+  public void dropFailedCreation() {
+    BoundedCache<String, String> cache = newCache(2, 0);
+    try {
+      cache.get("a", key -> {
+        throw new IllegalStateException("failed");
+      });
+      fail("The creator failure is not thrown");
+    } catch (IllegalStateException e) {
+      assertEquals("failed", e.getMessage());
+    }
+    assertEquals(0, cache.size());
+    assertEquals("a", cache.get("a", key -> key));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void invalidLimits() {
+    newCache(0, 0);
+  }
+}